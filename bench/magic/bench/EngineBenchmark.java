@@ -0,0 +1,124 @@
+package magic.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import magic.model.MagicGame;
+import magic.model.MagicPermanent;
+import magic.model.MagicPermanentState;
+import magic.model.MagicPlayer;
+import magic.model.event.MagicDeclareBlockersEvent;
+import magic.model.event.MagicEvent;
+import magic.model.event.MagicPayManaCostEvent;
+import magic.test.TestGameBuilder;
+import magic.utility.MagicSystem;
+import magic.utility.ProgressReporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Microbenchmarks of the rules engine operations the AI repeats at every search
+ * node, run on the games of the magic.test scenarios.
+ * <p>
+ * The first player attacks with all its creatures, blockers are declared by the
+ * second player and mana costs are paid by the first player.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EngineBenchmark {
+
+    @Param({"TestStatics"})
+    public String scenario;
+
+    @Param({"{2}{B}{B}"})
+    public String manaCost;
+
+    private MagicGame game;
+    private MagicPlayer player;
+    private MagicEvent choiceEvent;
+    private MagicEvent blockersEvent;
+    private MagicEvent manaEvent;
+
+    private static boolean initialized;
+
+    private static synchronized void initialize() {
+        if (!initialized) {
+            MagicSystem.initialize(new ProgressReporter());
+            initialized = true;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        initialize();
+
+        game = TestGameBuilder.buildGame(scenario);
+        game.advanceToNextEventWithChoice();
+        player = game.getPlayer(0);
+        choiceEvent = game.getNextEvent();
+
+        for (final MagicPermanent permanent : player.getPermanents()) {
+            if (permanent.isCreature() && permanent.canAttack()) {
+                permanent.setState(MagicPermanentState.Attacking);
+            }
+        }
+        blockersEvent = new MagicDeclareBlockersEvent(player.getOpponent());
+        manaEvent = new MagicPayManaCostEvent(MagicPermanent.NONE, player, manaCost);
+        game.update();
+    }
+
+    @Benchmark
+    public MagicGame copy() {
+        return new MagicGame(game, player);
+    }
+
+    @Benchmark
+    public MagicGame snapshotRestore() {
+        game.snapshot();
+        game.restore();
+        return game;
+    }
+
+    @Benchmark
+    public MagicGame update() {
+        // an unchanged game is not updated again
+        game.invalidateStateId();
+        game.update();
+        return game;
+    }
+
+    @Benchmark
+    public long getStateId() {
+        game.invalidateStateId();
+        return game.getStateId();
+    }
+
+    @Benchmark
+    public List<Object[]> getArtificialChoiceResults() {
+        return choiceEvent.getArtificialChoiceResults(game);
+    }
+
+    @Benchmark
+    public List<Object[]> declareBlockersResults() {
+        return blockersEvent.getArtificialChoiceResults(game);
+    }
+
+    @Benchmark
+    public List<Object[]> payManaCostResults() {
+        return manaEvent.getArtificialChoiceResults(game);
+    }
+}
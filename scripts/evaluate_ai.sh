@@ -1,7 +1,10 @@
 #!/bin/bash
+# usage: evaluate_ai.sh <AI> [games played at the same time, default all cores]
+# at most 2500 games, as the 25 deck pairs of 100 games each did before
 hg id 
-for d1 in release/decks/LSK_RW.dec release/decks/LSK_LifeGain.dec release/decks/LSK_UW.dec release/decks/LSK_Jund.dec release/decks/LSK_Skullclamp_Swords.dec; do
-for d2 in release/decks/LSK_RW.dec release/decks/LSK_LifeGain.dec release/decks/LSK_UW.dec release/decks/LSK_Jund.dec release/decks/LSK_Skullclamp_Swords.dec; do
-	java -Xmx1G -cp release/Magarena.jar magic.DeckStrCal --games 100 --strength 6 --deck1 $d1 --deck2 $d2 --ai1 $1 --ai2 VEGAS; 
-done
-done
+java -Xmx1G -cp release/Magarena.jar magic.AiLeague --str 6 --games 2500 --threads ${2:-$(nproc)} --ai $1 --ai VEGAS \
+	--deck release/decks/LSK_RW.dec \
+	--deck release/decks/LSK_LifeGain.dec \
+	--deck release/decks/LSK_UW.dec \
+	--deck release/decks/LSK_Jund.dec \
+	--deck release/decks/LSK_Skullclamp_Swords.dec
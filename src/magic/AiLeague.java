@@ -0,0 +1,339 @@
+package magic;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import magic.ai.MagicAIImpl;
+import magic.data.DuelConfig;
+import magic.data.GeneralConfig;
+import magic.data.settings.IntegerSetting;
+import magic.exception.handler.ConsoleExceptionHandler;
+import magic.headless.EloRatings;
+import magic.headless.HeadlessDuelExecutor;
+import magic.headless.Sprt;
+import magic.model.DuelPlayerConfig;
+import magic.model.MagicDeckProfile;
+import magic.model.MagicDuel;
+import magic.model.MagicGame;
+import magic.model.MagicRandom;
+import magic.model.player.AiProfile;
+import magic.utility.DeckUtils;
+import magic.utility.MagicSystem;
+import magic.utility.ProgressReporter;
+
+/**
+ * Rates AIs against each other by playing games between every pair of them.
+ * <p>
+ * The games of a pair cycle through all pairs of decks, and each deck pair is
+ * played twice with the AIs swapping decks. Games are played on several
+ * threads at the same time. A pair stops once a sequential probability ratio
+ * test decides which of its AIs is stronger, or after a maximum number of
+ * games. The Elo ratings of the AIs are updated after every game.
+ */
+public class AiLeague {
+
+    private static final int DEFAULT_STRENGTH = 6;
+
+    private static int maxGames = 200;
+    private static int threads = 1;
+    private static int life = 20;
+    private static int seed;
+    private static int strength = DEFAULT_STRENGTH;
+    private static double elo0 = -50;
+    private static double elo1 = 50;
+    private static double alpha = 0.05;
+    private static double beta = 0.05;
+    private static final List<String> decks = new ArrayList<>();
+    private static final List<String> aiArgs = new ArrayList<>();
+
+    private static MagicAIImpl[] ais;
+    private static int[] strs;
+    private static String[] names;
+    private static EloRatings ratings;
+    private static final List<Pairing> pairings = new ArrayList<>();
+    private static final Map<MagicDuel, Game> games = new IdentityHashMap<>();
+
+    // the games between two AIs, first is the AI that is tested to be stronger
+    private static final class Pairing {
+        private final int first;
+        private final int second;
+        private final Sprt sprt = new Sprt(elo0, elo1, alpha, beta);
+        // by deck of the first AI times number of decks plus deck of the second AI
+        private final int[] deckPlayed = new int[decks.size() * decks.size()];
+        private final int[] deckFirstWon = new int[decks.size() * decks.size()];
+        private int scheduled;
+        private int played;
+        private int firstWon;
+        private Sprt.Result result = Sprt.Result.NONE;
+
+        Pairing(final int aFirst, final int aSecond) {
+            first = aFirst;
+            second = aSecond;
+        }
+
+        boolean isDone() {
+            return result != Sprt.Result.NONE || scheduled >= maxGames;
+        }
+
+        @Override
+        public String toString() {
+            return names[first] + " vs " + names[second] + "\t" +
+                played + "\t" +
+                firstWon + "\t" +
+                (played - firstWon) + "\t" +
+                String.format("%.2f", sprt.getLLR()) + "\t" +
+                (result == Sprt.Result.H1 ? names[first] :
+                 result == Sprt.Result.H0 ? names[second] :
+                 "undecided");
+        }
+    }
+
+    // a game of a pairing, swapped if the second AI plays the first deck
+    private static final class Game {
+        private final Pairing pairing;
+        private final boolean swapped;
+        private final int decksKey;
+
+        Game(final Pairing aPairing, final boolean aSwapped, final int aDecksKey) {
+            pairing = aPairing;
+            swapped = aSwapped;
+            decksKey = aDecksKey;
+        }
+    }
+
+    // Command line parsing.
+    private static boolean parseArguments(final String[] args) {
+        boolean validArgs = true;
+        for (int i = 0; i < args.length; i += 2) {
+            final String curr = args[i];
+            final String next = i + 1 < args.length ? args[i+1] : "";
+            try { //parse CLI option
+                switch (curr) {
+                    case "--deck":
+                        decks.add(next);
+                        break;
+                    case "--ai":
+                        aiArgs.add(next);
+                        break;
+                    case "--str":
+                        strength = Integer.parseInt(next);
+                        break;
+                    case "--games":
+                        maxGames = Integer.parseInt(next);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(next);
+                        break;
+                    case "--life":
+                        life = Integer.parseInt(next);
+                        break;
+                    case "--seed":
+                        seed = Integer.parseInt(next);
+                        break;
+                    case "--elo0":
+                        elo0 = Double.parseDouble(next);
+                        break;
+                    case "--elo1":
+                        elo1 = Double.parseDouble(next);
+                        break;
+                    case "--alpha":
+                        alpha = Double.parseDouble(next);
+                        break;
+                    case "--beta":
+                        beta = Double.parseDouble(next);
+                        break;
+                    default:
+                        System.err.println("Error: unknown option " + curr);
+                        validArgs = false;
+                        break;
+                }
+            } catch (final NumberFormatException ex) {
+                System.err.println("ERROR! value of " + curr + " is not a number");
+                validArgs = false;
+            }
+        }
+
+        if (decks.isEmpty()) {
+            System.err.println("Error: no decks given");
+            validArgs = false;
+        }
+        for (final String deck : decks) {
+            if (!(new File(deck)).exists()) {
+                System.err.println("Error: file " + deck + " does not exist");
+                validArgs = false;
+            }
+        }
+
+        if (aiArgs.size() < 2) {
+            System.err.println("Error: at least two AIs are needed");
+            validArgs = false;
+        }
+        ais = new MagicAIImpl[aiArgs.size()];
+        strs = new int[aiArgs.size()];
+        names = new String[aiArgs.size()];
+        for (int i = 0; i < aiArgs.size(); i++) {
+            // AI or AI:strength
+            final String[] parts = aiArgs.get(i).split(":");
+            try {
+                ais[i] = MagicAIImpl.valueOf(parts[0]);
+                strs[i] = parts.length > 1 ? Integer.parseInt(parts[1]) : strength;
+                names[i] = ais[i].name() + ":" + strs[i];
+            } catch (final IllegalArgumentException ex) {
+                System.err.println("Error: " + aiArgs.get(i) + " is not valid AI");
+                validArgs = false;
+            }
+        }
+        if (validArgs && Arrays.stream(names).distinct().count() < names.length) {
+            System.err.println("Error: an AI is given twice");
+            validArgs = false;
+        }
+
+        return validArgs;
+    }
+
+    public static void main(final String[] args) {
+
+        Thread.setDefaultUncaughtExceptionHandler(new ConsoleExceptionHandler());
+
+        if (!parseArguments(args)) {
+            System.err.println("Usage: java -cp <path to Magarena.jar/exe> magic.AiLeague --deck <.dec file> ... --ai <AI[:strength]> --ai <AI[:strength]> ... [options]");
+            System.err.println("Options:");
+            System.err.println("--deck     <.dec file>           (deck to play, repeat for more decks)");
+            System.err.println("--ai       <AI[:1-8]>            (AI to rate and its level, repeat for more AIs)");
+            System.err.println("--str      <1-8>                 (level of AIs without one, default 6)");
+            System.err.println("--games    <1-*>                 (maximum number of games per pair of AIs, default 200)");
+            System.err.println("--threads  <1-*>                 (number of games played at the same time, default 1)");
+            System.err.println("--elo0     <elo>                 (Elo difference of hypothesis H0 of the SPRT, default -50)");
+            System.err.println("--elo1     <elo>                 (Elo difference of hypothesis H1 of the SPRT, default 50)");
+            System.err.println("--alpha    <0-1>                 (false positive rate of the SPRT, default 0.05)");
+            System.err.println("--beta     <0-1>                 (false negative rate of the SPRT, default 0.05)");
+            System.exit(1);
+        }
+
+        // only the cards in the decks are loaded
+        MagicSystem.setIsLazyCards(true);
+        MagicSystem.initialize(new ProgressReporter());
+
+        if (seed != 0) {
+            MagicRandom.setRNGState(seed);
+        }
+
+        ratings = new EloRatings(ais.length);
+        for (int i = 0; i < ais.length; i++) {
+            for (int j = i + 1; j < ais.length; j++) {
+                pairings.add(new Pairing(i, j));
+            }
+        }
+
+        System.err.println("#pair\tgames\tw1\tw2\tLLR\tstronger");
+        final HeadlessDuelExecutor executor = new HeadlessDuelExecutor(
+            threads,
+            GeneralConfig.get(IntegerSetting.AI_DUEL_MATCH_LIMIT) * 1000,
+            AiLeague::gameFinished
+        );
+        executor.run(AiLeague::nextDuel);
+
+        System.out.println("#pair\tgames\tw1\tw2\tLLR\tstronger");
+        for (final Pairing pairing : pairings) {
+            System.out.println(pairing);
+        }
+        System.out.println();
+        // same columns as DeckStrCal, one line per pair of AIs and decks played
+        System.out.println("#deck1\tai1\tstr1\tdeck2\tai2\tstr2\tgames\td1win\td1lose");
+        for (final Pairing pairing : pairings) {
+            for (int key = 0; key < pairing.deckPlayed.length; key++) {
+                if (pairing.deckPlayed[key] > 0) {
+                    System.out.println(
+                        decks.get(key / decks.size()) + "\t" +
+                        ais[pairing.first] + "\t" +
+                        strs[pairing.first] + "\t" +
+                        decks.get(key % decks.size()) + "\t" +
+                        ais[pairing.second] + "\t" +
+                        strs[pairing.second] + "\t" +
+                        pairing.deckPlayed[key] + "\t" +
+                        pairing.deckFirstWon[key] + "\t" +
+                        (pairing.deckPlayed[key] - pairing.deckFirstWon[key])
+                    );
+                }
+            }
+        }
+        System.out.println();
+        System.out.println("#ai\tgames\twins\telo");
+        final Integer[] order = new Integer[ais.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> -ratings.getElo(i)));
+        for (final int i : order) {
+            System.out.println(
+                names[i] + "\t" +
+                ratings.getGames(i) + "\t" +
+                ratings.getWins(i) + "\t" +
+                String.format("%.0f", ratings.getElo(i))
+            );
+        }
+    }
+
+    // returns the next game of the undecided pairing with the fewest games, null if all are done
+    private static synchronized MagicDuel nextDuel() {
+        Pairing next = null;
+        for (final Pairing pairing : pairings) {
+            if (!pairing.isDone() && (next == null || pairing.scheduled < next.scheduled)) {
+                next = pairing;
+            }
+        }
+        if (next == null) {
+            return null;
+        }
+
+        final int nr = next.scheduled++;
+        final int deckPair = (nr / 2) % (decks.size() * decks.size());
+        final boolean swapped = nr % 2 == 1;
+        final int p0 = swapped ? next.second : next.first;
+        final int p1 = swapped ? next.first : next.second;
+
+        final DuelConfig config = new DuelConfig();
+        config.setNrOfGames(1);
+        config.setStartLife(life);
+        final MagicDuel duel = new MagicDuel(config);
+        final DuelPlayerConfig[] players = new DuelPlayerConfig[] {
+            new DuelPlayerConfig(AiProfile.create(ais[p0], strs[p0]), MagicDeckProfile.getDeckProfile("**")),
+            new DuelPlayerConfig(AiProfile.create(ais[p1], strs[p1]), MagicDeckProfile.getDeckProfile("**"))
+        };
+        duel.setPlayers(players);
+        DeckUtils.loadAndSetPlayerDeck(decks.get(deckPair / decks.size()), players[0]);
+        DeckUtils.loadAndSetPlayerDeck(decks.get(deckPair % decks.size()), players[1]);
+        // each deck pair is played with both AIs going first
+        duel.setStartPlayer((nr / 2 / (decks.size() * decks.size())) % 2);
+
+        final int firstDeck = swapped ? deckPair % decks.size() : deckPair / decks.size();
+        final int secondDeck = swapped ? deckPair / decks.size() : deckPair % decks.size();
+        games.put(duel, new Game(next, swapped, firstDeck * decks.size() + secondDeck));
+        return duel;
+    }
+
+    private static synchronized void gameFinished(final MagicDuel duel, final MagicGame game) {
+        final Game info = games.remove(duel);
+        final Pairing pairing = info.pairing;
+        final boolean firstWon = (duel.getGamesWon() == 1) != info.swapped;
+        pairing.played++;
+        pairing.deckPlayed[info.decksKey]++;
+        if (firstWon) {
+            pairing.firstWon++;
+            pairing.deckFirstWon[info.decksKey]++;
+            ratings.addGame(pairing.first, pairing.second);
+        } else {
+            ratings.addGame(pairing.second, pairing.first);
+        }
+        if (pairing.result == Sprt.Result.NONE) {
+            pairing.sprt.addGame(firstWon);
+            pairing.result = pairing.sprt.getResult();
+        }
+        System.err.println(pairing);
+    }
+}
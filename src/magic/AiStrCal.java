@@ -6,7 +6,9 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -14,6 +16,7 @@ import magic.ai.MagicAIImpl;
 import magic.data.DeckGenerators;
 import magic.data.DuelConfig;
 import magic.exception.handler.ConsoleExceptionHandler;
+import magic.headless.HeadlessDuelExecutor;
 import magic.headless.HeadlessGameController;
 import magic.model.DuelPlayerConfig;
 import magic.model.MagicDeckProfile;
@@ -27,10 +30,14 @@ import magic.utility.ProgressReporter;
 
 public class AiStrCal {
 
+    //maximum duration of a game is 60 minutes
+    private static final int MAX_DURATION = 3600000;
+
     private static int games = 10;
     private static int repeat = 1;
     private static int life = 20;
     private static int seed;
+    private static int threads = 1;
     private static String profile = "**";
     private static List<String> deckPool;
     private static String[] deck = {"", ""};
@@ -115,6 +122,13 @@ public class AiStrCal {
                     System.err.println("ERROR! repeat is not an integer");
                     validArgs = false;
                 }
+            } else if ("--threads".equals(curr)) {
+                try { //parse CLI option
+                    threads = Integer.parseInt(next);
+                } catch (final NumberFormatException ex) {
+                    System.err.println("ERROR! number of threads not an integer");
+                    validArgs = false;
+                }
             } else if ("--seed".equals(curr)) {
                 try { //parse CLI option
                     seed = Integer.parseInt(next);
@@ -156,7 +170,6 @@ public class AiStrCal {
 
         // Set difficulty.
         final MagicDuel testDuel=new MagicDuel(config);
-        testDuel.initialize();
 
         // Create players
         final DuelPlayerConfig[] players = new DuelPlayerConfig[2];
@@ -193,12 +206,19 @@ public class AiStrCal {
             System.err.println("--games    <1-*>                 (number of games to play, default 10)");
             System.err.println("--deckpool <dir>                 (directory from where to read deck lists)");
             System.err.println("--verify   true                  (verify the hands of players are equal after flip)");
+            System.err.println("--threads  <1-*>                 (number of duels played at the same time, default 1)");
             System.exit(1);
         }
 
+        // only the cards in the decks are loaded
+        MagicSystem.setIsLazyCards(true);
         MagicSystem.initialize(new ProgressReporter());
-        ArrayList<String> reversePool = new ArrayList<String>(deckPool);
+        ArrayList<String> reversePool = deckPool == null ? new ArrayList<String>() : new ArrayList<String>(deckPool);
         Collections.reverse(reversePool);
+        if (threads > 1) {
+            runDuels(reversePool);
+            return;
+        }
         for (int i = 0; i < repeat; i++) {
             if(deckPool == null) {
                 runDuel();
@@ -223,9 +243,7 @@ public class AiStrCal {
         }
     }
 
-    private static void runDuel() {
-        final MagicDuel testDuel = setupDuel();
-
+    private static void printHeader() {
         System.out.println(
                 padDeckLeft("deck1") +
                 "\t"+padAILeft("ai1") +
@@ -237,71 +255,137 @@ public class AiStrCal {
                 "\td1win"+
                 "\td1lose"
         );
+    }
 
-        int played = 0;
-        int p1Seed = 1234;
-        int p2Seed = 4321;
+    // the decks of a duel and the seeds of its hands, every second game deals the hands of the game before it flipped
+    private static final class Flip {
+        private final String[] decks;
+        private int p1Seed = 1234;
+        private int p2Seed = 4321;
+        private String hand1 = "";
+        private String hand2 = "";
 
-        String hand1 ="";
-        String hand2 ="";
-        while (testDuel.getGamesPlayed() < testDuel.getGamesTotal()) {
+        Flip(final String[] aDecks) {
+            decks = aDecks.clone();
+        }
+    }
 
-            if(played % 2 == 0){
-                p1Seed = MagicRandom.nextRNGInt();
-                p2Seed = MagicRandom.nextRNGInt();
-            }else{
-                int tmp = p1Seed;
-                p1Seed = p2Seed;
-                p2Seed = tmp;
-            }
-            final MagicGame game=testDuel.nextGame(p1Seed, p2Seed, played != 0);
-            if(verifyFlip) {
-                if (played % 2 == 0) {
-                    hand1 = game.getPlayer(0).getHand().toString();
-                    hand2 = game.getPlayer(1).getHand().toString();
-                } else {
-                    compareHands(hand2, game.getPlayer(0).getHand().toString());
-                    compareHands(hand1, game.getPlayer(1).getHand().toString());
-                }
+    private static MagicGame nextGame(final MagicDuel testDuel, final Flip flip) {
+        final int played = testDuel.getGamesPlayed();
+        if(played % 2 == 0){
+            flip.p1Seed = MagicRandom.nextRNGInt();
+            flip.p2Seed = MagicRandom.nextRNGInt();
+        }else{
+            int tmp = flip.p1Seed;
+            flip.p1Seed = flip.p2Seed;
+            flip.p2Seed = tmp;
+        }
+        final MagicGame game=testDuel.nextGame(flip.p1Seed, flip.p2Seed, played != 0);
+        if(verifyFlip) {
+            if (played % 2 == 0) {
+                flip.hand1 = game.getPlayer(0).getHand().toString();
+                flip.hand2 = game.getPlayer(1).getHand().toString();
+            } else {
+                compareHands(flip.hand2, game.getPlayer(0).getHand().toString());
+                compareHands(flip.hand1, game.getPlayer(1).getHand().toString());
             }
-            game.setArtificial(true);
+        }
+        game.setArtificial(true);
+        return game;
+    }
 
+    // result of the duel after the game that was played last
+    private static String getGameResult(final MagicDuel testDuel, final Flip flip) {
+        final int played = testDuel.getGamesPlayed() - 1;
+        return padDeckLeft(deckName(flip.decks[played % 2])) + "\t" +
+            padAILeft(ai[0].toString()) + "\t" +
+            str[0] + "\t" +
+            padDeckLeft(deckName(flip.decks[(played+1) % 2])) + "\t" +
+            padAILeft(ai[1].toString()) + "\t" +
+            str[1] + "\t" +
+            testDuel.getGamesTotal() + "\t" +
+            testDuel.getGamesWon() + "\t" +
+            (testDuel.getGamesPlayed() - testDuel.getGamesWon());
+    }
 
-            //maximum duration of a game is 60 minutes
-            final HeadlessGameController controller = new HeadlessGameController(game, 3600000);
+    // adds a finished duel to the totals and returns them
+    private static String addDuelResult(final MagicDuel testDuel) {
+        winTotal += testDuel.getGamesWon();
+        gamesTotal += testDuel.getGamesTotal();
+        return padDeckLeft("all")+ "\t" +
+            padAILeft(ai[0].toString()) + "\t" +
+            str[0] + "\t" +
+            padDeckLeft("all") + "\t" +
+            padAILeft(ai[1].toString()) + "\t" +
+            str[1] + "\t" +
+            gamesTotal + "\t" +
+            winTotal + "\t" +
+            (gamesTotal - winTotal) + "\t" +
+            (100*winTotal/gamesTotal)+"%";
+    }
+
+    private static void runDuel() {
+        final MagicDuel testDuel = setupDuel();
+        final Flip flip = new Flip(deck);
+
+        printHeader();
+
+        int played = 0;
+        while (testDuel.getGamesPlayed() < testDuel.getGamesTotal()) {
+            final MagicGame game = nextGame(testDuel, flip);
+
+            final HeadlessGameController controller = new HeadlessGameController(game, MAX_DURATION);
 
             controller.runGame();
 
             if (testDuel.getGamesPlayed() > played) {
-                System.err.println(
-                        padDeckLeft(deckName(deck[played % 2])) + "\t" +
-                        padAILeft(ai[0].toString()) + "\t" +
-                        str[0] + "\t" +
-                        padDeckLeft(deckName(deck[(played+1) % 2])) + "\t" +
-                        padAILeft(ai[1].toString()) + "\t" +
-                        str[1] + "\t" +
-                        testDuel.getGamesTotal() + "\t" +
-                        testDuel.getGamesWon() + "\t" +
-                        (testDuel.getGamesPlayed() - testDuel.getGamesWon())
-                );
+                System.err.println(getGameResult(testDuel, flip));
                 played = testDuel.getGamesPlayed();
             }
         }
-        winTotal += testDuel.getGamesWon();
-        gamesTotal += testDuel.getGamesTotal();
-        System.out.println(
-                padDeckLeft("all")+ "\t" +
-                padAILeft(ai[0].toString()) + "\t" +
-                str[0] + "\t" +
-                padDeckLeft("all") + "\t" +
-                padAILeft(ai[1].toString()) + "\t" +
-                str[1] + "\t" +
-                gamesTotal + "\t" +
-                winTotal + "\t" +
-                (gamesTotal - winTotal) + "\t" +
-                (100*winTotal/gamesTotal)+"%"
+        System.out.println(addDuelResult(testDuel));
+    }
+
+    // plays the duels of all repeats and deck pairs, several of them at the same time
+    private static void runDuels(final List<String> reversePool) {
+        final List<MagicDuel> duels = new ArrayList<>();
+        final Map<MagicDuel, Flip> flips = new IdentityHashMap<>();
+        for (int i = 0; i < repeat; i++) {
+            if (deckPool == null) {
+                final MagicDuel testDuel = setupDuel();
+                duels.add(testDuel);
+                flips.put(testDuel, new Flip(deck));
+            } else {
+                for (String deck1: reversePool) {
+                    for (String deck2: deckPool) {
+                        deck[0] = deck1;
+                        deck[1] = deck2;
+                        final MagicDuel testDuel = setupDuel();
+                        duels.add(testDuel);
+                        flips.put(testDuel, new Flip(deck));
+                    }
+                }
+            }
+        }
+
+        printHeader();
+
+        final HeadlessDuelExecutor executor = new HeadlessDuelExecutor(
+            threads,
+            MAX_DURATION,
+            (testDuel, game) -> {
+                synchronized (flips) {
+                    System.err.println(getGameResult(testDuel, flips.get(testDuel)));
+                    if (testDuel.getGamesPlayed() == testDuel.getGamesTotal()) {
+                        System.out.println(addDuelResult(testDuel));
+                    }
+                }
+            },
+            testDuel -> nextGame(testDuel, flips.get(testDuel))
         );
+        executor.run(duels);
     }
+
     private static String deckName(String path){
         String[] bits = path.split("/");
         return bits[bits.length-1];
@@ -90,6 +90,9 @@ class CommandLineArgs {
     // the number of duels to play [--duels 1].
     private Arg<Integer> duels = new Arg<>("--duels", 1, x -> Integer.parseInt(x));
 
+    // the number of duels played at the same time [--parallel 1].
+    private Arg<Integer> parallelDuels = new Arg<>("--parallel", 1, x -> Integer.parseInt(x));
+
     // Skiplist for card test
     private Arg<String> skipList = new Arg<>("--skip", null, x -> x);
 
@@ -224,6 +227,10 @@ class CommandLineArgs {
         return duels.value;
     }
 
+    int getParallelDuels() {
+        return parallelDuels.value;
+    }
+
     String getSkipList() {
         return skipList.value;
     }
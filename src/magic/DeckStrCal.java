@@ -1,6 +1,9 @@
 package magic;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import magic.ai.MagicAIImpl;
 import magic.data.DeckGenerators;
@@ -8,6 +11,7 @@ import magic.data.DuelConfig;
 import magic.data.GeneralConfig;
 import magic.data.settings.IntegerSetting;
 import magic.exception.handler.ConsoleExceptionHandler;
+import magic.headless.HeadlessDuelExecutor;
 import magic.headless.HeadlessGameController;
 import magic.model.DuelPlayerConfig;
 import magic.model.MagicDeckProfile;
@@ -25,6 +29,7 @@ public class DeckStrCal {
     private static int repeat = 1;
     private static int life = 20;
     private static int seed;
+    private static int threads = 1;
     private static String profile = "**";
     private static String[] deck = {"", ""};
     private static MagicAIImpl[] ai = {MagicAIImpl.MMAB, MagicAIImpl.MMAB};
@@ -102,6 +107,14 @@ public class DeckStrCal {
                         validArgs = false;
                     }
                     break;
+                case "--threads":
+                    try { //parse CLI option
+                        threads = Integer.parseInt(next);
+                    } catch (final NumberFormatException ex) {
+                        System.err.println("ERROR! number of threads not an integer");
+                        validArgs = false;
+                    }
+                    break;
                 case "--seed":
                     try { //parse CLI option
                         seed = Integer.parseInt(next);
@@ -129,7 +142,7 @@ public class DeckStrCal {
         return validArgs;
     }
 
-    private static MagicDuel setupDuel() {
+    private static MagicDuel setupDuel(final int nrOfGames) {
         // Set the random seed
         if (seed != 0) {
             MagicRandom.setRNGState(seed);
@@ -138,12 +151,11 @@ public class DeckStrCal {
 
         // Set number of games.
         final DuelConfig config=new DuelConfig();
-        config.setNrOfGames(games);
+        config.setNrOfGames(nrOfGames);
         config.setStartLife(life);
 
         // Set difficulty.
         final MagicDuel testDuel=new MagicDuel(config);
-        testDuel.initialize();
 
         // Create players
         final DuelPlayerConfig[] players = new DuelPlayerConfig[2];
@@ -178,19 +190,24 @@ public class DeckStrCal {
             System.err.println("--ai2      [MMAB|MMABC|MCTS|RND] (AI for player 2, default MMAB)");
             System.err.println("--strength <1-8>                 (level of AI, default 6)");
             System.err.println("--games    <1-*>                 (number of games to play, default 10)");
+            System.err.println("--threads  <1-*>                 (number of games played at the same time, default 1)");
             System.exit(1);
         }
 
+        // only the cards in the decks are loaded
+        MagicSystem.setIsLazyCards(true);
         MagicSystem.initialize(new ProgressReporter());
 
         for (int i = 0; i < repeat; i++) {
-            runDuel();
+            if (threads > 1) {
+                runDuels();
+            } else {
+                runDuel();
+            }
         }
     }
 
-    private static void runDuel() {
-        final MagicDuel testDuel = setupDuel();
-
+    private static void printHeader() {
         System.out.println(
                  "#deck1" +
                 "\tai1" +
@@ -202,6 +219,24 @@ public class DeckStrCal {
                 "\td1win"+
                 "\td1lose"
         );
+    }
+
+    private static String getResult(final int total, final int won, final int played) {
+        return deck[0] + "\t" +
+            ai[0] + "\t" +
+            str[0] + "\t" +
+            deck[1] + "\t" +
+            ai[1] + "\t" +
+            str[1] + "\t" +
+            total + "\t" +
+            won + "\t" +
+            (played - won);
+    }
+
+    private static void runDuel() {
+        final MagicDuel testDuel = setupDuel(games);
+
+        printHeader();
 
         int played = 0;
         while (testDuel.getGamesPlayed() < testDuel.getGamesTotal()) {
@@ -212,30 +247,49 @@ public class DeckStrCal {
 
             controller.runGame();
             if (testDuel.getGamesPlayed() > played) {
-                System.err.println(
-                        deck[0] + "\t" +
-                        ai[0] + "\t" +
-                        str[0] + "\t" +
-                        deck[1] + "\t" +
-                        ai[1] + "\t" +
-                        str[1] + "\t" +
-                        testDuel.getGamesTotal() + "\t" +
-                        testDuel.getGamesWon() + "\t" +
-                        (testDuel.getGamesPlayed() - testDuel.getGamesWon())
-                );
+                System.err.println(getResult(testDuel.getGamesTotal(), testDuel.getGamesWon(), testDuel.getGamesPlayed()));
                 played = testDuel.getGamesPlayed();
             }
         }
-        System.out.println(
-                deck[0] + "\t" +
-                ai[0] + "\t" +
-                str[0] + "\t" +
-                deck[1] + "\t" +
-                ai[1] + "\t" +
-                str[1] + "\t" +
-                testDuel.getGamesTotal() + "\t" +
-                testDuel.getGamesWon() + "\t" +
-                (testDuel.getGamesPlayed() - testDuel.getGamesWon())
+        System.out.println(getResult(testDuel.getGamesTotal(), testDuel.getGamesWon(), testDuel.getGamesPlayed()));
+    }
+
+    // splits the games into one duel per thread and plays the duels at the same time
+    private static void runDuels() {
+        final List<MagicDuel> duels = new ArrayList<>();
+        for (int i = 0; i < threads && i < games; i++) {
+            duels.add(setupDuel(games / threads + (i < games % threads ? 1 : 0)));
+        }
+
+        printHeader();
+
+        // progress is counted from the finished games, as the other duels may be
+        // updating their own counts at the same time
+        final AtomicInteger played = new AtomicInteger();
+        final AtomicInteger won = new AtomicInteger();
+        final HeadlessDuelExecutor executor = new HeadlessDuelExecutor(
+            threads,
+            GeneralConfig.get(IntegerSetting.AI_DUEL_MATCH_LIMIT) * 1000,
+            (duel, game) -> {
+                synchronized (duels) {
+                    if (game.getLosingPlayer() != game.getPlayer(0)) {
+                        won.incrementAndGet();
+                    }
+                    played.incrementAndGet();
+                    System.err.println(getResult(games, won.get(), played.get()));
+                }
+            }
         );
+        executor.run(duels);
+
+        System.out.println(getResult(games, getGamesWon(duels), getGamesPlayed(duels)));
+    }
+
+    private static int getGamesWon(final List<MagicDuel> duels) {
+        return duels.stream().mapToInt(MagicDuel::getGamesWon).sum();
+    }
+
+    private static int getGamesPlayed(final List<MagicDuel> duels) {
+        return duels.stream().mapToInt(MagicDuel::getGamesPlayed).sum();
     }
 }
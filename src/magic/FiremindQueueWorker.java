@@ -6,18 +6,31 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class FiremindQueueWorker {
 
     public static boolean shutDownOnEmptyQueue = false;
 
+    // run all duels in one long-lived child instead of one child per duel
+    public static boolean resident = false;
+
     public static void main(final String[] args) {
         parseArguments(args);
 
         int lastExitStatus = 0;
         while (!(shutDownOnEmptyQueue && lastExitStatus == 1)) {
-            ProcessBuilder pb = new ProcessBuilder("java", "-noverify", "-cp",
-                    "Magarena.jar", "magic.firemind.FiremindDuelRunner");
+            final List<String> command = new ArrayList<>(Arrays.asList("java", "-noverify", "-cp",
+                    "Magarena.jar", "magic.firemind.FiremindDuelRunner"));
+            if (resident) {
+                command.add("--resident");
+                if (shutDownOnEmptyQueue) {
+                    command.add("--self-terminate");
+                }
+            }
+            ProcessBuilder pb = new ProcessBuilder(command);
             pb.redirectErrorStream(true);
             try {
 
@@ -58,6 +71,8 @@ public class FiremindQueueWorker {
         for (final String curr : args) {
             if ("--self-terminate".equals(curr)) {
                 shutDownOnEmptyQueue = true;
+            } else if ("--resident".equals(curr)) {
+                resident = true;
             }
         }
         return validArgs;
@@ -1,12 +1,17 @@
 package magic;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import magic.ai.MagicAI;
 import magic.data.DuelConfig;
 import magic.data.GeneralConfig;
 import magic.data.settings.IntegerSetting;
 import magic.exception.handler.ConsoleExceptionHandler;
+import magic.headless.HeadlessDuelExecutor;
 import magic.headless.HeadlessGameController;
 import magic.model.MagicDeck;
 import magic.model.MagicDuel;
@@ -73,6 +78,8 @@ public class HeadlessAIGame {
 
         parseCommandLine(cmdline);
 
+        // only the cards in the decks are loaded
+        MagicSystem.setIsLazyCards(true);
         MagicSystem.initialize(new ProgressReporter());
 
         System.out.println();
@@ -82,21 +89,30 @@ public class HeadlessAIGame {
         System.out.println("Duels : " + cmdline.getDuels());
         System.out.println("Games : " + cmdline.getGames());
 
+        if (cmdline.getParallelDuels() > 1) {
+            runDuels(cmdline);
+            return;
+        }
+
         // run getGames() games getDuels() times.
         for (int i = 0; i < cmdline.getDuels(); i++) {
             runDuel(cmdline, i+1);
         }
     }
 
+    private static void printPlayers(final MagicDuel duel) {
+        AiProfile p1 = (AiProfile) duel.getPlayer(0).getProfile();
+        AiProfile p2 = (AiProfile) duel.getPlayer(1).getProfile();
+        System.out.printf("P1 : %s [%d]\n", p1.getAiType(), p1.getAiLevel());
+        System.out.printf("P2 : %s [%d]\n", p2.getAiType(), p2.getAiLevel());
+    }
+
     private static void runDuel(CommandLineArgs args, int duelNum) {
 
         final MagicDuel duel = setupDuel(args);
 
         if (duelNum == 1) {
-            AiProfile p1 = (AiProfile) duel.getPlayer(0).getProfile();
-            AiProfile p2 = (AiProfile) duel.getPlayer(1).getProfile();
-            System.out.printf("P1 : %s [%d]\n", p1.getAiType(), p1.getAiLevel());
-            System.out.printf("P2 : %s [%d]\n", p2.getAiType(), p2.getAiLevel());
+            printPlayers(duel);
         }
 
         MagicDeck d1 = duel.getPlayer(0).getDeck();
@@ -135,4 +151,50 @@ public class HeadlessAIGame {
             );
         }
     }
+
+    // plays getParallelDuels() duels at the same time, printing each game when it ends
+    private static void runDuels(final CommandLineArgs args) {
+        final List<MagicDuel> duels = new ArrayList<>();
+        for (int i = 0; i < args.getDuels(); i++) {
+            duels.add(setupDuel(args));
+        }
+
+        System.out.println("Parallel : " + args.getParallelDuels());
+        printPlayers(duels.get(0));
+        System.out.println(H1);
+        for (int i = 0; i < duels.size(); i++) {
+            final MagicDuel duel = duels.get(i);
+            System.out.printf("Duel %d : %s vs %s\n",
+                i + 1,
+                duel.getPlayer(0).getDeck().getQualifiedName(),
+                duel.getPlayer(1).getDeck().getQualifiedName()
+            );
+        }
+        System.out.println(H2);
+        System.out.println("Duel  Game  Won  D1  D2  Duration");
+
+        final Map<MagicDuel, Long> startTimes = new ConcurrentHashMap<>();
+        final HeadlessDuelExecutor executor = new HeadlessDuelExecutor(
+            args.getParallelDuels(),
+            GeneralConfig.get(IntegerSetting.AI_DUEL_MATCH_LIMIT) * 1000,
+            (duel, game) -> {
+                final double duration = (double)(System.currentTimeMillis() - startTimes.get(duel)) / 1000;
+                synchronized (duels) {
+                    System.out.printf("%d     %d     %s   %d   %d   %.2f\n",
+                        duels.indexOf(duel) + 1,
+                        duel.getGamesPlayed(),
+                        game.getWinner().getConfig().getDeck().equals(duel.getPlayer(0).getDeck()) ? "D1" : "D2",
+                        duel.getGamesWon(),
+                        duel.getGamesPlayed() - duel.getGamesWon(),
+                        duration
+                    );
+                }
+            },
+            duel -> {
+                startTimes.put(duel, System.currentTimeMillis());
+                return duel.nextGame();
+            }
+        );
+        executor.run(duels);
+    }
 }
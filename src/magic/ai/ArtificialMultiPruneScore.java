@@ -5,7 +5,7 @@ public class ArtificialMultiPruneScore implements ArtificialPruneScore {
     private final int maxBest;
     private final int minWorst;
 
-    private ArtificialMultiPruneScore(final int maxBest,final int minWorst) {
+    ArtificialMultiPruneScore(final int maxBest,final int minWorst) {
         this.maxBest=maxBest;
         this.minWorst=minWorst;
     }
@@ -26,6 +26,10 @@ public class ArtificialScore {
         return score;
     }
 
+    int getDepth() {
+        return depth;
+    }
+
     boolean isBetter(final ArtificialScore other,final boolean max) {
         if (other==INVALID_SCORE) {
             return false;
@@ -0,0 +1,118 @@
+package magic.ai;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed size, open addressing transposition table keyed by raw long game ids.
+ * <p>
+ * Each slot holds four words: two data words, a meta word (generation and
+ * depth) and a check word, the XOR of the key with the other three words. Reads
+ * and writes take no locks; a slot torn by a concurrent write fails the check
+ * and is treated as a miss (lockless hashing, Hyatt and Mann). A key is placed
+ * in one of BUCKET consecutive slots, replacing the shallowest entry when the
+ * bucket is full. Clearing bumps the generation so it costs O(1).
+ */
+public class ArtificialTranspositionTable {
+
+    private static final int WORDS = 4;
+    private static final int BUCKET = 4;
+    private static final int A = 0;
+    private static final int B = 1;
+    private static final int META = 2;
+    private static final int CHECK = 3;
+
+    /** Result of a successful probe, reused by the caller to avoid allocation. */
+    static class Entry {
+        long a;
+        long b;
+        int depth;
+    }
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    private volatile int generation = 1;
+
+    /** Creates a table with 2^bits slots. */
+    ArtificialTranspositionTable(final int bits) {
+        slots = new AtomicLongArray(WORDS << bits);
+        mask = (1 << bits) - 1;
+    }
+
+    void clear() {
+        generation++;
+    }
+
+    private static int hash(final long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int)h;
+    }
+
+    private static long meta(final int gen, final int depth) {
+        return ((long)gen << 32) | (depth & 0xffffffffL);
+    }
+
+    /** Fills entry with the data stored for key, returns false if key is not in the table. */
+    boolean get(final long key, final Entry entry) {
+        final int gen = generation;
+        final int start = hash(key);
+        for (int i = 0; i < BUCKET; i++) {
+            final int base = ((start + i) & mask) * WORDS;
+            final long meta = slots.get(base + META);
+            if ((int)(meta >>> 32) != gen) {
+                continue;
+            }
+            final long a = slots.get(base + A);
+            final long b = slots.get(base + B);
+            if ((slots.get(base + CHECK) ^ a ^ b ^ meta) == key) {
+                entry.a = a;
+                entry.b = b;
+                entry.depth = (int)meta;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stores data for key. An existing entry for key, or failing that the
+     * shallowest entry of the bucket, is replaced if depth is at least as deep.
+     */
+    void put(final long key, final int depth, final long a, final long b) {
+        final int gen = generation;
+        final int start = hash(key);
+        int target = -1;
+        int targetDepth = Integer.MAX_VALUE;
+        for (int i = 0; i < BUCKET; i++) {
+            final int base = ((start + i) & mask) * WORDS;
+            final long meta = slots.get(base + META);
+            if ((int)(meta >>> 32) != gen) {
+                // stale or empty slot, use it unless the key is found later in the bucket
+                if (targetDepth != Integer.MIN_VALUE) {
+                    target = base;
+                    targetDepth = Integer.MIN_VALUE;
+                }
+                continue;
+            }
+            if ((slots.get(base + CHECK) ^ slots.get(base + A) ^ slots.get(base + B) ^ meta) == key) {
+                target = base;
+                targetDepth = (int)meta;
+                break;
+            }
+            if ((int)meta < targetDepth) {
+                target = base;
+                targetDepth = (int)meta;
+            }
+        }
+        if (depth < targetDepth) {
+            return;
+        }
+        final long meta = meta(gen, depth);
+        slots.lazySet(target + A, a);
+        slots.lazySet(target + B, b);
+        slots.lazySet(target + META, meta);
+        slots.set(target + CHECK, key ^ a ^ b ^ meta);
+    }
+}
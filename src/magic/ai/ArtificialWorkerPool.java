@@ -0,0 +1,159 @@
+package magic.ai;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Long-lived, work-stealing thread pool shared by all AI searches.
+ * <p>
+ * Each decision opens a {@link Search} with a deadline. Tasks are run on the
+ * shared pool until the deadline passes or the search is cancelled, after which
+ * new tasks are dropped and running tasks are interrupted, so no worker of one
+ * decision keeps running into the next one.
+ */
+public final class ArtificialWorkerPool {
+
+    // extra time given to tasks to notice the deadline before they are interrupted
+    private static final long GRACE_NANO = 1000000000L;
+
+    private static ForkJoinPool pool;
+
+    private ArtificialWorkerPool() {}
+
+    private static synchronized ForkJoinPool getPool() {
+        final int threads = MagicAI.getMaxThreads() * MagicAI.getConcurrentGames();
+        if (pool == null || pool.getParallelism() != threads) {
+            // the old pool is not shut down as running searches may still submit
+            // to it, its idle daemon workers end on their own
+            pool = new ForkJoinPool(threads, p -> {
+                final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                thread.setName("magic-ai-" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                return thread;
+            }, null, true);
+        }
+        return pool;
+    }
+
+    /** Starts a search whose tasks must be finished by the given System.nanoTime deadline. */
+    public static Search newSearch(final long deadline) {
+        return new Search(getPool(), deadline);
+    }
+
+    public static final class Search {
+
+        private final ForkJoinPool executor;
+        private final long deadline;
+        private final Set<Thread> running = new HashSet<>();
+        private int pending;
+        private volatile boolean cancelled;
+
+        private Search(final ForkJoinPool executor, final long deadline) {
+            this.executor = executor;
+            this.deadline = deadline;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        /** Returns true once the search was cancelled or its deadline has passed. */
+        public boolean isDone() {
+            return cancelled || System.nanoTime() > deadline;
+        }
+
+        /** Schedules task on the shared pool, returns false if the search is already done. */
+        public boolean execute(final Runnable task) {
+            synchronized (this) {
+                if (isDone()) {
+                    return false;
+                }
+                pending++;
+            }
+            try {
+                executor.execute(() -> run(task));
+            } catch (final RejectedExecutionException ex) {
+                synchronized (this) {
+                    finish();
+                }
+                return false;
+            }
+            return true;
+        }
+
+        private void run(final Runnable task) {
+            final Thread thread = Thread.currentThread();
+            synchronized (this) {
+                if (cancelled) {
+                    finish();
+                    return;
+                }
+                running.add(thread);
+            }
+            try {
+                task.run();
+            } finally {
+                synchronized (this) {
+                    running.remove(thread);
+                    // clear interrupt from cancel so it does not leak into the next task
+                    Thread.interrupted();
+                    finish();
+                }
+            }
+        }
+
+        private void finish() {
+            pending--;
+            notifyAll();
+        }
+
+        /** Drops all waiting tasks and interrupts the running ones. */
+        public synchronized void cancel() {
+            cancelled = true;
+            for (final Thread thread : running) {
+                thread.interrupt();
+            }
+        }
+
+        /**
+         * Waits until all tasks have completed, or until the deadline plus a grace
+         * period has passed, in which case the remaining tasks are cancelled.
+         */
+        public synchronized void await() {
+            try {
+                long remaining = deadline + GRACE_NANO - System.nanoTime();
+                while (pending > 0 && remaining > 0) {
+                    wait(remaining / 1000000L + 1);
+                    remaining = deadline + GRACE_NANO - System.nanoTime();
+                }
+                if (pending > 0) {
+                    stop();
+                }
+            } catch (final InterruptedException ex) {
+                cancel();
+                Thread.currentThread().interrupt();
+            } finally {
+                cancelled = true;
+            }
+        }
+
+        /** Cancels the search and waits for the running tasks to stop. */
+        public synchronized void stop() {
+            cancel();
+            try {
+                // interrupted tasks stop at their next check
+                long remaining = GRACE_NANO;
+                final long end = System.nanoTime() + remaining;
+                while (!running.isEmpty() && remaining > 0) {
+                    wait(remaining / 1000000L + 1);
+                    remaining = end - System.nanoTime();
+                }
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -6,11 +6,11 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 import magic.data.LRUCache;
 import magic.exception.GameException;
@@ -60,14 +60,22 @@ Monte-Carlo Tree Search in Lines of Action
   use evaluation score to remove "bad" moves during simulation
   use evaluation score to keep k-best moves
   mixed: start with corrective, rest of the moves use greedy
+
+Tree parallelization (-Dtree_parallel=true)
+ - every worker selects, expands, simulates and backs up on the shared tree
+ - node statistics are updated with atomic field updaters, no locks
+ - virtual loss keeps concurrent workers from descending the same path
+ - from Chaslot, Winands and van den Herik 2008, Parallel Monte-Carlo Tree Search
 */
 public class MCTSAI extends MagicAI {
 
     private static int MIN_SCORE = Integer.MAX_VALUE;
     static int MIN_SIM = Integer.MAX_VALUE;
     private static final int MAX_CHOICES = 1000;
+    private static final long MAX_PONDER_MILLI = 60000;
     static double UCB1_C = 0.4;
     static double RATIO_K = 1.0;
+    static boolean TREE_PARALLEL = false;
     private int sims = 0;
 
     static {
@@ -90,12 +98,17 @@ public class MCTSAI extends MagicAI {
             RATIO_K = Double.parseDouble(System.getProperty("ratio_k"));
             System.err.println("RATIO_K = " + RATIO_K);
         }
+
+        if (System.getProperty("tree_parallel") != null) {
+            TREE_PARALLEL = Boolean.parseBoolean(System.getProperty("tree_parallel"));
+            System.err.println("TREE_PARALLEL = " + TREE_PARALLEL);
+        }
     }
 
     private final boolean CHEAT;
 
     //cache nodes to reuse them in later decision
-    private final LRUCache<Long, MCTSGameTree> CACHE = new LRUCache<>(1000);
+    final LRUCache<Long, MCTSGameTree> CACHE = new LRUCache<>(1000);
 
     public MCTSAI(final boolean cheat) {
         CHEAT = cheat;
@@ -132,30 +145,35 @@ public class MCTSAI extends MagicAI {
         log("MCTS cached=" + root.getNumSim());
 
         sims = 0;
-        final ExecutorService executor = Executors.newFixedThreadPool(getMaxThreads());
-        final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
 
-        // ensure tree update runs at least once
         final int aiLevel = scorePlayer.getAiProfile().getAiLevel();
         final long START_TIME = System.currentTimeMillis();
         final long END_TIME = START_TIME + 1000 * aiLevel;
-        final Runnable updateTask = new Runnable() {
-            @Override
-            public void run() {
-                TreeUpdate(this, root, aiGame, executor, queue, END_TIME, RCHOICES);
+        final ArtificialWorkerPool.Search search = ArtificialWorkerPool.newSearch(System.nanoTime() + 1000000000L * aiLevel);
+
+        if (TREE_PARALLEL) {
+            final AtomicInteger count = new AtomicInteger();
+            for (int i = 0; i < getMaxThreads(); i++) {
+                final int worker = i;
+                search.execute(() -> TreeWorker(root, aiGame, worker, count, END_TIME, RCHOICES));
             }
-        };
+            search.await();
+            sims = count.get();
+        } else {
+            final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
+
+            // ensure tree update runs at least once
+            final Runnable updateTask = new Runnable() {
+                @Override
+                public void run() {
+                    TreeUpdate(this, root, aiGame, search, queue, END_TIME, RCHOICES);
+                }
+            };
 
-        updateTask.run();
+            updateTask.run();
 
-        try {
-            // wait for artificialLevel + 1 seconds for jobs to finish
-            executor.awaitTermination(aiLevel + 1, TimeUnit.SECONDS);
-        } catch (final InterruptedException ex) {
-            throw new RuntimeException(ex);
-        } finally {
-            // force termination of workers
-            executor.shutdownNow();
+            // wait for jobs to finish, stragglers are interrupted shortly after the deadline
+            search.await();
         }
 
         assert root.size() > 0 : "ERROR! Root has no children but there are " + size + " choices";
@@ -178,6 +196,37 @@ public class MCTSAI extends MagicAI {
         return startGame.map(RCHOICES.get(bestC));
     }
 
+    /**
+     * Grows the tree for the game state in which the opponent is deciding. The AI
+     * nodes found below it are added to the cache, so the next decision of player
+     * starts from a tree that already has simulations.
+     */
+    @Override
+    public ArtificialWorkerPool.Search ponder(final MagicGame game, final MagicPlayer player) {
+        return ponder(game, player, getMaxThreads(), MAX_PONDER_MILLI);
+    }
+
+    ArtificialWorkerPool.Search ponder(final MagicGame game, final MagicPlayer player, final int workers, final long millis) {
+        final MagicGame aiGame = new MagicGame(game, player);
+        if (!CHEAT) {
+            aiGame.hideHiddenCards();
+        }
+        final List<Object[]> RCHOICES = aiGame.getNextEvent().getArtificialChoiceResults(aiGame);
+        if (RCHOICES.size() <= 1) {
+            return null;
+        }
+
+        final MCTSGameTree root = MCTSGameTree.getNode(CACHE, aiGame, RCHOICES);
+        final long END_TIME = System.currentTimeMillis() + millis;
+        final ArtificialWorkerPool.Search search = ArtificialWorkerPool.newSearch(System.nanoTime() + millis * 1000000L);
+        final AtomicInteger count = new AtomicInteger();
+        for (int i = 0; i < workers; i++) {
+            final int worker = i;
+            search.execute(() -> TreeWorker(root, aiGame, worker, count, END_TIME, RCHOICES));
+        }
+        return search;
+    }
+
     private Runnable genSimulationTask(final MagicGame rootGame, final LinkedList<MCTSGameTree> path, final BlockingQueue<Runnable> queue) {
         return () -> {
             // propagate result of random play up the path
@@ -187,25 +236,85 @@ public class MCTSAI extends MagicAI {
     }
 
     private Runnable genBackpropagationTask(final double score, final LinkedList<MCTSGameTree> path) {
-        return () -> {
-            final Iterator<MCTSGameTree> iter = path.descendingIterator();
-            MCTSGameTree child = null;
-            MCTSGameTree parent = null;
-            while (iter.hasNext()) {
-                child = parent;
-                parent = iter.next();
-
-                parent.removeVirtualLoss();
-                parent.updateScore(child, score);
+        return () -> backpropagate(score, path, true);
+    }
+
+    /**
+     * Updates the statistics of the nodes on path with score. Robust max is only
+     * used when the path is backed up by the only worker on the tree.
+     */
+    private static void backpropagate(final double score, final LinkedList<MCTSGameTree> path, final boolean robustMax) {
+        final Iterator<MCTSGameTree> iter = path.descendingIterator();
+        MCTSGameTree child = null;
+        MCTSGameTree parent = null;
+        while (iter.hasNext()) {
+            child = parent;
+            parent = iter.next();
+
+            parent.removeVirtualLoss();
+            parent.updateScore(child, score, robustMax);
+        }
+    }
+
+    // virtual loss + game theoretic value propagation
+    private static void recordVirtualLoss(final LinkedList<MCTSGameTree> path) {
+        final Iterator<MCTSGameTree> iter = path.descendingIterator();
+        MCTSGameTree child = null;
+        MCTSGameTree parent = null;
+        while (iter.hasNext()) {
+            child = parent;
+            parent = iter.next();
+
+            parent.recordVirtualLoss();
+
+            if (child != null && child.isSolved()) {
+                final int steps = child.getSteps() + 1;
+                if (parent.isAI() && child.isAIWin()) {
+                    parent.setAIWin(steps);
+                } else if (parent.isOpp() && child.isAILose()) {
+                    parent.setAILose(steps);
+                } else if (parent.isAI() && child.isAILose()) {
+                    parent.incLose(steps);
+                } else if (parent.isOpp() && child.isAIWin()) {
+                    parent.incLose(steps);
+                }
             }
-        };
+        }
+    }
+
+    /**
+     * Tree parallel search: each worker repeatedly selects and expands a path on the
+     * shared tree, plays it out on its own copy of the game and backs up the result.
+     * Iteration n of a worker uses random stream (worker, n).
+     */
+    private void TreeWorker(
+        final MCTSGameTree root,
+        final MagicGame aiGame,
+        final int worker,
+        final AtomicInteger count,
+        final long END_TIME,
+        final List<Object[]> RCHOICES
+    ) {
+        for (long n = 0;
+             System.currentTimeMillis() < END_TIME &&
+             !root.isAIWin() &&
+             !Thread.currentThread().isInterrupted();
+             n++) {
+            final MagicGame rootGame = new MagicGame(aiGame, aiGame.getScorePlayer());
+            rootGame.splitRNG(((long)worker << 32) | n);
+            final LinkedList<MCTSGameTree> path = growTree(root, rootGame, RCHOICES);
+            recordVirtualLoss(path);
+            final double score = randomPlay(path.getLast(), rootGame);
+            backpropagate(score, path, false);
+            count.incrementAndGet();
+        }
     }
 
     public void TreeUpdate(
         final Runnable updateTask,
         final MCTSGameTree root,
         final MagicGame aiGame,
-        final ExecutorService executor,
+        final ArtificialWorkerPool.Search search,
         final BlockingQueue<Runnable> queue,
         final long END_TIME,
         final List<Object[]> RCHOICES
@@ -216,15 +325,17 @@ public class MCTSAI extends MagicAI {
             try {
                 queue.take().run();
             } catch (InterruptedException e) {
-                // occurs when shutdownNow is invoked
+                // occurs when the search is cancelled
                 return;
             }
         }
 
         sims++;
 
-        //clone the MagicGame object for simulation
+        //clone the MagicGame object for simulation,
+        //tree updates run one at a time so sims numbers the random streams
         final MagicGame rootGame = new MagicGame(aiGame, aiGame.getScorePlayer());
+        rootGame.splitRNG(sims);
 
         //pass in a clone of the state,
         //genNewTreeNode grows the tree by one node
@@ -238,50 +349,17 @@ public class MCTSAI extends MagicAI {
 
         final boolean running = System.currentTimeMillis() < END_TIME;
 
-        // submit random play to executor
-        if (running) {
-            try {
-                executor.execute(genSimulationTask(rootGame, path, queue));
-            } catch (RejectedExecutionException e) {
-                // occurs when trying to submit to a execute that has shutdown
-                return;
-            }
+        // submit random play to the search pool, rejected once the search is done
+        if (running && !search.execute(genSimulationTask(rootGame, path, queue))) {
+            return;
         }
 
-        // virtual loss + game theoretic value propagation
-        final Iterator<MCTSGameTree> iter = path.descendingIterator();
-        MCTSGameTree child = null;
-        MCTSGameTree parent = null;
-        while (iter.hasNext()) {
-            child = parent;
-            parent = iter.next();
-
-            parent.recordVirtualLoss();
+        recordVirtualLoss(path);
 
-            if (child != null && child.isSolved()) {
-                final int steps = child.getSteps() + 1;
-                if (parent.isAI() && child.isAIWin()) {
-                    parent.setAIWin(steps);
-                } else if (parent.isOpp() && child.isAILose()) {
-                    parent.setAILose(steps);
-                } else if (parent.isAI() && child.isAILose()) {
-                    parent.incLose(steps);
-                } else if (parent.isOpp() && child.isAIWin()) {
-                    parent.incLose(steps);
-                }
-            }
-        }
-
-        // end simulations once root is AI win or time is up
+        // end simulations once root is AI win or time is up,
+        // the search completes when the last simulation has finished
         if (running && !root.isAIWin()) {
-            try {
-                executor.execute(updateTask);
-            } catch (RejectedExecutionException e) {
-                // occurs when trying to submit to a execute that has shutdown
-                return;
-            }
-        } else {
-            executor.shutdown();
+            search.execute(updateTask);
         }
     }
 
@@ -358,9 +436,7 @@ public class MCTSAI extends MagicAI {
             //first time considering the choices available at this node,
             //fill in additional details for curr
             if (!curr.hasDetails()) {
-                curr.setIsAI(game.getScorePlayer() == event.getPlayer());
-                curr.setMaxChildren(choices.size());
-                assert curr.setChoicesStr(choices);
+                curr.setDetails(game.getScorePlayer() == event.getPlayer(), choices);
             }
 
             //look for first non root AI node along this path and add it to cache
@@ -372,8 +448,8 @@ public class MCTSAI extends MagicAI {
 
             //there are unexplored children of node
             //assume we explore children of a node in increasing order of the choices
-            if (curr.size() < choices.size()) {
-                final int idx = curr.size();
+            final int idx = curr.claimChild();
+            if (idx >= 0) {
                 final Object[] choice = choices.get(idx);
                 final String choiceStr = MCTSGameTree.obj2String(choice[0]);
                 game.executeNextEvent(choice);
@@ -386,7 +462,8 @@ public class MCTSAI extends MagicAI {
             //all the children are in the tree, find the "best" child to explore
             } else {
 
-                assert curr.size() == choices.size() : "ERROR! Different number of choices in node and game" +
+                // with tree parallelization claimed children may not be added yet
+                assert curr.size() <= choices.size() : "ERROR! Different number of choices in node and game" +
                     printPath(path) + MCTSGameTree.printNode(curr, choices);
 
                 MCTSGameTree next = null;
@@ -400,6 +477,11 @@ public class MCTSAI extends MagicAI {
                     }
                 }
 
+                //all children are being expanded by other workers, simulate from here
+                if (next == null) {
+                    return path;
+                }
+
                 //move down the tree
                 curr = next;
 
@@ -557,25 +639,36 @@ public class MCTSAI extends MagicAI {
 }
 
 //each tree node stores the choice from the parent that leads to this node
+//statistics are updated lock-free so that the tree can be shared by workers
 class MCTSGameTree implements Iterable<MCTSGameTree> {
 
+    private static final AtomicIntegerFieldUpdater<MCTSGameTree> NUM_SIM =
+        AtomicIntegerFieldUpdater.newUpdater(MCTSGameTree.class, "numSim");
+    private static final AtomicIntegerFieldUpdater<MCTSGameTree> NUM_LOSE =
+        AtomicIntegerFieldUpdater.newUpdater(MCTSGameTree.class, "numLose");
+    private static final AtomicIntegerFieldUpdater<MCTSGameTree> NEXT_CHILD =
+        AtomicIntegerFieldUpdater.newUpdater(MCTSGameTree.class, "nextChild");
+    private static final AtomicLongFieldUpdater<MCTSGameTree> SUM =
+        AtomicLongFieldUpdater.newUpdater(MCTSGameTree.class, "sumBits");
+
     private final MCTSGameTree parent;
-    private final LinkedList<MCTSGameTree> children = new LinkedList<>();
+    private final List<MCTSGameTree> children = new CopyOnWriteArrayList<>();
     private final int choice;
-    private boolean isAI;
-    private boolean isCached;
-    private int maxChildren = -1;
-    private int numLose;
-    private int numSim;
-    private int evalScore;
-    private int steps;
-    private double sum;
+    private volatile boolean isAI;
+    private volatile boolean isCached;
+    private volatile int maxChildren = -1;
+    private volatile int nextChild;
+    private volatile int numLose;
+    private volatile int numSim;
+    private volatile int evalScore;
+    private volatile int steps;
+    private volatile long sumBits;
     private double variance;
     String desc;
     private String[] choicesStr;
 
     //min sim for using robust max
-    private int maxChildSim = MCTSAI.MIN_SIM;
+    private volatile int maxChildSim = MCTSAI.MIN_SIM;
 
     MCTSGameTree(final MCTSGameTree parent, final int choice, final int evalScore) {
         this.evalScore = evalScore;
@@ -603,14 +696,19 @@ class MCTSGameTree implements Iterable<MCTSGameTree> {
             return;
         }
         final long gid = game.getStateId();
-        cache.put(gid, node);
+        synchronized (cache) {
+            cache.put(gid, node);
+        }
         node.setCached();
         assert log("ADDED: " + game.getIdString());
     }
 
     static MCTSGameTree getNode(final LRUCache<Long, MCTSGameTree> cache, final MagicGame game, final List<Object[]> choices) {
         final long gid = game.getStateId();
-        final MCTSGameTree candidate = cache.get(gid);
+        final MCTSGameTree candidate;
+        synchronized (cache) {
+            candidate = cache.get(gid);
+        }
 
         if (candidate != null) {
             assert log("CACHE HIT");
@@ -684,8 +782,26 @@ class MCTSGameTree implements Iterable<MCTSGameTree> {
         return true;
     }
 
-    void setMaxChildren(final int mc) {
-        maxChildren = mc;
+    synchronized void setDetails(final boolean ai, final List<Object[]> choices) {
+        if (hasDetails()) {
+            return;
+        }
+        isAI = ai;
+        assert setChoicesStr(choices);
+        maxChildren = choices.size();
+    }
+
+    /** Reserves the next unexplored child, returns its choice index or -1 if all children are taken. */
+    int claimChild() {
+        while (true) {
+            final int idx = nextChild;
+            if (idx >= maxChildren) {
+                return -1;
+            }
+            if (NEXT_CHILD.compareAndSet(this, idx, idx + 1)) {
+                return idx;
+            }
+        }
     }
 
     private int getMaxChildren() {
@@ -700,39 +816,53 @@ class MCTSGameTree implements Iterable<MCTSGameTree> {
         return !isAI;
     }
 
-    void setIsAI(final boolean ai) {
-        this.isAI = ai;
-    }
-
     boolean isSolved() {
         return evalScore == Integer.MAX_VALUE || evalScore == Integer.MIN_VALUE;
     }
 
     void recordVirtualLoss() {
-        numSim++;
+        NUM_SIM.incrementAndGet(this);
     }
 
     void removeVirtualLoss() {
-        numSim--;
+        NUM_SIM.decrementAndGet(this);
     }
 
-    void updateScore(final MCTSGameTree child, final double delta) {
-        final double oldMean = (numSim > 0) ? sum/numSim : 0;
-        sum += delta;
-        numSim += 1;
-        final double newMean = sum/numSim;
+    private double addSum(final double delta) {
+        while (true) {
+            final long bits = sumBits;
+            final double next = Double.longBitsToDouble(bits) + delta;
+            if (SUM.compareAndSet(this, bits, Double.doubleToRawLongBits(next))) {
+                return next;
+            }
+        }
+    }
+
+    void updateScore(final MCTSGameTree child, final double delta, final boolean robustMax) {
+        final int oldSim = numSim;
+        final double oldMean = (oldSim > 0) ? getRawSum()/oldSim : 0;
+        final double newSum = addSum(delta);
+        final int newSim = NUM_SIM.incrementAndGet(this);
+        final double newMean = newSum/newSim;
         // see http://datagenetics.com/blog/november22017/index.html for the derivation
-        final double varianceTimesN = variance * (numSim - 1) + (delta - oldMean) * (delta - newMean);
-        variance = varianceTimesN/numSim;
+        // variance is only informative, concurrent updates may race on it
+        final double varianceTimesN = variance * (newSim - 1) + (delta - oldMean) * (delta - newMean);
+        variance = varianceTimesN/newSim;
 
         //if child has sufficient simulations, backup using robust max instead of average
-        if (child != null && child.getNumSim() > maxChildSim) {
+        //not for tree workers, whether searching or pondering, where copying the child's
+        //statistics would overwrite concurrent updates and virtual losses of this node
+        if (robustMax && child != null && child.getNumSim() > maxChildSim) {
             maxChildSim = child.getNumSim();
-            sum = child.sum;
+            sumBits = child.sumBits;
             numSim = child.numSim;
         }
     }
 
+    private double getRawSum() {
+        return Double.longBitsToDouble(sumBits);
+    }
+
     double getUCT() {
         return getV() + MCTSAI.UCB1_C * Math.sqrt(Math.log(parent.getNumSim()) / getNumSim());
     }
@@ -757,9 +887,9 @@ class MCTSGameTree implements Iterable<MCTSGameTree> {
     }
 
     void incLose(final int lsteps) {
-        numLose++;
+        final int lost = NUM_LOSE.incrementAndGet(this);
         steps = Math.max(steps, lsteps);
-        if (numLose == maxChildren) {
+        if (lost == maxChildren) {
             if (isAI) {
                 setAILose(steps);
             } else {
@@ -807,11 +937,11 @@ class MCTSGameTree implements Iterable<MCTSGameTree> {
 
     private double getSum() {
         // AI is max player, other is min player
-        return parent.isAI() ? sum : -sum;
+        return parent.isAI() ? getRawSum() : -getRawSum();
     }
 
     public double getAvg() {
-        return sum / numSim;
+        return getRawSum() / numSim;
     }
 
     double getV() {
@@ -1,10 +1,9 @@
 package magic.ai;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import magic.model.MagicGame;
 import magic.model.MagicGameLog;
@@ -15,6 +14,10 @@ import magic.model.phase.MagicStep;
 public class MMAB extends MagicAI {
 
     private static final long SEC_TO_NANO=1000000000L;
+    private static final int SCORE_TABLE_BITS=17;
+    private static final int MOVE_TABLE_BITS=16;
+    // half width of the window around the score of the previous iteration
+    private static final int ASPIRATION_WINDOW=500;
 
     private final boolean CHEAT;
     private final boolean DECKSTR;
@@ -54,52 +57,18 @@ public class MMAB extends MagicAI {
             return sourceGame.map(choices.get(0));
         }
 
-        // submit jobs
-        final ArtificialPruneScoreRef scoreRef = new ArtificialPruneScoreRef(new ArtificialMultiPruneScore());
-        final ArtificialScoreBoard scoreBoard = new ArtificialScoreBoard();
-        final ExecutorService executor = Executors.newFixedThreadPool(getMaxThreads());
-        final List<ArtificialChoiceResults> achoices= new ArrayList<>();
         final int artificialLevel = scorePlayer.getAiProfile().getAiLevel();
-        final int rounds = (size + getMaxThreads() - 1) / getMaxThreads();
-        final long slice = artificialLevel * SEC_TO_NANO / rounds;
-
-        for (final Object[] choice : choices) {
-            final ArtificialChoiceResults achoice=new ArtificialChoiceResults(choice);
-            achoices.add(achoice);
-
-            final MagicGame workerGame=new MagicGame(sourceGame,scorePlayer);
-            if (!CHEAT) {
-                workerGame.hideHiddenCards();
-            }
-            if (DECKSTR) {
-                workerGame.setMainPhases(artificialLevel);
-            }
-            workerGame.setFastChoices(true);
-
-            executor.execute(() -> {
-                final MMABWorker worker=new MMABWorker(
-                    Thread.currentThread().getId(),
-                    workerGame,
-                    scoreBoard,
-                    CHEAT
-                );
-                worker.evaluateGame(achoice, scoreRef.get(), System.nanoTime() + slice);
-                scoreRef.update(achoice.aiScore.getScore());
-            });
-        }
-
-        executor.shutdown();
-        try {
-            // wait for artificialLevel + 1 seconds for jobs to finish
-            executor.awaitTermination(artificialLevel + 1, TimeUnit.SECONDS);
-        } catch (final InterruptedException ex) {
-            throw new RuntimeException(ex);
-        } finally {
-            // force termination of workers
-            executor.shutdownNow();
-        }
+        final long deadline = System.nanoTime() + artificialLevel * SEC_TO_NANO;
+        final Integer[] order = new Integer[size];
+        final Deepening deepening = search(sourceGame, scorePlayer, choices, order, 0, Integer.MAX_VALUE, deadline);
+        final ArtificialChoiceResults[] results = deepening.results;
+        final int depth = deepening.depth;
 
         // select the best scoring choice result.
+        final List<ArtificialChoiceResults> achoices= new ArrayList<>(size);
+        for (final int idx : order) {
+            achoices.add(results[idx]);
+        }
         ArtificialScore bestScore = ArtificialScore.INVALID_SCORE;
         ArtificialChoiceResults bestAchoice = achoices.get(0);
         for (final ArtificialChoiceResults achoice : achoices) {
@@ -118,7 +87,7 @@ public class MMAB extends MagicAI {
             " life=" + scorePlayer.getLife() +
             " turn=" + sourceGame.getTurn() +
             " phase=" + sourceGame.getPhase().getType() +
-            " slice=" + (slice/1000000) +
+            " depth=" + depth +
             " time=" + timeTaken
             );
         for (final ArtificialChoiceResults achoice : achoices) {
@@ -128,19 +97,159 @@ public class MMAB extends MagicAI {
         return sourceGame.map(bestAchoice.choiceResults);
     }
 
+    // the results of the deepest completed iteration
+    static final class Deepening {
+        final ArtificialChoiceResults[] results;
+        final int depth;
+
+        Deepening(final ArtificialChoiceResults[] aResults, final int aDepth) {
+            results = aResults;
+            depth = aDepth;
+        }
+    }
+
+    /**
+     * Searches the choices with iterative deepening from minDepth up to maxDepth,
+     * fills order with the choices from worst to best. An iteration that runs out
+     * of time is dropped unless it is the first.
+     */
+    Deepening search(
+        final MagicGame sourceGame,
+        final MagicPlayer scorePlayer,
+        final List<Object[]> choices,
+        final Integer[] order,
+        final int minDepth,
+        final int maxDepth,
+        final long deadline
+    ) {
+        final int size = choices.size();
+        final ArtificialTranspositionTable scoreBoard = new ArtificialTranspositionTable(SCORE_TABLE_BITS);
+        final ArtificialTranspositionTable moveTable = new ArtificialTranspositionTable(MOVE_TABLE_BITS);
+
+        // one game per choice, each iteration undoes all its actions, including
+        // the draws from the random generator which is saved by snapshot
+        final MagicGame[] workerGames = new MagicGame[size];
+        for (int i = 0; i < size; i++) {
+            final MagicGame workerGame=new MagicGame(sourceGame,scorePlayer);
+            if (!CHEAT) {
+                workerGame.hideHiddenCards();
+            }
+            if (DECKSTR) {
+                workerGame.setMainPhases(scorePlayer.getAiProfile().getAiLevel());
+            }
+            workerGame.setFastChoices(true);
+            workerGames[i] = workerGame;
+            order[i] = i;
+        }
+
+        ArtificialChoiceResults[] results = null;
+        ArtificialScore lastScore = ArtificialScore.INVALID_SCORE;
+        int depth = -1;
+        for (int iterationDepth = minDepth; results == null || System.nanoTime() < deadline;) {
+            final boolean aspiration = lastScore != ArtificialScore.INVALID_SCORE;
+            final int alpha = aspiration ? lastScore.getScore() - ASPIRATION_WINDOW : Integer.MIN_VALUE;
+            final int beta = aspiration ? lastScore.getScore() + ASPIRATION_WINDOW : Integer.MAX_VALUE;
+            final ArtificialChoiceResults[] iteration = new ArtificialChoiceResults[size];
+            final AtomicBoolean timeout = new AtomicBoolean();
+            final AtomicBoolean cutoff = new AtomicBoolean();
+
+            // submit jobs, the best choice of the previous iteration first
+            final ArtificialPruneScoreRef scoreRef = new ArtificialPruneScoreRef(new ArtificialMultiPruneScore(alpha, beta));
+            final ArtificialWorkerPool.Search search = ArtificialWorkerPool.newSearch(deadline);
+            for (final int idx : order) {
+                final ArtificialChoiceResults achoice = new ArtificialChoiceResults(choices.get(idx));
+                final MagicGame workerGame = workerGames[idx];
+                final int workerDepth = iterationDepth;
+                iteration[idx] = achoice;
+                final boolean submitted = search.execute(() -> {
+                    final MMABWorker worker=new MMABWorker(
+                        Thread.currentThread().getId(),
+                        workerGame,
+                        scoreBoard,
+                        moveTable,
+                        workerDepth,
+                        CHEAT
+                    );
+                    worker.evaluateGame(achoice, scoreRef.get(), deadline);
+                    scoreRef.update(achoice.aiScore.getScore());
+                    if (worker.timeout) {
+                        timeout.set(true);
+                    }
+                    if (worker.cutoff) {
+                        cutoff.set(true);
+                    }
+                });
+                if (!submitted) {
+                    timeout.set(true);
+                }
+            }
+
+            // wait for jobs to finish, stragglers are interrupted shortly after the deadline
+            search.await();
+
+            final boolean complete = !timeout.get() && System.nanoTime() <= deadline;
+            if (!complete && results != null) {
+                break;
+            }
+            final ArtificialScore score = getBestScore(iteration);
+            if (complete && aspiration && (score.getScore() <= alpha || score.getScore() >= beta)) {
+                // the score is only a bound, search the same depth again with a full window.
+                // the score board is kept, its entries are keyed by the prune score and
+                // the depth left, so the bounds of the failed search are not reused
+                lastScore = ArtificialScore.INVALID_SCORE;
+                continue;
+            }
+            results = iteration;
+            lastScore = score;
+            depth = iterationDepth;
+
+            // a deeper search finds nothing new when no line was cut off at the maximum depth
+            if (!complete || !cutoff.get() || iterationDepth >= maxDepth) {
+                break;
+            }
+            final ArtificialChoiceResults[] ranked = results;
+            Arrays.sort(order, (i, j) ->
+                ranked[i].aiScore.isBetter(ranked[j].aiScore, true) ? 1 :
+                ranked[j].aiScore.isBetter(ranked[i].aiScore, true) ? -1 : 0
+            );
+            iterationDepth++;
+        }
+        return new Deepening(results, depth);
+    }
+
+    private static ArtificialScore getBestScore(final ArtificialChoiceResults[] achoices) {
+        ArtificialScore bestScore = ArtificialScore.INVALID_SCORE;
+        for (final ArtificialChoiceResults achoice : achoices) {
+            if (bestScore.isBetter(achoice.aiScore, true)) {
+                bestScore = achoice.aiScore;
+            }
+        }
+        return bestScore;
+    }
+
 static class MMABWorker {
 
     private final boolean CHEAT;
     private final long id;
     private final MagicGame game;
-    private final ArtificialScoreBoard scoreBoard;
+    private final ArtificialTranspositionTable scoreBoard;
+    private final ArtificialTranspositionTable moveTable;
+    private final ArtificialTranspositionTable.Entry entry = new ArtificialTranspositionTable.Entry();
+    private final int maxDepth;
 
     private int gameCount;
 
-    MMABWorker(final long id,final MagicGame game,final ArtificialScoreBoard scoreBoard, final boolean CHEAT) {
+    // the search ran out of time, its scores are not those of a full search to maxDepth
+    boolean timeout;
+    // a line was scored at maxDepth before the game was finished
+    boolean cutoff;
+
+    MMABWorker(final long id,final MagicGame game,final ArtificialTranspositionTable scoreBoard, final ArtificialTranspositionTable moveTable, final int maxDepth, final boolean CHEAT) {
         this.id=id;
         this.game=game;
         this.scoreBoard=scoreBoard;
+        this.moveTable=moveTable;
+        this.maxDepth=maxDepth;
         this.CHEAT=CHEAT;
     }
 
@@ -156,6 +265,23 @@ static class MMABWorker {
         }
     }
 
+    // scores depend on how many choices are left before maxDepth
+    private long getGameId(final ArtificialPruneScore pruneScore, final int depth) {
+        return game.getGameId(pruneScore.getScore()) * 31 + (maxDepth - depth);
+    }
+
+    private ArtificialScore getGameScore(final long gameId) {
+        return scoreBoard.get(gameId, entry) ?
+            new ArtificialScore((int)entry.a, entry.depth) :
+            null;
+    }
+
+    private void setGameScore(final long gameId, final ArtificialScore aiScore) {
+        if (aiScore != ArtificialScore.INVALID_SCORE) {
+            scoreBoard.put(gameId, aiScore.getDepth(), aiScore.getScore(), 0);
+        }
+    }
+
     private ArtificialScore runGame(final Object[] nextChoiceResults, final ArtificialPruneScore pruneScore, final int depth, final long maxTime) {
         game.snapshot();
 
@@ -164,6 +290,7 @@ static class MMABWorker {
         }
 
         if (System.nanoTime() > maxTime || Thread.currentThread().isInterrupted()) {
+            timeout = true;
             final ArtificialScore aiScore=new ArtificialScore(game.getScore(),depth);
             game.restore();
             gameCount++;
@@ -177,11 +304,11 @@ static class MMABWorker {
 
                 // Caching of best score for game situations.
                 if (shouldCache()) {
-                    final long gameId=game.getGameId(pruneScore.getScore());
-                    ArtificialScore bestScore=scoreBoard.getGameScore(gameId);
+                    final long gameId=getGameId(pruneScore,depth);
+                    ArtificialScore bestScore=getGameScore(gameId);
                     if (bestScore==null) {
                         bestScore=runGame(null,pruneScore,depth,maxTime);
-                        scoreBoard.setGameScore(gameId,bestScore.getScore(-depth));
+                        setGameScore(gameId,bestScore.getScore(-depth));
                     } else {
                         bestScore=bestScore.getScore(depth);
                     }
@@ -220,16 +347,29 @@ static class MMABWorker {
                 continue;
             }
 
+            // Score the game as it is once the maximum depth is reached.
+            if (depth >= maxDepth) {
+                cutoff = true;
+                final ArtificialScore aiScore=new ArtificialScore(game.getScore(),depth);
+                game.restore();
+                gameCount++;
+                return aiScore;
+            }
+
+            // Try the best choice of an earlier search of this game state first.
+            final long stateId=game.getStateId();
+            final int hint=moveTable.get(stateId, entry) && entry.a < nrOfChoices ? (int)entry.a : 0;
+
             final boolean best=game.getScorePlayer()==event.getPlayer();
             ArtificialScore bestScore=ArtificialScore.INVALID_SCORE;
             ArtificialPruneScore newPruneScore=pruneScore;
-            long end = System.nanoTime();
-            final long slice = (maxTime - end) / nrOfChoices;
-            for (final Object[] choiceResults : choiceResultsList) {
-                end += slice;
-                final ArtificialScore score=runGame(choiceResults, newPruneScore, depth + 1, end);
+            int bestIdx=hint;
+            for (int i = 0; i < nrOfChoices; i++) {
+                final int idx = i == 0 ? hint : i <= hint ? i - 1 : i;
+                final ArtificialScore score=runGame(choiceResultsList.get(idx), newPruneScore, depth + 1, maxTime);
                 if (bestScore.isBetter(score,best)) {
                     bestScore=score;
+                    bestIdx=idx;
                     // Stop when best score can no longer become the best score at previous levels.
                     if (pruneScore.pruneScore(bestScore.getScore(),best)) {
                         break;
@@ -237,6 +377,9 @@ static class MMABWorker {
                     newPruneScore=newPruneScore.getPruneScore(bestScore.getScore(),best);
                 }
             }
+            if (!timeout) {
+                moveTable.put(stateId, maxDepth - depth, bestIdx, 0);
+            }
             game.restore();
             return bestScore;
         }
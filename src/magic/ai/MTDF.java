@@ -1,9 +1,7 @@
 package magic.ai;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import magic.model.MagicGame;
 import magic.model.MagicGameLog;
@@ -16,8 +14,11 @@ import magic.model.event.MagicEvent;
  */
 public class MTDF extends MagicAI {
 
+    private static final int TABLE_BITS = 18;
+
     private final boolean CHEAT;
-    private final Map<Long,TTEntry> table = new HashMap<>();
+    private final ArtificialTranspositionTable table = new ArtificialTranspositionTable(TABLE_BITS);
+    private final ArtificialTranspositionTable.Entry probe = new ArtificialTranspositionTable.Entry();
 
     private long END;
 
@@ -46,7 +47,7 @@ public class MTDF extends MagicAI {
         }
 
         root.setFastChoices(true);
-        final TTEntry result = iterative_deepening(root, choices);
+        final int result = iterative_deepening(root, choices);
 
         // Logging.
         final long timeTaken = System.currentTimeMillis() - startTime;
@@ -59,7 +60,7 @@ public class MTDF extends MagicAI {
             " time=" + timeTaken
             );
 
-        final Object[] chosen = choices.get(result.chosen);
+        final Object[] chosen = choices.get(result);
         for (final Object[] choice : choices) {
             final StringBuilder buf = new StringBuilder();
             ArtificialChoiceResults.appendResult(choice, buf);
@@ -73,13 +74,13 @@ public class MTDF extends MagicAI {
         return System.currentTimeMillis() < END;
     }
 
-    private TTEntry iterative_deepening(final MagicGame root, final List<Object[]> choices) {
-        TTEntry result = null;
+    private int iterative_deepening(final MagicGame root, final List<Object[]> choices) {
+        int result = 0;
         int firstguess = 0;
         for (int d = 1; hasTime(); d++) {
             firstguess = MTDF(root, choices, firstguess, d);
-            if (hasTime()) {
-                result = table.get(root.getStateId());
+            if (hasTime() && table.get(root.getStateId(), probe) && TTEntry.chosen(probe) >= 0) {
+                result = TTEntry.chosen(probe);
             }
         }
         return result;
@@ -105,8 +106,9 @@ public class MTDF extends MagicAI {
     private int AlphaBetaWithMemory(final MagicGame game, final List<Object[]> choices, int alpha, int beta, int d) {
         /* Transposition table lookup */
         final long id = game.getStateId();
-        TTEntry entry = table.get(id);
-        if (entry != null) {
+        final TTEntry entry = new TTEntry();
+        if (table.get(id, probe)) {
+            entry.load(probe);
             if (entry.lowerbound >= beta) {
                 return entry.lowerbound;
             }
@@ -115,15 +117,13 @@ public class MTDF extends MagicAI {
             }
             alpha = Math.max(alpha, entry.lowerbound);
             beta = Math.min(beta, entry.upperbound);
-        } else {
-            entry = new TTEntry();
-            table.put(id, entry);
         }
 
         if (d == 0 || game.isFinished() || !hasTime()) {
             /* leaf node */
             int g = game.getScore();
             entry.update(g, alpha, beta);
+            entry.store(table, id, d);
             return g;
         }
 
@@ -163,13 +163,8 @@ public class MTDF extends MagicAI {
             }
         }
 
-        final long id_check = game.getStateId();
-        if (id != id_check) {
-            table.put(id_check, entry);
-            table.remove(id);
-        }
-
         entry.update(g, alpha, beta);
+        entry.store(table, game.getStateId(), d);
         return g;
     }
 
@@ -183,6 +178,20 @@ class TTEntry {
     int upperbound = Integer.MAX_VALUE;
     int chosen = -1;
 
+    static int chosen(final ArtificialTranspositionTable.Entry probe) {
+        return (int)probe.b;
+    }
+
+    void load(final ArtificialTranspositionTable.Entry probe) {
+        lowerbound = (int)(probe.a >> 32);
+        upperbound = (int)probe.a;
+        chosen = chosen(probe);
+    }
+
+    void store(final ArtificialTranspositionTable table, final long id, final int depth) {
+        table.put(id, depth, ((long)lowerbound << 32) | (upperbound & 0xffffffffL), chosen);
+    }
+
     void update(int g, int alpha, int beta) {
         /* Traditional transposition table storing of bounds */
         /* Fail low result implies an upper bound */
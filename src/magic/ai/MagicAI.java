@@ -8,9 +8,21 @@ public abstract class MagicAI {
     // default number of threads to use when running simulated games.
     private static int maxThreads = Runtime.getRuntime().availableProcessors();
 
+    // number of games whose AIs search at the same time, sharing the worker pool.
+    private static int concurrentGames = 1;
+
     int MAX_LEVEL = 8;
     abstract public Object[] findNextEventChoiceResults(final MagicGame game, final MagicPlayer player);
 
+    /**
+     * Starts thinking in the background on a copy of game while the opponent of
+     * player is deciding. The returned search must be stopped before game is
+     * changed. Returns null when this AI does not ponder.
+     */
+    public ArtificialWorkerPool.Search ponder(final MagicGame game, final MagicPlayer player) {
+        return null;
+    }
+
     public static void setMaxThreads(int i) {
         maxThreads = Math.min(i, Runtime.getRuntime().availableProcessors());
     }
@@ -19,4 +31,12 @@ public abstract class MagicAI {
         return maxThreads;
     }
 
+    public static void setConcurrentGames(int i) {
+        concurrentGames = Math.max(1, i);
+    }
+
+    public static int getConcurrentGames() {
+        return concurrentGames;
+    }
+
 }
@@ -1,33 +1,42 @@
 package magic.ai;
 
+import java.util.function.Supplier;
+
 public enum MagicAIImpl {
-    MMAB("minimax", new MMAB(false)),
-    MMABC("minimax (cheat)", new MMAB(true)),
-    MCTS("monte carlo tree search", new MCTSAI(false)),
-    MCTSC("monte carlo tree search (cheat)", new MCTSAI(true)),
-    VEGAS("vegas", new VegasAI(false)),
-    VEGASC("vegas (cheat)", new VegasAI(true)),
-    MTDF("mtd(f)", new MTDF(false)),
-    MTDFC("mtd(f) (cheat)", new MTDF(true)),
-
-    MMABFast("minimax (deck strength)", magic.ai.MMAB.DeckStrAI()),
+    MMAB("minimax", () -> new MMAB(false)),
+    MMABC("minimax (cheat)", () -> new MMAB(true)),
+    MCTS("monte carlo tree search", () -> new MCTSAI(false)),
+    MCTSC("monte carlo tree search (cheat)", () -> new MCTSAI(true)),
+    VEGAS("vegas", () -> new VegasAI(false)),
+    VEGASC("vegas (cheat)", () -> new VegasAI(true)),
+    MTDF("mtd(f)", () -> new MTDF(false)),
+    MTDFC("mtd(f) (cheat)", () -> new MTDF(true)),
+
+    MMABFast("minimax (deck strength)", magic.ai.MMAB::DeckStrAI),
     ;
 
     public static final MagicAIImpl[] SUPPORTED_AIS = {MMAB, MMABC, MCTS, MCTSC, VEGAS, VEGASC};
     public static final MagicAIImpl[] DECKSTR_AIS = {MMABFast, MMABFast};
 
     private final String name;
+    private final Supplier<MagicAI> factory;
     private final MagicAI ai;
 
-    private MagicAIImpl(final String name, final MagicAI ai) {
+    private MagicAIImpl(final String name, final Supplier<MagicAI> factory) {
         this.name=name;
-        this.ai=ai;
+        this.factory=factory;
+        this.ai=factory.get();
     }
 
     public MagicAI getAI() {
         return ai;
     }
 
+    /** Returns a new instance of the AI, which shares no state such as caches with other games. */
+    public MagicAI newAI() {
+        return factory.get();
+    }
+
     @Override
     public String toString() {
         return name;
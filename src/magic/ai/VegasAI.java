@@ -2,9 +2,6 @@ package magic.ai;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 
 import magic.model.MagicGame;
 import magic.model.MagicGameLog;
@@ -48,30 +45,24 @@ public class VegasAI extends MagicAI {
         }
 
         // Multiple choices
-        final ExecutorService executor = Executors.newFixedThreadPool(getMaxThreads());
         final List<VegasScore> scores= new ArrayList<>();
         final int artificialLevel = scorePlayer.getAiProfile().getAiLevel();
         final int rounds = (size + getMaxThreads() - 1) / getMaxThreads();
         final long slice = artificialLevel * SEC_TO_NANO / rounds;
+        final ArtificialWorkerPool.Search search = ArtificialWorkerPool.newSearch(System.nanoTime() + artificialLevel * SEC_TO_NANO);
         for (final Object[] choiceResults : choiceResultsList) {
             final VegasScore score=new VegasScore(choiceResults);
             scores.add(score);
-            executor.execute(new VegasWorker(
+            search.execute(new VegasWorker(
                 CHEAT,
                 choiceGame,
                 score,
+                scores.size() - 1,
                 slice
             ));
         }
-        executor.shutdown();
-        try { //await termination
-            executor.awaitTermination(artificialLevel + 1,TimeUnit.SECONDS);
-        } catch (final InterruptedException ex) {
-            throw new RuntimeException(ex);
-        } finally {
-            // force termination of workers
-            executor.shutdownNow();
-        }
+        // wait for workers, stragglers are interrupted shortly after the deadline
+        search.await();
 
         // Return best choice
         VegasScore bestScore=scores.get(0);
@@ -10,20 +10,22 @@ public class VegasWorker implements Runnable {
     private final MagicGame sourceGame;
     private final VegasScore score;
     private final Object[] choiceResults;
+    private final int worker;
     private final long slice;
     private final boolean CHEAT;
 
-    VegasWorker(final boolean cheat, final MagicGame sourceGame, final VegasScore score,final long slice) {
+    VegasWorker(final boolean cheat, final MagicGame sourceGame, final VegasScore score, final int worker, final long slice) {
         this.CHEAT = cheat;
         this.sourceGame=sourceGame;
         this.score=score;
         this.choiceResults=score.getChoiceResults();
+        this.worker=worker;
         this.slice=slice;
     }
 
     /** Play game until number of main phases are completed or until the game is finished. */
     private void runGame(final MagicGame game) {
-        while (game.advanceToNextEventWithChoice()) {
+        while (!Thread.currentThread().isInterrupted() && game.advanceToNextEventWithChoice()) {
             final MagicEvent event = game.getNextEvent();
             final Object[] result = event.getSimulationChoiceResult(game);
             game.executeNextEvent(result);
@@ -33,8 +35,9 @@ public class VegasWorker implements Runnable {
     @Override
     public void run() {
         final long endTime = System.nanoTime() + slice;
-        while (System.nanoTime() < endTime) {
+        for (long n = 0; System.nanoTime() < endTime && !Thread.currentThread().isInterrupted(); n++) {
             final MagicGame game = new MagicGame(sourceGame, sourceGame.getScorePlayer());
+            game.splitRNG(((long)worker << 32) | n);
             if (!CHEAT) {
                 game.showRandomizedHiddenCards();
             }
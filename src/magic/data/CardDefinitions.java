@@ -10,19 +10,26 @@ import java.io.UnsupportedEncodingException;
 import java.nio.file.Path;
 import java.text.Normalizer;
 import java.text.Normalizer.Form;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.Deque;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -32,7 +39,6 @@ import org.codehaus.groovy.control.CompilerConfiguration;
 import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer;
 import org.codehaus.groovy.control.customizers.ImportCustomizer;
 
-import groovy.lang.GroovyShell;
 import groovy.transform.CompileStatic;
 import magic.model.MagicCardDefinition;
 import magic.model.MagicChangeCardDefinition;
@@ -50,6 +56,9 @@ public class CardDefinitions {
     private static final File CARDS_SNAPSHOT_FILE =
             MagicFileSystem.getDataPath().resolve("snapshot.dat").toFile();
 
+    private static final File CARDS_IMAGE_FILE =
+            MagicFileSystem.getDataPath(DataPath.CACHE).resolve("cards.dat").toFile();
+
     private static final File SCRIPTS_DIRECTORY =
             MagicFileSystem.getDataPath(DataPath.SCRIPTS).toFile();
 
@@ -67,55 +76,74 @@ public class CardDefinitions {
 
     private static final AtomicInteger cdefIndex = new AtomicInteger(1);
 
-    static {
-        CompilerConfiguration.DEFAULT.getOptimizationOptions().put(CompilerConfiguration.INVOKEDYNAMIC, Boolean.TRUE);
-    }
-
-    // groovy shell for evaluating groovy card scripts with automatic imports
-    private static final GroovyShell shell = new GroovyShell(
-        new CompilerConfiguration().addCompilationCustomizers(
-            new ImportCustomizer()
-            .addStarImports(
-                "java.util",
-                "magic.data",
-                "magic.model",
-                "magic.model.action",
-                "magic.model.choice",
-                "magic.model.condition",
-                "magic.model.event",
-                "magic.model.mstatic",
-                "magic.model.stack",
-                "magic.model.target",
-                "magic.model.trigger",
-                "magic.model.phase",
-                "magic.card"
-            ).addStaticStars(
-                "magic.model.target.MagicTargetFilterFactory",
-                "magic.model.choice.MagicTargetChoice"
-            ),
-            new ASTTransformationCustomizer(CompileStatic.class)
-        )
-    );
+    // ensures each card is only added once when cards are loaded lazily, only
+    // held to add or drop a definition, never while a script is parsed
+    private static final Object loadLock = new Object();
 
-    private static void setProperty(final MagicCardDefinition card,final String property,final String value) {
-        try {
-            CardProperty.valueOf(property.toUpperCase(Locale.ENGLISH)).setProperty(card, value);
-        } catch (IllegalArgumentException e) {
-            throw new RuntimeException("unknown card property value \"" + property + "\" = \"" + value + "\"", e);
+    // names of the cards whose definitions hold the definition of a card, by the key of that card
+    private static final Map<String, Set<String>> dependents = new ConcurrentHashMap<>();
+
+    // name of the card that is parsed or has its abilities loaded on this thread
+    private static final ThreadLocal<String> loadingCard = new ThreadLocal<>();
+
+    // parsed card scripts held per loader thread before they are registered
+    private static final int LOAD_WINDOW = 16;
+
+    // groovy is only initialized once a card needs a groovy script
+    private static final class GroovyScripts {
+
+        static {
+            CompilerConfiguration.DEFAULT.getOptimizationOptions().put(CompilerConfiguration.INVOKEDYNAMIC, Boolean.TRUE);
         }
+
+        // compiled groovy card scripts with automatic imports
+        static final GroovyScriptCache scripts = new GroovyScriptCache(
+            new CompilerConfiguration().addCompilationCustomizers(
+                new ImportCustomizer()
+                .addStarImports(
+                    "java.util",
+                    "magic.data",
+                    "magic.model",
+                    "magic.model.action",
+                    "magic.model.choice",
+                    "magic.model.condition",
+                    "magic.model.event",
+                    "magic.model.mstatic",
+                    "magic.model.stack",
+                    "magic.model.target",
+                    "magic.model.trigger",
+                    "magic.model.phase",
+                    "magic.card"
+                ).addStaticStars(
+                    "magic.model.target.MagicTargetFilterFactory",
+                    "magic.model.choice.MagicTargetChoice"
+                ),
+                new ASTTransformationCustomizer(CompileStatic.class)
+            ),
+            CardDefinitions.class.getClassLoader(),
+            MagicFileSystem.getDataPath(DataPath.CACHE).resolve("groovy")
+        );
     }
 
     private static void addDefinition(final MagicCardDefinition cardDef) {
         assert cardDef != null : "CardDefinitions.addDefinition passed null";
         assert cardDef.getIndex() == -1 : "cardDefinition has been assigned index";
 
-        cardDef.setIndex(cdefIndex.getAndIncrement());
-
-        playableCards.put(cardDef.getAsciiName(), cardDef);
+        synchronized (loadLock) {
+            // keep a card that was already loaded on its first use
+            if (playableCards.containsKey(cardDef.getAsciiName())) {
+                return;
+            }
+            cardDef.setIndex(cdefIndex.getAndIncrement());
+            playableCards.put(cardDef.getAsciiName(), cardDef);
+        }
     }
 
     private static MagicCardDefinition prop2carddef(final File scriptFile, final boolean isMissing) {
-        final Properties content = FileIO.toProp(scriptFile);
+        return prop2carddef(FileIO.toProp(scriptFile), isMissing);
+    }
+
+    private static MagicCardDefinition prop2carddef(final Properties content, final boolean isMissing) {
         final MagicCardDefinition cardDefinition = new MagicCardDefinition();
 
         if (isMissing) {
@@ -124,7 +152,7 @@ public class CardDefinitions {
 
         for (final String key : content.stringPropertyNames()) {
             try {
-                setProperty(cardDefinition, key, content.getProperty(key));
+                CardScript.setProperty(cardDefinition, key, content.getProperty(key));
             } catch (Exception e) {
                 if (isMissing) {
                     cardDefinition.setInvalid();
@@ -155,7 +183,7 @@ public class CardDefinitions {
                 throw new RuntimeException("groovy file not found: " + groovyFile);
             }
             @SuppressWarnings("unchecked")
-            final List<MagicChangeCardDefinition> defs = (List<MagicChangeCardDefinition>)shell.evaluate(groovyFile);
+            final List<MagicChangeCardDefinition> defs = (List<MagicChangeCardDefinition>)GroovyScripts.scripts.evaluate(groovyFile);
             for (MagicChangeCardDefinition ccd : defs) {
                 ccd.change(cardDefinition);
             }
@@ -175,19 +203,41 @@ public class CardDefinitions {
     }
 
     private static void loadCardDefinition(final File file) {
-        try {
-            final MagicCardDefinition cdef = prop2carddef(file, false);
+        final MagicCardDefinition cdef = parseCardDefinition(file, () -> CardScript.parse(FileIO.toProp(file)));
+        if (cdef != null) {
             addDefinition(cdef);
+        }
+    }
+
+    // returns null if the script is invalid and missing cards are being parsed
+    private static MagicCardDefinition parseCardDefinition(final File file, final Supplier<CardScript> script) {
+        try {
+            final CardScript cardScript = script.get();
+            final String previous = setLoadingCard(cardScript.getName());
+            try {
+                return cardScript.toCardDefinition();
+            } finally {
+                setLoadingCard(previous);
+            }
         } catch (final Throwable cause) {
             if (MagicSystem.isParseMissing()) {
                 System.out.println("ERROR file: " + file + " cause: " + cause.getMessage());
+                return null;
             } else {
                 throw new RuntimeException("Error loading " + file, cause);
             }
         }
     }
 
+    /**
+     * Loads the script of the named card unless it is already loaded. The
+     * script is parsed without holding the lock, so cards are loaded in
+     * parallel, and a card parsed by two threads at once is only added once.
+     */
     public static void loadCardDefinition(final String cardName) {
+        if (playableCards.containsKey(getASCII(cardName))) {
+            return;
+        }
         final File cardFile = new File(SCRIPTS_DIRECTORY, getCanonicalName(cardName) + ".txt");
         if (!cardFile.isFile()) {
             throw new RuntimeException("card script file not found: " + cardFile);
@@ -195,6 +245,35 @@ public class CardDefinitions {
         loadCardDefinition(cardFile);
     }
 
+    /**
+     * Sets the card whose definition is being built on this thread and returns
+     * the previous one. Cards looked up meanwhile are recorded as used by it.
+     */
+    public static String setLoadingCard(final String cardName) {
+        final String previous = loadingCard.get();
+        loadingCard.set(cardName);
+        return previous;
+    }
+
+    /**
+     * Drops the named card if it is loaded, so that its script is loaded again
+     * on its next use. Only for cards loaded lazily whose script has changed.
+     * Cards that looked it up while they were built, such as those making it
+     * as a token, are dropped as well, as they may hold its old definition.
+     */
+    public static void unloadCardDefinition(final String cardName) {
+        synchronized (loadLock) {
+            final String key = getASCII(cardName);
+            playableCards.remove(key);
+            final Set<String> users = dependents.remove(key);
+            if (users != null) {
+                for (final String user : users) {
+                    unloadCardDefinition(user);
+                }
+            }
+        }
+    }
+
     /**
      * loads playable cards.
      */
@@ -203,25 +282,72 @@ public class CardDefinitions {
         reporter.setMessage("Sorting card script files...");
         final File[] scriptFiles = MagicFileSystem.getSortedScriptFiles(SCRIPTS_DIRECTORY);
 
+        // use the pre-parsed scripts unless the scripts have changed since the image was saved
+        final CardScript[] image = CardScriptImage.load(CARDS_IMAGE_FILE, SCRIPTS_DIRECTORY, scriptFiles);
+        final CardScript[] content = image != null ? image : new CardScript[scriptFiles.length];
+
         reporter.setMessage("Loading cards...0%");
         final double totalFiles = scriptFiles.length;
         int fileCount = 0;
-        for (final File file : scriptFiles) {
-            loadCardDefinition(file);
-            //
-            // display percentage complete message every 10%.
-            final double percentageComplete = (fileCount++ / totalFiles) * 100;
-            final double m = percentageComplete % 10d;
-            if (isZero(m, 0.01d)) {
-                // This should only be called ten times.
-                // It can have a serious effect on load time if called too many times.
-                reporter.setMessage("Loading cards..." + ((int)percentageComplete + 10) + "%");
+
+        // Scripts are parsed on a pool but registered here in file order so that
+        // card indexes do not depend on thread timing. At most LOAD_WINDOW parsed
+        // definitions are held waiting for registration.
+        final int threads = Runtime.getRuntime().availableProcessors();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final Deque<Future<MagicCardDefinition>> window = new ArrayDeque<>();
+        final int maxWindow = threads * LOAD_WINDOW;
+        try {
+            int next = 0;
+            while (next < scriptFiles.length || !window.isEmpty()) {
+                while (next < scriptFiles.length && window.size() < maxWindow) {
+                    final int i = next++;
+                    window.add(executor.submit(() -> parseCardDefinition(scriptFiles[i], () -> {
+                        if (content[i] == null) {
+                            content[i] = CardScript.parse(FileIO.toProp(scriptFiles[i]));
+                        }
+                        return content[i];
+                    })));
+                }
+                final MagicCardDefinition cdef = getParsed(window.poll());
+                if (cdef != null) {
+                    addDefinition(cdef);
+                }
+                //
+                // display percentage complete message every 10%.
+                final double percentageComplete = (fileCount++ / totalFiles) * 100;
+                final double m = percentageComplete % 10d;
+                if (isZero(m, 0.01d)) {
+                    // This should only be called ten times.
+                    // It can have a serious effect on load time if called too many times.
+                    reporter.setMessage("Loading cards..." + ((int)percentageComplete + 10) + "%");
+                }
             }
+        } finally {
+            executor.shutdownNow();
+        }
+        // scripts that could not be parsed leave a gap, the image is then not saved
+        if (image == null && Arrays.stream(content).allMatch(Objects::nonNull)) {
+            CardScriptImage.save(CARDS_IMAGE_FILE, SCRIPTS_DIRECTORY, scriptFiles, content);
         }
         reporter.setMessage("Loading cards...100%");
 
     }
 
+    private static MagicCardDefinition getParsed(final Future<MagicCardDefinition> future) {
+        try {
+            return future.get();
+        } catch (final ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)ex.getCause();
+            }
+            throw new RuntimeException(ex.getCause());
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        }
+    }
+
     public static void postCardDefinitions() {
         printStatistics();
         updateNewCardsLog(loadCardsSnapshotFile());
@@ -277,6 +403,10 @@ public class CardDefinitions {
 
     public static MagicCardDefinition getCard(final String original) {
         final String key = getASCII(original);
+        final String user = loadingCard.get();
+        if (user != null && !getASCII(user).equals(key)) {
+            dependents.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(user);
+        }
         // lazy loading of card scripts
         if (!playableCards.containsKey(key)) {
             loadCardDefinition(original);
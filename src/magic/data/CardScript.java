@@ -0,0 +1,78 @@
+package magic.data;
+
+import java.util.Locale;
+import java.util.Properties;
+
+import magic.model.MagicCardDefinition;
+
+/**
+ * The properties of a card script resolved to card properties, in the order
+ * in which they are set on a new card definition.
+ */
+final class CardScript {
+
+    final CardProperty[] properties;
+    final String[] values;
+
+    CardScript(final CardProperty[] aProperties, final String[] aValues) {
+        properties = aProperties;
+        values = aValues;
+    }
+
+    /** Resolves the keys of content, throws if a key is not a card property. */
+    static CardScript parse(final Properties content) {
+        final String[] keys = content.stringPropertyNames().toArray(new String[0]);
+        final CardProperty[] properties = new CardProperty[keys.length];
+        final String[] values = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = content.getProperty(keys[i]);
+            properties[i] = getProperty(keys[i], values[i]);
+        }
+        return new CardScript(properties, values);
+    }
+
+    /** Sets the property named key on card, throws if key or value is not valid. */
+    static void setProperty(final MagicCardDefinition card, final String key, final String value) {
+        setProperty(card, getProperty(key, value), value);
+    }
+
+    /** Returns the value of the name property, or null if there is none. */
+    String getName() {
+        for (int i = 0; i < properties.length; i++) {
+            if (properties[i] == CardProperty.NAME) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    /** Returns a new card definition with the properties set and validated. */
+    MagicCardDefinition toCardDefinition() {
+        final MagicCardDefinition cardDefinition = new MagicCardDefinition();
+        for (int i = 0; i < properties.length; i++) {
+            setProperty(cardDefinition, properties[i], values[i]);
+        }
+        cardDefinition.validate();
+        return cardDefinition;
+    }
+
+    private static CardProperty getProperty(final String key, final String value) {
+        try {
+            return CardProperty.valueOf(key.toUpperCase(Locale.ENGLISH));
+        } catch (final IllegalArgumentException e) {
+            throw unknownProperty(key, value, e);
+        }
+    }
+
+    private static void setProperty(final MagicCardDefinition card, final CardProperty property, final String value) {
+        try {
+            property.setProperty(card, value);
+        } catch (final IllegalArgumentException e) {
+            throw unknownProperty(property.name().toLowerCase(Locale.ENGLISH), value, e);
+        }
+    }
+
+    private static RuntimeException unknownProperty(final String property, final String value, final Exception cause) {
+        return new RuntimeException("unknown card property value \"" + property + "\" = \"" + value + "\"", cause);
+    }
+}
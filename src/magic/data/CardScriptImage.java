@@ -0,0 +1,144 @@
+package magic.data;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+
+import magic.model.MurmurHash3;
+import magic.utility.MagicSystem;
+
+/**
+ * Binary image of the parsed card script files.
+ * <p>
+ * Holds the resolved card properties of every script in a single file that
+ * is read in one go at startup, so that thousands of small script files need
+ * not be opened and parsed on each launch. The image stores a fingerprint of
+ * the Magarena version, the card properties and the name, modification time
+ * and size of every script and groovy file, followed by the name of each
+ * script. It is ignored, and rebuilt by the loader, when any of these change,
+ * so a script edited in place is noticed too. The files are only listed and
+ * their attributes read, which is much cheaper than opening them.
+ */
+final class CardScriptImage {
+
+    private static final int MAGIC = 0x4D434442;
+    private static final int FORMAT = 3;
+    private static final CardProperty[] PROPERTIES = CardProperty.values();
+
+    private CardScriptImage() {}
+
+    private static long getFingerprint(final File scriptsDirectory, final File[] scriptFiles) throws IOException {
+        final File[] groovyFiles = scriptsDirectory.listFiles((dir, name) -> name.endsWith(".groovy"));
+        if (groovyFiles == null) {
+            throw new IOException("Unable to list " + scriptsDirectory);
+        }
+        Arrays.sort(groovyFiles);
+        final long[] key = new long[1 + PROPERTIES.length + 3 * (scriptFiles.length + groovyFiles.length)];
+        int k = 0;
+        key[k++] = MagicSystem.VERSION.hashCode();
+        for (final CardProperty property : PROPERTIES) {
+            key[k++] = property.name().hashCode();
+        }
+        for (final File[] files : new File[][]{scriptFiles, groovyFiles}) {
+            for (final File file : files) {
+                final BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+                key[k++] = file.getName().hashCode();
+                key[k++] = attributes.lastModifiedTime().toMillis();
+                key[k++] = attributes.size();
+            }
+        }
+        return MurmurHash3.hash(key);
+    }
+
+    /**
+     * Returns the script of each file in scriptFiles, in the same order, or
+     * null if the image is missing or out of date.
+     */
+    static CardScript[] load(final File imageFile, final File scriptsDirectory, final File[] scriptFiles) {
+        if (!imageFile.isFile()) {
+            return null;
+        }
+        try {
+            // read rather than mapped, so the image can be replaced while the game runs
+            final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(imageFile.toPath()));
+            if (buffer.getInt() != MAGIC ||
+                buffer.getInt() != FORMAT ||
+                !MagicSystem.VERSION.equals(getString(buffer)) ||
+                buffer.getLong() != getFingerprint(scriptsDirectory, scriptFiles) ||
+                buffer.getInt() != scriptFiles.length) {
+                return null;
+            }
+            final CardScript[] scripts = new CardScript[scriptFiles.length];
+            for (int i = 0; i < scripts.length; i++) {
+                if (!scriptFiles[i].getName().equals(getString(buffer))) {
+                    return null;
+                }
+                final int size = buffer.getInt();
+                final CardProperty[] properties = new CardProperty[size];
+                final String[] values = new String[size];
+                for (int j = 0; j < size; j++) {
+                    properties[j] = PROPERTIES[buffer.getShort()];
+                    values[j] = getString(buffer);
+                }
+                scripts[i] = new CardScript(properties, values);
+            }
+            return scripts;
+        } catch (final IOException|BufferUnderflowException|IndexOutOfBoundsException|NegativeArraySizeException ex) {
+            System.err.println("Unable to read " + imageFile + ", " + ex);
+            return null;
+        }
+    }
+
+    /** Replaces the image with the given script of each file. */
+    static void save(final File imageFile, final File scriptsDirectory, final File[] scriptFiles, final CardScript[] scripts) {
+        final Path image = imageFile.toPath();
+        Path tmp = null;
+        try {
+            // write to a temporary file first so that a partial image is never loaded
+            tmp = Files.createTempFile(image.getParent(), imageFile.getName(), ".tmp");
+            try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT);
+                putString(output, MagicSystem.VERSION);
+                output.writeLong(getFingerprint(scriptsDirectory, scriptFiles));
+                output.writeInt(scriptFiles.length);
+                for (int i = 0; i < scriptFiles.length; i++) {
+                    putString(output, scriptFiles[i].getName());
+                    output.writeInt(scripts[i].properties.length);
+                    for (int j = 0; j < scripts[i].properties.length; j++) {
+                        output.writeShort(scripts[i].properties[j].ordinal());
+                        putString(output, scripts[i].values[j]);
+                    }
+                }
+            }
+            Files.move(tmp, image, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException ex) {
+            System.err.println("Unable to write " + imageFile + ", " + ex);
+            if (tmp != null) {
+                tmp.toFile().delete();
+            }
+        }
+    }
+
+    private static String getString(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static void putString(final DataOutputStream output, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+}
@@ -0,0 +1,249 @@
+package magic.data;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FileUtils;
+
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.tools.GroovyClass;
+import org.codehaus.groovy.runtime.InvokerHelper;
+
+import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovySystem;
+import magic.utility.MagicFileSystem;
+import magic.utility.MagicSystem;
+
+/**
+ * Disk cache of compiled groovy card scripts.
+ * <p>
+ * A script is compiled once into a jar named after the hash of its text, the
+ * Magarena version and the Groovy version. Later starts, including forked
+ * worker JVMs, load the stored classes instead of compiling the script again.
+ * An edited script gets a new key, so it is recompiled on its next use.
+ * <p>
+ * The jars are kept in a directory named after the hash of the class path,
+ * the name, size and modification time of each of its files, as the classes
+ * of a script are linked against the engine classes they were compiled with.
+ * The directories of other class paths are deleted on startup.
+ */
+final class GroovyScriptCache {
+
+    private final CompilerConfiguration config;
+    private final ClassLoader parent;
+    private final Path directory;
+
+    GroovyScriptCache(final CompilerConfiguration config, final ClassLoader parent, final Path directory) {
+        this.config = config;
+        this.parent = parent;
+        MagicFileSystem.verifyDirectoryPath(directory);
+        final String engineKey = getEngineKey(directory.toAbsolutePath());
+        deleteOtherEntries(directory, engineKey);
+        this.directory = directory.resolve(engineKey);
+        MagicFileSystem.verifyDirectoryPath(this.directory);
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private static String toKey(final MessageDigest digest) {
+        return String.format("%040x", new BigInteger(1, digest.digest()));
+    }
+
+    private static void update(final MessageDigest digest, final Path file) throws IOException {
+        final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        digest.update((file + "/" + attributes.size() + "/" + attributes.lastModifiedTime().toMillis() + "/").getBytes(UTF_8));
+    }
+
+    // hash of the files of the class path, the classes of a directory are listed in
+    // order, the cache itself is left out when it is below a directory of the class path
+    private static String getEngineKey(final Path cache) {
+        final MessageDigest digest = createDigest();
+        for (final String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+            // an empty entry is the working directory, which holds no engine classes
+            if (entry.isEmpty()) {
+                continue;
+            }
+            final Path path = new File(entry).toPath().toAbsolutePath();
+            try {
+                if (Files.isDirectory(path)) {
+                    try (final Stream<Path> files = Files.walk(path)) {
+                        for (final Path file : files.filter(file -> !file.startsWith(cache) && Files.isRegularFile(file)).sorted().collect(Collectors.toList())) {
+                            update(digest, file);
+                        }
+                    }
+                } else if (Files.isRegularFile(path)) {
+                    update(digest, path);
+                }
+            } catch (final IOException|UncheckedIOException ex) {
+                // hashed by name only, an engine that cannot be listed is not cached reliably
+                digest.update((entry + "/").getBytes(UTF_8));
+            }
+        }
+        return toKey(digest);
+    }
+
+    // the jars of other class paths, and of the flat layout used before, are never loaded again
+    private static void deleteOtherEntries(final Path directory, final String engineKey) {
+        final File[] entries = directory.toFile().listFiles();
+        if (entries == null) {
+            return;
+        }
+        for (final File entry : entries) {
+            if (!entry.getName().equals(engineKey) && !FileUtils.deleteQuietly(entry)) {
+                System.err.println("Unable to delete " + entry);
+            }
+        }
+    }
+
+    /** Runs the script in file and returns its result. */
+    Object evaluate(final File file) throws IOException {
+        final byte[] text = Files.readAllBytes(file.toPath());
+        final Path jar = directory.resolve(getKey(text) + ".jar");
+        final Map<String, byte[]> classes = new HashMap<>();
+        String main = null;
+        if (Files.isRegularFile(jar)) {
+            try {
+                main = read(jar, classes);
+            } catch (final IOException ex) {
+                System.err.println("Unable to read " + jar + ", " + ex);
+                classes.clear();
+            }
+        }
+        if (main == null) {
+            main = compile(file.getName(), new String(text, config.getSourceEncoding()), classes);
+            write(jar, main, classes);
+        }
+        try {
+            final Class<?> scriptClass = new ScriptClassLoader(parent, classes).loadClass(main);
+            return InvokerHelper.createScript(scriptClass, new Binding()).run();
+        } catch (final ClassNotFoundException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private static String getKey(final byte[] text) {
+        final MessageDigest digest = createDigest();
+        digest.update((MagicSystem.VERSION + "/" + GroovySystem.getVersion() + "/").getBytes(UTF_8));
+        digest.update(text);
+        return toKey(digest);
+    }
+
+    // compiles the script into classes, returns the name of the script class
+    private String compile(final String name, final String text, final Map<String, byte[]> classes) {
+        final CompilationUnit unit = new CompilationUnit(config, null, new GroovyClassLoader(parent, config));
+        unit.addSource(name, text);
+        unit.compile(Phases.CLASS_GENERATION);
+        for (final Object obj : unit.getClasses()) {
+            final GroovyClass groovyClass = (GroovyClass)obj;
+            classes.put(groovyClass.getName(), groovyClass.getBytes());
+        }
+        for (final ModuleNode module : unit.getAST().getModules()) {
+            for (final ClassNode classNode : module.getClasses()) {
+                if (classNode.isScript()) {
+                    return classNode.getName();
+                }
+            }
+        }
+        throw new RuntimeException("no script class in " + name);
+    }
+
+    private static String read(final Path jar, final Map<String, byte[]> classes) throws IOException {
+        try (final JarInputStream input = new JarInputStream(Files.newInputStream(jar))) {
+            for (JarEntry entry = input.getNextJarEntry(); entry != null; entry = input.getNextJarEntry()) {
+                final String name = entry.getName();
+                if (name.endsWith(".class")) {
+                    classes.put(name.substring(0, name.length() - 6).replace('/', '.'), readAll(input));
+                }
+            }
+            final Manifest manifest = input.getManifest();
+            return manifest != null ? manifest.getMainAttributes().getValue(Attributes.Name.MAIN_CLASS) : null;
+        }
+    }
+
+    private static byte[] readAll(final InputStream input) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        for (int n = input.read(buffer); n != -1; n = input.read(buffer)) {
+            bytes.write(buffer, 0, n);
+        }
+        return bytes.toByteArray();
+    }
+
+    // the cache is only an optimization, so failing to write it is not an error
+    private void write(final Path jar, final String main, final Map<String, byte[]> classes) {
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, main);
+        Path tmp = null;
+        try {
+            // write to a temporary file first so that concurrent loaders never see a partial jar
+            tmp = Files.createTempFile(directory, jar.getFileName().toString(), ".tmp");
+            try (final OutputStream out = Files.newOutputStream(tmp);
+                 final JarOutputStream output = new JarOutputStream(out, manifest)) {
+                for (final Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                    output.putNextEntry(new JarEntry(entry.getKey().replace('.', '/') + ".class"));
+                    output.write(entry.getValue());
+                    output.closeEntry();
+                }
+            }
+            Files.move(tmp, jar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException ex) {
+            System.err.println("Unable to write " + jar + ", " + ex);
+            if (tmp != null) {
+                tmp.toFile().delete();
+            }
+        }
+    }
+
+    private static final class ScriptClassLoader extends ClassLoader {
+
+        private final Map<String, byte[]> classes;
+
+        ScriptClassLoader(final ClassLoader parent, final Map<String, byte[]> classes) {
+            super(parent);
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(final String name) throws ClassNotFoundException {
+            final byte[] bytes = classes.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package magic.data.settings;
 public enum BooleanSetting {
 
     ALWAYS_PASS("pass", true),
+    AI_PONDER("aiPonder", false),
     ANIMATE_GAMEPLAY("animateGameplay", true),
     CUSTOM_BACKGROUND("customBackground", false),
     CUSTOM_FONTS("custom.fonts", true),
@@ -38,6 +38,7 @@ public class FiremindClient {
     protected static final GeneralConfig CONFIG = GeneralConfig.getInstance();
     static String firemindHost ;
     static List<String> addedScripts;
+    static List<String> changedCards = new ArrayList<>();
     public static Duel popDeckJob() {
         CONFIG.load();
         JSONObject obj;
@@ -58,10 +59,12 @@ public class FiremindClient {
 
             JSONArray scripts = obj.getJSONArray("card_scripts");
             addedScripts = new ArrayList<>();
+            changedCards = new ArrayList<>();
             if(scripts != null){
                 for (int i = 0; i < scripts.length(); i++) {
                     JSONObject script = scripts.getJSONObject(i);
                     String name = script.getString("name");
+                    changedCards.add(name);
 
                     saveScriptFile(name, "txt", script.getString("config"));
                     String groovyScript = script.getString("script");
@@ -114,6 +117,11 @@ public class FiremindClient {
         }
     }
 
+    /** Returns the names of the cards whose scripts were replaced by the last job. */
+    public static List<String> getChangedCards() {
+        return changedCards;
+    }
+
     public static void resetChangedScripts(){
         File scriptsDirectory = MagicFileSystem.getDataPath(DataPath.SCRIPTS_ORIG).toFile();
         MagicFileSystem.getDataPath(DataPath.SCRIPTS_ORIG).toFile().mkdirs();
@@ -301,6 +309,11 @@ public class FiremindClient {
         }
     }
     public static void setHostByEnvironment(){
+        // a local server can stand in for firemind, for instance when testing workers
+        if (System.getProperty("firemind.host") != null) {
+            FiremindClient.setFiremindHost(System.getProperty("firemind.host"));
+            return;
+        }
         String env;
         try {
             if (java.net.InetAddress.getLocalHost().getHostName().equals("mike-AndroidDev")) {
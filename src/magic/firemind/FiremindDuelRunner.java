@@ -10,6 +10,7 @@ import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.util.Date;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -30,62 +31,52 @@ import magic.utility.DeckUtils;
 import magic.utility.MagicSystem;
 
 public class FiremindDuelRunner {
-    private static int games;
-    private static int str1 = 2;
-    private static int str2 = 2;
-    private static int life = 20;
-    private static int seed;
-    private static String deck1 = "";
-    private static String deck2 = "";
-    private static MagicAIImpl ai1 = MagicAIImpl.MCTS;
-    private static MagicAIImpl ai2 = MagicAIImpl.MCTS;
-    private static Duel currentDuel;
+
+    // exit status of a resident runner that stopped after a fatal error
+    private static final int EXIT_FATAL = 3;
+
+    private final Duel currentDuel;
+    private final int games;
+    private final int str1;
+    private final int str2;
+    private final int life;
+    private int seed;
+    private String deck1 = "";
+    private String deck2 = "";
+    private MagicAIImpl ai1 = MagicAIImpl.MCTS;
+    private MagicAIImpl ai2 = MagicAIImpl.MCTS;
+
+    private FiremindDuelRunner(final Duel duel) {
+        currentDuel = duel;
+        games = duel.games_to_play;
+        seed = duel.seed;
+        life = duel.life;
+        str1 = duel.strAi1;
+        str2 = duel.strAi2;
+    }
 
     public static void main(String[] args) {
+        boolean resident = false;
+        boolean selfTerminate = false;
+        for (final String arg : args) {
+            if ("--resident".equals(arg)) {
+                resident = true;
+            } else if ("--self-terminate".equals(arg)) {
+                selfTerminate = true;
+            }
+        }
         FiremindClient.setHostByEnvironment();
+        if (resident) {
+            runJobs(selfTerminate);
+        }
         Duel duel = FiremindClient.popDeckJob();
         if (duel == null) {
             System.exit(1);
         }
         try {
-            final FiremindGameReport reporter = new FiremindGameReport(duel.id);
-            Thread.setDefaultUncaughtExceptionHandler(reporter);
-            System.out.println(duel.games_to_play + " Games to run");
-            File theDir = new File("duels/" + duel.id);
-            theDir.mkdir();
-
-            deck1 = saveDeckFile("firemind-duel-" + duel.id + "deck1",
-                    duel.deck1_text);
-            deck2 = saveDeckFile("firemind-duel-" + duel.id + "deck2",
-                    duel.deck2_text);
-            loadCardsInDeck(duel.deck1_text);
-            loadCardsInDeck(duel.deck2_text);
-
-            currentDuel = duel;
-            games = duel.games_to_play;
-            seed = duel.seed;
-            life = duel.life;
-            str1 = duel.strAi1;
-            str2 = duel.strAi2;
-            try {
-                ai1 = MagicAIImpl.valueOf(duel.ai1);
-            } catch (final IllegalArgumentException ex) {
-                System.err.println("Error: " + duel.ai1 + " is not valid AI");
-            }
-            try {
-                ai2 = MagicAIImpl.valueOf(duel.ai2);
-            } catch (final IllegalArgumentException ex) {
-                System.err.println("Error: " + duel.ai2 + " is not valid AI");
-            }
-            Thread.currentThread().setPriority(Thread.MIN_PRIORITY);
-            runDuel();
-            FiremindClient.postSuccess(duel.id);
-
+            new FiremindDuelRunner(duel).runJob();
         } catch (Exception e) {
-            StringWriter sw = new StringWriter();
-            PrintWriter pw = new PrintWriter(sw);
-            e.printStackTrace(pw);
-            FiremindClient.postFailure(duel.id, sw.toString());
+            postFailure(duel, e);
             e.printStackTrace();
             System.exit(2);
         }
@@ -93,7 +84,91 @@ public class FiremindDuelRunner {
         System.exit(0);
     }
 
-    private static MagicDuel setupDuel() {
+    /**
+     * Runs duel jobs one after another in this JVM, so start-up, card loading
+     * and warm-up are only paid once. A job that fails is reported and the
+     * next one is run. After an Error, such as running out of memory, the
+     * state of the JVM cannot be trusted and the runner exits so that
+     * FiremindQueueWorker starts a new one.
+     */
+    private static void runJobs(final boolean selfTerminate) {
+        while (true) {
+            final Duel duel = FiremindClient.popDeckJob();
+            if (duel == null) {
+                if (selfTerminate) {
+                    System.exit(1);
+                }
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    System.out.println("Woken");
+                }
+                continue;
+            }
+            // cards whose scripts are replaced by the job are parsed again
+            // when first used, both during and after the job
+            final List<String> changedCards = FiremindClient.getChangedCards();
+            unloadCards(changedCards);
+            try {
+                new FiremindDuelRunner(duel).runJob();
+            } catch (Exception e) {
+                postFailure(duel, e);
+                e.printStackTrace();
+            } catch (Error e) {
+                postFailure(duel, e);
+                e.printStackTrace();
+                System.exit(EXIT_FATAL);
+            } finally {
+                FiremindClient.resetChangedScripts();
+                unloadCards(changedCards);
+            }
+        }
+    }
+
+    private static void unloadCards(final List<String> cardNames) {
+        for (final String cardName : cardNames) {
+            CardDefinitions.unloadCardDefinition(cardName);
+        }
+    }
+
+    private static void postFailure(final Duel duel, final Throwable ex) {
+        StringWriter sw = new StringWriter();
+        PrintWriter pw = new PrintWriter(sw);
+        ex.printStackTrace(pw);
+        FiremindClient.postFailure(duel.id, sw.toString());
+    }
+
+    private void runJob() {
+        final Duel duel = currentDuel;
+        final FiremindGameReport reporter = new FiremindGameReport(duel.id);
+        Thread.setDefaultUncaughtExceptionHandler(reporter);
+        System.out.println(duel.games_to_play + " Games to run");
+        File theDir = new File("duels/" + duel.id);
+        theDir.mkdir();
+
+        deck1 = saveDeckFile("firemind-duel-" + duel.id + "deck1",
+                duel.deck1_text);
+        deck2 = saveDeckFile("firemind-duel-" + duel.id + "deck2",
+                duel.deck2_text);
+        loadCardsInDeck(duel.deck1_text);
+        loadCardsInDeck(duel.deck2_text);
+
+        try {
+            ai1 = MagicAIImpl.valueOf(duel.ai1);
+        } catch (final IllegalArgumentException ex) {
+            System.err.println("Error: " + duel.ai1 + " is not valid AI");
+        }
+        try {
+            ai2 = MagicAIImpl.valueOf(duel.ai2);
+        } catch (final IllegalArgumentException ex) {
+            System.err.println("Error: " + duel.ai2 + " is not valid AI");
+        }
+        Thread.currentThread().setPriority(Thread.MIN_PRIORITY);
+        runDuel();
+        FiremindClient.postSuccess(duel.id);
+    }
+
+    private MagicDuel setupDuel() {
         // Set the random seed
         if (seed != 0) {
             MagicRandom.setRNGState(seed);
@@ -158,7 +233,7 @@ public class FiremindDuelRunner {
         }
     }
 
-    private static void runDuel() {
+    private void runDuel() {
         int played = 0;
         int wins = 0;
         MagicGameLog.initialize();
@@ -0,0 +1,79 @@
+package magic.headless;
+
+import java.util.Arrays;
+
+/**
+ * Elo ratings of the players of a league from the results of their games.
+ * <p>
+ * Ratings are the maximum likelihood estimate of the Bradley-Terry model, the
+ * static ratings computed by bayeselo or by WHR without time dependence. Each
+ * player has one virtual draw against a player rated 0, which keeps the rating
+ * of a player that won or lost all of its games finite. The estimate is
+ * updated after each game by a few minorization-maximization iterations that
+ * start from the previous ratings, as one game changes them little.
+ */
+public class EloRatings {
+
+    private static final int ITERATIONS_PER_GAME = 20;
+    private static final double PRIOR_GAMES = 1.0;
+
+    private final int[][] wins;
+    private final double[] gamma;
+
+    public EloRatings(final int players) {
+        wins = new int[players][players];
+        gamma = new double[players];
+        Arrays.fill(gamma, 1.0);
+    }
+
+    public synchronized void addGame(final int winner, final int loser) {
+        wins[winner][loser]++;
+        for (int i = 0; i < ITERATIONS_PER_GAME; i++) {
+            iterate();
+        }
+    }
+
+    private void iterate() {
+        for (int i = 0; i < gamma.length; i++) {
+            double won = PRIOR_GAMES / 2;
+            double sum = PRIOR_GAMES / (gamma[i] + 1.0);
+            for (int j = 0; j < gamma.length; j++) {
+                final int games = wins[i][j] + wins[j][i];
+                if (j != i && games > 0) {
+                    won += wins[i][j];
+                    sum += games / (gamma[i] + gamma[j]);
+                }
+            }
+            gamma[i] = won / sum;
+        }
+    }
+
+    /** Returns the rating of player relative to the average rating of all players. */
+    public synchronized double getElo(final int player) {
+        double mean = 0;
+        for (final double g : gamma) {
+            mean += toElo(g);
+        }
+        return toElo(gamma[player]) - mean / gamma.length;
+    }
+
+    public synchronized int getGames(final int player) {
+        int games = 0;
+        for (int j = 0; j < gamma.length; j++) {
+            games += wins[player][j] + wins[j][player];
+        }
+        return games;
+    }
+
+    public synchronized int getWins(final int player) {
+        int won = 0;
+        for (final int w : wins[player]) {
+            won += w;
+        }
+        return won;
+    }
+
+    private static double toElo(final double g) {
+        return 400 * Math.log10(g);
+    }
+}
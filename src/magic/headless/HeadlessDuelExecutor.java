@@ -0,0 +1,140 @@
+package magic.headless;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import magic.ai.MagicAI;
+import magic.model.MagicDuel;
+import magic.model.MagicGame;
+import magic.model.MagicRandom;
+
+/**
+ * Plays independent duels at the same time in one JVM.
+ * <p>
+ * Each duel is played from start to end by one thread, so its games follow
+ * each other as with a single runner. Duels are taken in turn from a list or
+ * a supplier and the n-th duel taken gets stream n of a seed drawn on the
+ * calling thread. Before a duel starts the random generator of its thread is
+ * set to that stream, so decks and hands do not depend on which thread plays
+ * it. Every
+ * game has its own AIs, see HeadlessGameController, and the AI worker pool is
+ * divided between the duels while they run.
+ */
+public class HeadlessDuelExecutor {
+
+    public interface Listener {
+        /** Called after each finished game, possibly by several threads at the same time. */
+        void gameFinished(MagicDuel duel, MagicGame game);
+    }
+
+    private final int threads;
+    private final long maxDuration;
+    private final Listener listener;
+    private final Function<MagicDuel, MagicGame> nextGame;
+
+    public HeadlessDuelExecutor(final int aThreads, final long aMaxDuration, final Listener aListener) {
+        this(aThreads, aMaxDuration, aListener, MagicDuel::nextGame);
+    }
+
+    /**
+     * Uses aNextGame instead of MagicDuel.nextGame to start the games of a duel,
+     * it is called by the thread that plays the duel.
+     */
+    public HeadlessDuelExecutor(final int aThreads, final long aMaxDuration, final Listener aListener, final Function<MagicDuel, MagicGame> aNextGame) {
+        threads = Math.max(1, aThreads);
+        maxDuration = aMaxDuration;
+        listener = aListener;
+        nextGame = aNextGame;
+    }
+
+    /** Plays all games of duels and returns once every duel has finished. */
+    public void run(final List<MagicDuel> duels) {
+        final Iterator<MagicDuel> iterator = duels.iterator();
+        run(() -> iterator.hasNext() ? iterator.next() : null, Math.min(threads, duels.size()));
+    }
+
+    /**
+     * Plays the duels returned by duels until it returns null, and returns once
+     * every duel has finished. Calls to duels are serialized, so it may decide
+     * on the next duel from the games that finished so far.
+     */
+    public void run(final Supplier<MagicDuel> duels) {
+        run(duels, threads);
+    }
+
+    private void run(final Supplier<MagicDuel> duels, final int parallel) {
+        if (parallel <= 0) {
+            return;
+        }
+        final int maxThreads = MagicAI.getMaxThreads();
+        final int concurrentGames = MagicAI.getConcurrentGames();
+        // duel n is played with stream n of seed, whichever thread plays it
+        final long seed = MagicRandom.nextRNGLong();
+        final AtomicLong started = new AtomicLong();
+        final AtomicInteger count = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(parallel, runnable -> {
+            final Thread thread = new Thread(runnable, "magic-duel-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        MagicAI.setMaxThreads(Math.max(1, maxThreads / parallel));
+        MagicAI.setConcurrentGames(parallel);
+        try {
+            final List<Future<?>> results = new ArrayList<>(parallel);
+            for (int i = 0; i < parallel; i++) {
+                results.add(executor.submit(() -> {
+                    while (true) {
+                        final MagicDuel duel;
+                        final long stream;
+                        synchronized (started) {
+                            duel = duels.get();
+                            if (duel == null) {
+                                return;
+                            }
+                            stream = started.getAndIncrement();
+                        }
+                        MagicRandom.setRNGStream(seed, stream);
+                        play(duel);
+                    }
+                }));
+            }
+            for (final Future<?> result : results) {
+                result.get();
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        } catch (final ExecutionException ex) {
+            throw new RuntimeException(ex.getCause());
+        } finally {
+            executor.shutdownNow();
+            MagicAI.setMaxThreads(maxThreads);
+            MagicAI.setConcurrentGames(concurrentGames);
+        }
+    }
+
+    private void play(final MagicDuel duel) {
+        while (duel.getGamesPlayed() < duel.getGamesTotal()) {
+            final int played = duel.getGamesPlayed();
+            final MagicGame game = nextGame.apply(duel);
+            game.setArtificial(true);
+
+            final HeadlessGameController controller = new HeadlessGameController(game, maxDuration);
+            controller.runGame();
+
+            // games that run out of time are not counted and played again
+            if (duel.getGamesPlayed() > played) {
+                listener.gameFinished(duel, game);
+            }
+        }
+    }
+}
@@ -10,12 +10,15 @@ public class HeadlessGameController implements IGameController {
 
     private final long maxDuration;
     private final MagicGame game;
-    private boolean running;
+    // each game has its own AIs, so games played at the same time share no AI state
+    private final MagicAI[] ais;
+    private volatile boolean running;
 
     /** Fully artificial test game. */
     public HeadlessGameController(final MagicGame aGame, final long duration) {
         game = aGame;
         maxDuration = duration;
+        ais = new MagicAI[game.getPlayers().length];
     }
 
     @Override
@@ -46,7 +49,10 @@ public class HeadlessGameController implements IGameController {
     private Object[] getAIChoiceResults(final MagicEvent event) {
         //dynamically get the AI based on the player's index
         final MagicPlayer player = event.getPlayer();
-        final MagicAI ai = player.getAiProfile().getAiType().getAI();
-        return ai.findNextEventChoiceResults(game, player);
+        final int index = player.getIndex();
+        if (ais[index] == null) {
+            ais[index] = player.getAiProfile().getAiType().newAI();
+        }
+        return ais[index].findNextEventChoiceResults(game, player);
     }
 }
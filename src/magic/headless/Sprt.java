@@ -0,0 +1,61 @@
+package magic.headless;
+
+/**
+ * Sequential probability ratio test between two players, of the hypothesis
+ * that the first is elo1 Elo stronger than the second against the hypothesis
+ * that it is elo0 Elo stronger, from the outcomes of their games.
+ * <p>
+ * After each game the log likelihood ratio of the outcome under the two
+ * hypotheses is added up. The test is decisive once the sum leaves the bounds
+ * given by the error rates, which for players that differ clearly takes far
+ * fewer games than a fixed number of games with the same error rates.
+ */
+public class Sprt {
+
+    public enum Result {
+        /** Accept that the first player is elo0 stronger. */
+        H0,
+        /** Accept that the first player is elo1 stronger. */
+        H1,
+        /** Not decided yet. */
+        NONE
+    }
+
+    private final double winLLR;
+    private final double loseLLR;
+    private final double lower;
+    private final double upper;
+    private double llr;
+
+    public Sprt(final double elo0, final double elo1, final double alpha, final double beta) {
+        final double p0 = getScore(elo0);
+        final double p1 = getScore(elo1);
+        winLLR = Math.log(p1 / p0);
+        loseLLR = Math.log((1 - p1) / (1 - p0));
+        lower = Math.log(beta / (1 - alpha));
+        upper = Math.log((1 - beta) / alpha);
+    }
+
+    // expected score of a player that is elo stronger than its opponent
+    private static double getScore(final double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    public void addGame(final boolean firstWon) {
+        llr += firstWon ? winLLR : loseLLR;
+    }
+
+    public double getLLR() {
+        return llr;
+    }
+
+    public Result getResult() {
+        if (llr >= upper) {
+            return Result.H1;
+        } else if (llr <= lower) {
+            return Result.H0;
+        } else {
+            return Result.NONE;
+        }
+    }
+}
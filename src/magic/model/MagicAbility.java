@@ -2080,11 +2080,13 @@ public enum MagicAbility {
         return text.replaceAll("\\b(T|t)his (creature|land|artifact|enchantment|permanent)( |\\.|'s|\\b)", "SN$3");
     }
 
+    private static final MagicPatternIndex<MagicAbility> INDEX =
+        new MagicPatternIndex<>(values(), ability -> ability.pattern);
+
     public static MagicAbility getAbility(final String name) {
-        for (final MagicAbility ability : values()) {
-            if (ability.matches(name)) {
-                return ability;
-            }
+        final MagicAbility ability = INDEX.find(name);
+        if (ability != null) {
+            return ability;
         }
         throw new ScriptParseException("unknown ability \"" + name + "\"");
     }
@@ -83,7 +83,8 @@ public class MagicCard
     private final MagicCardDefinition cardDefinition;
     private final MagicPlayer owner;
     private final long id;
-    private final Map<MagicCounterType, Integer> counters;
+    // never changed in place, so copies of the game can share it
+    private Map<MagicCounterType, Integer> counters;
     private final boolean token;
     private boolean aiKnown = true;
     private boolean gameKnown = false;
@@ -118,7 +119,7 @@ public class MagicCard
         copyMap.put(sourceCard, this);
 
         cardDefinition = sourceCard.cardDefinition;
-        counters = new EnumMap<>(sourceCard.counters);
+        counters = sourceCard.counters;
         owner = copyMap.copy(sourceCard.owner);
         id = sourceCard.id;
         token = sourceCard.token;
@@ -244,6 +245,7 @@ public class MagicCard
     }
 
     public void setGameKnown(final boolean bool) {
+        getOwner().stateChanged();
         gameKnown = bool;
     }
 
@@ -252,6 +254,7 @@ public class MagicCard
     }
 
     public void setAIKnown(final boolean bool) {
+        getOwner().stateChanged();
         aiKnown = bool;
     }
 
@@ -507,13 +510,17 @@ public class MagicCard
 
     @Override
     public void changeCounters(final MagicCounterType counterType,final int amount) {
+        getOwner().stateChanged();
         final int oldAmt = getCounters(counterType);
         final int newAmt = oldAmt + amount;
+        final Map<MagicCounterType, Integer> newCounters = new EnumMap<>(MagicCounterType.class);
+        newCounters.putAll(counters);
         if (newAmt == 0) {
-            counters.remove(counterType);
+            newCounters.remove(counterType);
         } else {
-            counters.put(counterType, newAmt);
+            newCounters.put(counterType, newAmt);
         }
+        counters = newCounters;
     }
 
     public Collection<MagicCounterType> getCounterTypes() {
@@ -247,42 +247,48 @@ public class MagicCardDefinition implements MagicAbilityStore, IRenderableCard {
     }
 
     public synchronized void loadAbilities() {
-        if (isPlayable() && (hasCost() || isLand()) && handActivations.isEmpty()) {
-            add(new MagicHandCastActivation(this));
-            if (isLegendary() && isSorcery()) {
-                add(MagicAdditionalCost.create(MagicCondition.LEGENDARY_SORCERY));
+        // cards looked up by the abilities are recorded as used by this card
+        final String previous = CardDefinitions.setLoadingCard(getName());
+        try {
+            if (isPlayable() && (hasCost() || isLand()) && handActivations.isEmpty()) {
+                add(new MagicHandCastActivation(this));
+                if (isLegendary() && isSorcery()) {
+                    add(MagicAdditionalCost.create(MagicCondition.LEGENDARY_SORCERY));
+                }
             }
-        }
-        if (startingLoyalty > 0 && etbTriggers.isEmpty()) {
-            add(new EntersWithCounterTrigger(
-                MagicCounterType.Loyalty,
-                startingLoyalty
-            ));
-        }
-        if (isSaga() && etbTriggers.isEmpty()) {
-            add(new EntersWithCounterTrigger(MagicCounterType.Lore, 1));
-            add(AtBeginOfFirstMainPhaseTrigger.Saga);
-        }
-        if (requiresGroovy != null) {
-            CardProperty.LOAD_GROOVY_CODE.setProperty(this, requiresGroovy);
-            requiresGroovy = null;
-        }
-        if (abilityProperty != null) {
-            CardProperty.LOAD_ABILITY.setProperty(this, abilityProperty);
-            abilityProperty = null;
-        }
-        if (effectProperty != null) {
-            CardProperty.LOAD_EFFECT.setProperty(this, effectProperty);
-            effectProperty = null;
-        }
-        if (getFlippedDefinition().isHidden()) {
-            flipCardDefinition.loadAbilities();
-        }
-        if (getTransformedDefinition().isHidden()) {
-            transformCardDefinition.loadAbilities();
-        }
-        if (getSplitDefinition().isSecondHalf()) {
-            splitCardDefinition.loadAbilities();
+            if (startingLoyalty > 0 && etbTriggers.isEmpty()) {
+                add(new EntersWithCounterTrigger(
+                    MagicCounterType.Loyalty,
+                    startingLoyalty
+                ));
+            }
+            if (isSaga() && etbTriggers.isEmpty()) {
+                add(new EntersWithCounterTrigger(MagicCounterType.Lore, 1));
+                add(AtBeginOfFirstMainPhaseTrigger.Saga);
+            }
+            if (requiresGroovy != null) {
+                CardProperty.LOAD_GROOVY_CODE.setProperty(this, requiresGroovy);
+                requiresGroovy = null;
+            }
+            if (abilityProperty != null) {
+                CardProperty.LOAD_ABILITY.setProperty(this, abilityProperty);
+                abilityProperty = null;
+            }
+            if (effectProperty != null) {
+                CardProperty.LOAD_EFFECT.setProperty(this, effectProperty);
+                effectProperty = null;
+            }
+            if (getFlippedDefinition().isHidden()) {
+                flipCardDefinition.loadAbilities();
+            }
+            if (getTransformedDefinition().isHidden()) {
+                transformCardDefinition.loadAbilities();
+            }
+            if (getSplitDefinition().isSecondHalf()) {
+                splitCardDefinition.loadAbilities();
+            }
+        } finally {
+            CardDefinitions.setLoadingCard(previous);
         }
     }
 
@@ -888,6 +894,10 @@ public class MagicCardDefinition implements MagicAbilityStore, IRenderableCard {
         CDAs.add(cda);
     }
 
+    public boolean hasCDA() {
+        return !CDAs.isEmpty();
+    }
+
     public void addCostEvent(final MagicEventSource eventSource) {
         costEventSources.add(eventSource);
     }
@@ -16,6 +16,7 @@ public class MagicCardList extends ArrayList<MagicCard> implements MagicCopyable
     }
 
     MagicCardList(final MagicCopyMap copyMap, final List<MagicCard> cardList) {
+        super(cardList.size());
         for (final MagicCard card : cardList) {
             add(copyMap.copy(card));
         }
@@ -2,10 +2,14 @@ package magic.model;
 
 import java.lang.reflect.Array;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.IdentityHashMap;
 
+/**
+ * Maps objects of the source game to their copies. Lookups are by identity, this
+ * avoids the content based hashCode and equals of the copied lists.
+ */
 @SuppressWarnings("serial")
-public class MagicCopyMap extends HashMap<MagicCopyable,MagicCopyable> {
+public class MagicCopyMap extends IdentityHashMap<MagicCopyable,MagicCopyable> {
 
     @SuppressWarnings("unchecked")
     public <E extends MagicCopyable> E copy(final E source) {
@@ -48,11 +48,17 @@ public enum MagicCostManaType {
     private final String name;
     private final String text;
     private final List<MagicManaType> types;
+    private final int mask;
 
     private MagicCostManaType(final String name,final String text,final List<MagicManaType> types) {
         this.name=name;
         this.text=text;
         this.types=types;
+        int typesMask = 0;
+        for (final MagicManaType type : types) {
+            typesMask |= 1 << type.ordinal();
+        }
+        this.mask=typesMask;
     }
 
     public MagicCostManaType next() {
@@ -77,6 +83,11 @@ public enum MagicCostManaType {
         }
     }
 
+    /** Returns the mana types that can pay for this cost as a mask of their ordinals. */
+    public int getManaTypeMask() {
+        return mask;
+    }
+
     public String getName() {
         return name;
     }
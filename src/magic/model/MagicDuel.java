@@ -29,8 +29,9 @@ public class MagicDuel {
     private final int playerIndex = 0;
     private final int opponentIndex = 1;
     private int gameNr;
-    private int gamesPlayed;
-    private int gamesWon;
+    // only changed by the thread playing the duel, but read by others
+    private volatile int gamesPlayed;
+    private volatile int gamesWon;
     private int startPlayer;
 
     public MagicDuel(final DuelConfig configuration) {
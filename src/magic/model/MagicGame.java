@@ -8,6 +8,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import magic.data.GeneralConfig;
 import magic.data.settings.BooleanSetting;
@@ -20,7 +21,7 @@ import magic.model.action.ExecuteFirstEventAction;
 import magic.model.action.LogMarkerAction;
 import magic.model.action.MagicAction;
 import magic.model.action.MagicActionList;
-import magic.model.action.MarkerAction;
+import magic.model.action.MarkerFrame;
 import magic.model.action.PutItemOnStackAction;
 import magic.model.action.RemoveFromPlayAction;
 import magic.model.choice.MagicCombatCreature;
@@ -51,6 +52,7 @@ import magic.model.trigger.AtUpkeepTrigger;
 import magic.model.trigger.DamageIsDealtTrigger;
 import magic.model.trigger.MagicPermanentTrigger;
 import magic.model.trigger.MagicPermanentTriggerMap;
+import magic.model.trigger.MagicPermanentTriggerRegistry;
 import magic.model.trigger.MagicTrigger;
 import magic.model.trigger.MagicTriggerType;
 import magic.model.trigger.OtherEntersBattlefieldTrigger;
@@ -62,12 +64,38 @@ public class MagicGame {
     public static final boolean LOSE_DRAW_EMPTY_LIBRARY=true;
     private static final long ID_FACTOR=31;
 
-    private static int COUNT;
-    private static MagicGame INSTANCE;
+    // slots of the Zobrist style state hash, see getStateId
+    private static final int ID_TURN=0;
+    private static final int ID_PHASE=1;
+    private static final int ID_STEP=2;
+    private static final int ID_TURN_PLAYER=3;
+    private static final int ID_LANDS_PLAYED=4;
+    private static final int ID_MAX_LANDS=5;
+    private static final int ID_PRIORITY_PASSED_COUNT=6;
+    private static final int ID_CREATURE_DIED=7;
+    private static final int ID_PRIORITY_PASSED=8;
+    private static final int ID_STATE_CHECK=9;
+    private static final int ID_NR_SCALARS=10;
+    private static final int ID_NR_ZONES=10;
+    private static final int ID_NR_KEYS=ID_NR_SCALARS+ID_NR_ZONES;
+    private static final long[] ZOBRIST=new long[ID_NR_KEYS];
+
+    static {
+        final MagicRandom rng = new MagicRandom(0x5DEECE66DL);
+        for (int i = 0; i < ZOBRIST.length; i++) {
+            ZOBRIST[i] = rng.nextLong();
+        }
+    }
+
+    private static final AtomicInteger COUNT = new AtomicInteger();
+    // the last game created by any thread and by the current thread, headless
+    // runs may play several games at the same time on different threads
+    private static volatile MagicGame INSTANCE;
+    private static final ThreadLocal<MagicGame> CURRENT = new ThreadLocal<>();
 
     private final MagicDuel duel;
     private final MagicPlayer[] players;
-    private MagicPermanentTriggerMap triggers;
+    private final MagicPermanentTriggerRegistry triggers;
     private final MagicPermanentTriggerMap additionalTriggers;
     private final MagicPermanentStaticMap statics;
     private final MagicCardList exiledUntilEndOfTurn;
@@ -97,12 +125,25 @@ public class MagicGame {
     private MagicPhase phase;
     private MagicStep step;
     private MagicPayedCost payedCost;
-    private MagicActionList undoPoints;
+    private MarkerFrame[] frames;
+    private int nrOfFrames;
+    private int undoPoints;
     private MagicLogBook logBook;
     private MagicLogMessageBuilder logMessageBuilder;
     private MagicSource activeSource = MagicSource.NONE;
-    private long[] keys;
+    private final long[] keys = new long[ID_NR_KEYS];
+    private long scalarId;
+    private long zoneId;
     private long stateId;
+    private boolean stateIdValid;
+    private long changes;
+    private long updatedChanges = -1;
+    private long permanentChanges;
+    private long permanentStateChanges;
+    private final MagicLegalTargets legalTargets = new MagicLegalTargets();
+    // number of actions being done, legal targets are not cached meanwhile
+    private int nrExecutingActions;
+    private final MagicRandom rng;
     private long time = 1000000;
     private boolean isConceded = false;
 
@@ -117,18 +158,22 @@ public class MagicGame {
 
     private final long startTimeMilli = Instant.now().toEpochMilli();
 
+    /** Returns the last game created by the current thread, or by any thread if it created none. */
     public static MagicGame getInstance() {
-        return INSTANCE;
+        final MagicGame game = CURRENT.get();
+        return game != null ? game : INSTANCE;
     }
 
     static int getCount() {
-        return COUNT;
+        return COUNT.get();
     }
 
     static MagicGame create(final MagicDuel duel, final MagicGameplay gameplay, final MagicPlayer[] players, final MagicPlayer startPlayer) {
-        COUNT++;
-        INSTANCE = new MagicGame(duel, gameplay, players, startPlayer);
-        return INSTANCE;
+        COUNT.incrementAndGet();
+        final MagicGame game = new MagicGame(duel, gameplay, players, startPlayer);
+        CURRENT.set(game);
+        INSTANCE = game;
+        return game;
     }
 
     private MagicGame(final MagicDuel aDuel, final MagicGameplay aGameplay, final MagicPlayer[] aPlayers, final MagicPlayer startPlayer) {
@@ -141,8 +186,22 @@ public class MagicGame {
             player.setGame(this);
         }
 
-        triggers=new MagicPermanentTriggerMap();
+        triggers=new MagicPermanentTriggerRegistry();
         additionalTriggers=new MagicPermanentTriggerMap();
+
+        // add Soulbond trigger
+        triggers.add(new MagicPermanentTrigger(0, MagicPermanent.NONE, OtherEntersBattlefieldTrigger.Soulbond));
+
+        // add Monarch triggers
+        triggers.add(new MagicPermanentTrigger(1, MagicPermanent.NONE, AtEndOfTurnTrigger.Monarch));
+        triggers.add(new MagicPermanentTrigger(2, MagicPermanent.NONE, DamageIsDealtTrigger.Monarch));
+
+        // add Suspend trigger
+        triggers.add(new MagicPermanentTrigger(3, MagicPermanent.NONE, AtUpkeepTrigger.Suspend));
+
+        // prevent damage replacement
+        triggers.add(new MagicPermanentTrigger(4, MagicPermanent.NONE, PreventDamageTrigger.ProtectionShield));
+        triggers.add(new MagicPermanentTrigger(Long.MAX_VALUE, MagicPermanent.NONE, PreventDamageTrigger.PreventDamageShield));
         statics = new MagicPermanentStaticMap();
         exiledUntilEndOfTurn=new MagicCardList();
         events=new MagicEventQueue();
@@ -152,11 +211,13 @@ public class MagicGame {
         turnPlayer=startPlayer;
         actions=new MagicActionList();
         delayedActions=new MagicActionList();
-        undoPoints=new MagicActionList();
+        frames=new MarkerFrame[8];
         logBook=new MagicLogBook();
         logMessageBuilder=new MagicLogMessageBuilder(this);
         payedCost=new MagicPayedCost();
+        rng=new MagicRandom(MagicRandom.nextRNGLong());
         changePhase(gameplay.getStartPhase(this));
+        initStateId();
     }
 
     public MagicGame(final MagicGame game,final MagicPlayer aScorePlayer) {
@@ -180,6 +241,9 @@ public class MagicGame {
         priorityPassedCount = game.priorityPassedCount;
         stateCheckRequired = game.stateCheckRequired;
 
+        //the copy continues the random stream of game until it is split
+        rng = new MagicRandom(game.rng.getState());
+
         //copied and stored in copyMap
         final MagicCopyMap copyMap=new MagicCopyMap();
         players=copyMap.copyObjects(game.players,MagicPlayer.class);
@@ -196,7 +260,7 @@ public class MagicGame {
         events=new MagicEventQueue(copyMap, game.events);
         stack=new MagicStack(copyMap, game.stack);
         pendingStack=new MagicStack(copyMap, game.pendingStack);
-        triggers=new MagicPermanentTriggerMap(copyMap, game.triggers);
+        triggers=new MagicPermanentTriggerRegistry(copyMap, game.triggers);
         additionalTriggers=new MagicPermanentTriggerMap(copyMap, game.additionalTriggers);
         statics=new MagicPermanentStaticMap(copyMap, game.statics);
         exiledUntilEndOfTurn=new MagicCardList(copyMap, game.exiledUntilEndOfTurn);
@@ -224,9 +288,11 @@ public class MagicGame {
 
         //no logging
         disableLog = true;
-        undoPoints=null;
+        frames=new MarkerFrame[8];
         logBook=null;
         logMessageBuilder=null;
+
+        initStateId();
     }
 
     public void skipTurnTill(final MagicPhaseType skip) {
@@ -258,9 +324,22 @@ public class MagicGame {
         return time;
     }
 
-    //follow factors in MagicMarkerAction
-    public long getStateId() {
-        keys = new long[] {
+    private static long zobrist(final int slot, final long key) {
+        return MurmurHash3.fmix(key ^ ZOBRIST[slot]);
+    }
+
+    /**
+     * Replaces the key of a scalar slot, XORing the old key out of and the new
+     * key into the state id so that it never has to be recomputed from scratch.
+     */
+    private void updateScalarId(final int slot, final long key) {
+        scalarId ^= zobrist(slot, keys[slot]) ^ zobrist(slot, key);
+        keys[slot] = key;
+        invalidateStateId();
+    }
+
+    private long[] getScalarKeys() {
+        return new long[] {
             turn,
             phase.hashCode(),
             step.hashCode(),
@@ -271,21 +350,110 @@ public class MagicGame {
             creatureDiedThisTurn ? 1L : -1L,
             priorityPassed       ? 1L : -1L,
             stateCheckRequired   ? 1L : -1L,
-            payedCost.getStateId(),
-            stack.getStateId(),
-            pendingStack.getStateId(),
-            events.getStateId(),
-            players[0].getStateId(),
-            players[1].getStateId(),
-            activeSource.getStateId(),
-            triggers.getStateId(),
-            statics.getStateId(),
-            exiledUntilEndOfTurn.getStateId(),
         };
-        stateId = MurmurHash3.hash(keys);
+    }
+
+    private void initStateId() {
+        final long[] scalarKeys = getScalarKeys();
+        scalarId = 0;
+        for (int i = 0; i < ID_NR_SCALARS; i++) {
+            keys[i] = scalarKeys[i];
+            scalarId ^= zobrist(i, scalarKeys[i]);
+        }
+        // the zone keys start at 0 and are replaced by the first getStateId
+        zoneId = 0;
+        for (int i = ID_NR_SCALARS; i < ID_NR_KEYS; i++) {
+            keys[i] = 0;
+            zoneId ^= zobrist(i, 0);
+        }
+        stateIdValid = false;
+    }
+
+    // key of the zone in the slot ID_NR_SCALARS + zone
+    private long getZoneKey(final int zone) {
+        switch (zone) {
+            case 0: return payedCost.getStateId();
+            case 1: return stack.getStateId();
+            case 2: return pendingStack.getStateId();
+            case 3: return events.getStateId();
+            case 4: return players[0].getStateId();
+            case 5: return players[1].getStateId();
+            case 6: return activeSource.getStateId();
+            case 7: return triggers.getStateId();
+            case 8: return statics.getStateId();
+            case 9: return exiledUntilEndOfTurn.getStateId();
+            default: throw new IllegalArgumentException("zone " + zone);
+        }
+    }
+
+    /** Invalidates the cached state id, called whenever an action changes the game. */
+    public void invalidateStateId() {
+        stateIdValid = false;
+        changes++;
+    }
+
+    /**
+     * Invalidates the permanent indexes of the players, called whenever a
+     * permanent enters or leaves a battlefield or changes its types or colors.
+     */
+    void invalidatePermanentIndex() {
+        permanentChanges++;
+        permanentStateChanges++;
+    }
+
+    /** Invalidates the state counts of the permanent indexes. */
+    void invalidatePermanentStates() {
+        permanentStateChanges++;
+    }
+
+    /** Returns the number of changes to the game, which is increased by every action. */
+    long getChanges() {
+        return changes;
+    }
+
+    long getPermanentChanges() {
+        return permanentChanges;
+    }
+
+    long getPermanentStateChanges() {
+        return permanentStateChanges;
+    }
+
+    //follow factors in MagicMarkerAction
+    public long getStateId() {
+        if (stateIdValid) {
+            return stateId;
+        }
+        // actions do not tell which zones they change, so the key of each zone is
+        // taken again, the players keep the ids of their zones until they change,
+        // and only the keys that differ are XORed out of and into the state id
+        for (int zone = 0; zone < ID_NR_ZONES; zone++) {
+            final int slot = ID_NR_SCALARS + zone;
+            final long key = getZoneKey(zone);
+            if (key != keys[slot]) {
+                zoneId ^= zobrist(slot, keys[slot]) ^ zobrist(slot, key);
+                keys[slot] = key;
+            }
+        }
+        stateId = scalarId ^ zoneId;
+        stateIdValid = true;
+        assert stateId == computeStateId() : "incremental state id differs from full recomputation";
         return stateId;
     }
 
+    /** Computes the state id from scratch, used to check the incrementally maintained state id. */
+    long computeStateId() {
+        final long[] scalarKeys = getScalarKeys();
+        long id = 0;
+        for (int i = 0; i < scalarKeys.length; i++) {
+            id ^= zobrist(i, scalarKeys[i]);
+        }
+        for (int zone = 0; zone < ID_NR_ZONES; zone++) {
+            id ^= zobrist(ID_NR_SCALARS + zone, getZoneKey(zone));
+        }
+        return id;
+    }
+
     @Override
     public String toString() {
         return "GAME: " +
@@ -425,6 +593,7 @@ public class MagicGame {
 
     public void setTurn(final int aTurn) {
         turn = aTurn;
+        updateScalarId(ID_TURN, turn);
     }
 
     public int getTurn() {
@@ -454,6 +623,7 @@ public class MagicGame {
 
     public void setPhase(final MagicPhase aPhase) {
         phase = aPhase;
+        updateScalarId(ID_PHASE, phase.hashCode());
     }
 
     public void nextPhase() {
@@ -461,9 +631,9 @@ public class MagicGame {
     }
 
     private void changePhase(final MagicPhase aPhase) {
-        phase = aPhase;
-        step = MagicStep.Begin;
-        priorityPassedCount = 0;
+        setPhase(aPhase);
+        setStep(MagicStep.Begin);
+        setPriorityPassedCount(0);
         for (MagicPlayer player : players) {
             player.getActivationPriority().clear();
         }
@@ -491,6 +661,7 @@ public class MagicGame {
 
     public void setStep(final MagicStep aStep) {
         step = aStep;
+        updateScalarId(ID_STEP, step.hashCode());
     }
 
     public MagicStep getStep() {
@@ -499,18 +670,20 @@ public class MagicGame {
 
     public void resolve() {
         if (stack.isEmpty()) {
-            step=MagicStep.NextPhase;
+            setStep(MagicStep.NextPhase);
         } else {
-            step=MagicStep.Resolve;
+            setStep(MagicStep.Resolve);
         }
     }
 
     public void resetPayedCost() {
         payedCost = new MagicPayedCost();
+        invalidateStateId();
     }
 
     public void setPayedCost(final MagicPayedCost aPayedCost) {
         payedCost = aPayedCost;
+        invalidateStateId();
     }
 
     public MagicPayedCost getPayedCost() {
@@ -535,12 +708,40 @@ public class MagicGame {
         for (final MagicPlayer player : players) {
             player.getLibrary().setAIKnown(false);
         }
+        invalidateStateId();
+    }
+
+    /**
+     * Switches this game to its own random stream, derived from the current stream,
+     * the game state and the given stream number. Each AI worker splits its copy of
+     * the game so that simulations do not share a random generator and a fixed
+     * rndSeed gives the same simulations.
+     */
+    public void splitRNG(final long stream) {
+        rng.setState(MagicRandom.split(rng.getState() ^ getStateId(), stream));
+    }
+
+    public long getRNGState() {
+        return rng.getState();
+    }
+
+    public void setRNGState(final long state) {
+        rng.setState(state);
+    }
+
+    public int nextRNGInt(final int n) {
+        return rng.nextInt(n);
+    }
+
+    public int nextRNGInt() {
+        return rng.nextInt(Integer.MAX_VALUE);
     }
 
     public void showRandomizedHiddenCards() {
         getOpponent(scorePlayer).showRandomizedHandAndLibrary();
-        scorePlayer.getLibrary().shuffle(MagicRandom.nextRNGInt());
+        scorePlayer.getLibrary().shuffle(nextRNGInt());
         scorePlayer.getLibrary().setAIKnown(true);
+        invalidateStateId();
     }
 
     public Collection<MagicAction> getActions() {
@@ -560,44 +761,43 @@ public class MagicGame {
             return;
         }
         actions.add(action);
+        // actions may call update() before they complete
+        invalidateStateId();
+        nrExecutingActions++;
         try {
             action.doAction(this);
         } catch (Throwable ex) {
             throw new GameException(ex, this);
+        } finally {
+            nrExecutingActions--;
         }
+        invalidateStateId();
         //performing actions update the score
         score += action.getScore(scorePlayer);
     }
 
+    /**
+     * Recomputes the properties of permanents, players and the game from the
+     * statics and updates the trigger registry. The result only depends on the game
+     * state, so nothing is done when the game has not changed since the last
+     * update that performed no actions of its own.
+     */
     public void update() {
+        if (updatedChanges == changes) {
+            return;
+        }
         doDelayedActions();
+        final int nrActions = actions.size();
         MagicPermanent.update(this);
 
-        triggers = new MagicPermanentTriggerMap(additionalTriggers);
-
-        // add Soulbond trigger
-        triggers.add(new MagicPermanentTrigger(0, MagicPermanent.NONE, OtherEntersBattlefieldTrigger.Soulbond));
-
-        // add Monarch triggers
-        triggers.add(new MagicPermanentTrigger(1, MagicPermanent.NONE, AtEndOfTurnTrigger.Monarch));
-        triggers.add(new MagicPermanentTrigger(2, MagicPermanent.NONE, DamageIsDealtTrigger.Monarch));
-
-        // add Suspend trigger
-        triggers.add(new MagicPermanentTrigger(3, MagicPermanent.NONE, AtUpkeepTrigger.Suspend));
-
-        // prevent damage replacement
-        triggers.add(new MagicPermanentTrigger(4, MagicPermanent.NONE, PreventDamageTrigger.ProtectionShield));
-        triggers.add(new MagicPermanentTrigger(Long.MAX_VALUE, MagicPermanent.NONE, PreventDamageTrigger.PreventDamageShield));
-
-        for (final MagicPlayer player : players) {
-        for (final MagicPermanent perm : player.getPermanents()) {
-        for (final MagicTrigger<?> trigger : perm.getTriggers()) {
-            triggers.add(new MagicPermanentTrigger(getUniqueId(), perm, trigger));
-        }}}
+        triggers.update(this, additionalTriggers);
 
         MagicPlayer.update(this);
         MagicGame.update(this);
         doDelayedActions();
+        invalidateStateId();
+        // delayed actions, such as a change of control, may change the result
+        updatedChanges = actions.size() == nrActions ? changes : -1;
     }
 
     public MagicManaCost modCost(final MagicCard card, final MagicManaCost cost) {
@@ -614,7 +814,7 @@ public class MagicGame {
     public void apply(final MagicLayer layer) {
         switch (layer) {
             case Game:
-                maxLands = 1;
+                resetMaxLands();
                 break;
             default:
                 throw new RuntimeException("No case for " + layer + " in MagicGame.apply");
@@ -650,23 +850,38 @@ public class MagicGame {
         }
     }
 
+    /**
+     * Saves the current state, restore() returns to it. A snapshot records the
+     * number of actions done so far in a frame, frames are kept on a stack and
+     * reused for later snapshots.
+     */
     public void snapshot() {
-        final MagicAction markerAction=new MarkerAction();
-        doAction(markerAction);
+        if (nrOfFrames == frames.length) {
+            frames = Arrays.copyOf(frames, nrOfFrames * 2);
+        }
+        MarkerFrame frame = frames[nrOfFrames];
+        if (frame == null) {
+            frame = new MarkerFrame();
+            frames[nrOfFrames] = frame;
+        }
+        nrOfFrames++;
+        frame.save(this, actions.size());
         if (!artificial) {
             doAction(new LogMarkerAction());
-            undoPoints.addLast(markerAction);
+            undoPoints++;
         }
     }
 
     public void restore() {
         if (!artificial) {
-            undoPoints.removeLast();
+            undoPoints--;
         }
-        //undo each action up to and including the first MagicMarkerAction
-        MagicAction action;
-        do {
-            action = actions.removeLast();
+        nrOfFrames--;
+        final MarkerFrame frame = frames[nrOfFrames];
+        //undo each action done after the snapshot
+        while (actions.size() > frame.getMark()) {
+            final MagicAction action = actions.removeLast();
+            invalidateStateId();
             try {
                 action.undoAction(this);
             } catch (Throwable ex) {
@@ -674,7 +889,14 @@ public class MagicGame {
                 actions.addLast(action);
                 throw new GameException(ex, this);
             }
-        } while (!(action instanceof MarkerAction));
+            invalidateStateId();
+        }
+        try {
+            frame.restore(this);
+        } catch (Throwable ex) {
+            throw new GameException(ex, this);
+        }
+        invalidateStateId();
     }
 
     public void undoAllActions() {
@@ -682,15 +904,15 @@ public class MagicGame {
     }
 
     public int getNrOfUndoPoints() {
-        return undoPoints.size();
+        return undoPoints;
     }
 
     public boolean hasUndoPoints() {
-        return !undoPoints.isEmpty();
+        return undoPoints > 0;
     }
 
     public void clearUndoPoints() {
-        undoPoints.clear();
+        undoPoints = 0;
     }
 
     public void clearMessages() {
@@ -794,6 +1016,7 @@ public class MagicGame {
         }
 
         activeSource = event.getSource();
+        invalidateStateId();
         event.executeEvent(this,choiceResults);
         if (hasNextEvent() && getNextEvent().hasChoice()) {
             update();
@@ -901,6 +1124,7 @@ public class MagicGame {
 
     public void setTurnPlayer(final MagicPlayer aTurnPlayer) {
         turnPlayer = aTurnPlayer;
+        updateScalarId(ID_TURN_PLAYER, turnPlayer.getIndex());
     }
 
     public MagicPlayer getTurnPlayer() {
@@ -992,23 +1216,26 @@ public class MagicGame {
     }
 
     public void incLandsPlayed() {
-        landsPlayed++;
+        setLandsPlayed(landsPlayed + 1);
     }
 
     public void resetLandsPlayed() {
-        landsPlayed = 0;
+        setLandsPlayed(0);
     }
 
     public void setLandsPlayed(final int lp) {
         landsPlayed = lp;
+        updateScalarId(ID_LANDS_PLAYED, landsPlayed);
     }
 
     public void incMaxLands() {
         maxLands++;
+        updateScalarId(ID_MAX_LANDS, maxLands);
     }
 
     public void resetMaxLands() {
         maxLands = 1;
+        updateScalarId(ID_MAX_LANDS, maxLands);
     }
 
     public int getSpellsCast() {
@@ -1037,6 +1264,7 @@ public class MagicGame {
 
     public void setCreatureDiedThisTurn(final boolean died) {
         creatureDiedThisTurn = died;
+        updateScalarId(ID_CREATURE_DIED, creatureDiedThisTurn ? 1L : -1L);
     }
 
     public MagicStack getStack() {
@@ -1053,6 +1281,7 @@ public class MagicGame {
 
     public void setPriorityPassed(final boolean passed) {
         priorityPassed=passed;
+        updateScalarId(ID_PRIORITY_PASSED, priorityPassed ? 1L : -1L);
     }
 
     public boolean getPriorityPassed() {
@@ -1060,11 +1289,12 @@ public class MagicGame {
     }
 
     public void incrementPriorityPassedCount() {
-        priorityPassedCount++;
+        setPriorityPassedCount(priorityPassedCount + 1);
     }
 
     public void setPriorityPassedCount(final int count) {
         priorityPassedCount=count;
+        updateScalarId(ID_PRIORITY_PASSED_COUNT, priorityPassedCount);
     }
 
     public int getPriorityPassedCount() {
@@ -1093,10 +1323,11 @@ public class MagicGame {
 
     public void setStateCheckRequired(final boolean required) {
         stateCheckRequired = required;
+        updateScalarId(ID_STATE_CHECK, stateCheckRequired ? 1L : -1L);
     }
 
     public void setStateCheckRequired() {
-        stateCheckRequired = true;
+        setStateCheckRequired(true);
     }
 
     public boolean getStateCheckRequired() {
@@ -1105,7 +1336,7 @@ public class MagicGame {
 
     public void checkStatePutTriggers() {
         while (stateCheckRequired) {
-            stateCheckRequired = false;
+            setStateCheckRequired(false);
 
             // Check if a player has lost
             for (final MagicPlayer player : getAPNAP()) {
@@ -1187,57 +1418,37 @@ public class MagicGame {
             return true;
         }
 
-        final Collection<? extends MagicTarget> targets = targetChoice.getTargetFilter().filter(
-            source,
-            player,
-            targetChoice.getTargetHint(hints)
-        );
-
-        if (!targetChoice.isTargeted()) {
-            return !targets.isEmpty();
-        }
-
-        for (final MagicTarget target : targets) {
-            if (target.isValidTarget(source)) {
-                return true;
-            }
-        }
-
-        return false;
+        return !getCachedLegalTargets(player, source, targetChoice, targetChoice.getTargetHint(hints)).isEmpty();
     }
 
     public List<MagicTarget> getLegalTargets(final MagicPlayer player, final MagicSource source, final MagicTargetChoice targetChoice, final MagicTargetHint targetHint) {
+        return new ArrayList<>(getSharedLegalTargets(player, source, targetChoice, targetHint));
+    }
 
-        final Collection<? extends MagicTarget> targets = targetChoice.getTargetFilter().filter(
-            source,
-            player,
-            targetHint
-        );
-
-        final List<MagicTarget> options;
-        if (targetChoice.isTargeted()) {
-            options= new ArrayList<>();
-            for (final MagicTarget target : targets) {
-                if (target.isValidTarget(source)) {
-                    options.add(target);
-                }
-            }
-        } else {
-            options= new ArrayList<>(targets);
-        }
+    /** Returns the same targets as getLegalTargets in an unmodifiable list that is shared until the game changes. */
+    public List<MagicTarget> getSharedLegalTargets(final MagicPlayer player, final MagicSource source, final MagicTargetChoice targetChoice, final MagicTargetHint targetHint) {
+
+        final List<MagicTarget> options = getCachedLegalTargets(player, source, targetChoice, targetHint);
 
         if (options.isEmpty()) {
             // Try again without using hints
             if (targetHint != MagicTargetHint.None) {
-                return getLegalTargets(player, source, targetChoice, MagicTargetHint.None);
+                return getSharedLegalTargets(player, source, targetChoice, MagicTargetHint.None);
             // Add none when there are no legal targets. Only for triggers.
             } else {
-                options.add(MagicTargetNone.getInstance());
+                return Collections.singletonList(MagicTargetNone.getInstance());
             }
         }
         return options;
     }
 
+    // an action may change the game without moving the change counter until it is done
+    private List<MagicTarget> getCachedLegalTargets(final MagicPlayer player, final MagicSource source, final MagicTargetChoice targetChoice, final MagicTargetHint targetHint) {
+        return nrExecutingActions > 0 ?
+            Collections.unmodifiableList(MagicLegalTargets.getTargets(player, source, targetChoice, targetHint)) :
+            legalTargets.get(changes, player, source, targetChoice, targetHint);
+    }
+
     public <T extends MagicTarget> boolean isLegalTarget(final MagicPlayer player, final MagicSource source, final MagicTargetChoice targetChoice, final T target) {
 
         @SuppressWarnings("unchecked")
@@ -1323,6 +1534,7 @@ public class MagicGame {
 
     public MagicPermanentTrigger addTrigger(final MagicPermanentTrigger permanentTrigger) {
         additionalTriggers.add(permanentTrigger);
+        triggers.invalidate(permanentTrigger.getTrigger().getType());
         return permanentTrigger;
     }
 
@@ -1342,18 +1554,28 @@ public class MagicGame {
 
     public void removeTrigger(final MagicPermanentTrigger permanentTrigger) {
         additionalTriggers.remove(permanentTrigger);
+        triggers.invalidate(permanentTrigger.getTrigger().getType());
     }
 
     public MagicPermanentTrigger removeTrigger(final MagicPermanent permanent, MagicTrigger<?> trigger) {
-        return additionalTriggers.remove(permanent, trigger);
+        final MagicPermanentTrigger permanentTrigger = additionalTriggers.remove(permanent, trigger);
+        triggers.invalidate(permanentTrigger.getTrigger().getType());
+        return permanentTrigger;
     }
 
     public Collection<MagicPermanentTrigger> removeTriggers(final MagicPermanent permanent) {
-        return additionalTriggers.remove(permanent);
+        return invalidateTriggers(additionalTriggers.remove(permanent));
     }
 
     public List<MagicPermanentTrigger> removeTurnTriggers() {
-        return additionalTriggers.removeTurn();
+        return invalidateTriggers(additionalTriggers.removeTurn());
+    }
+
+    private <C extends Collection<MagicPermanentTrigger>> C invalidateTriggers(final C removedTriggers) {
+        for (final MagicPermanentTrigger permanentTrigger : removedTriggers) {
+            triggers.invalidate(permanentTrigger.getTrigger().getType());
+        }
+        return removedTriggers;
     }
 
     public <T> void executeTrigger(final MagicTrigger<T> trigger, final MagicPermanent permanent, final MagicSource source, final T data) {
@@ -1384,13 +1606,8 @@ public class MagicGame {
     }
 
     public <T> void executeTrigger(final MagicTriggerType type,final T data) {
-        final Collection<MagicPermanentTrigger> typeTriggers=triggers.get(type);
-        if (typeTriggers.isEmpty()) {
-            return;
-        }
-
-        final Collection<MagicPermanentTrigger> copiedTriggers= new ArrayList<>(typeTriggers);
-        for (final MagicPermanentTrigger permanentTrigger : copiedTriggers) {
+        // the registry replaces the array when triggers change, so it needs no copy
+        for (final MagicPermanentTrigger permanentTrigger : triggers.get(type)) {
             final MagicPermanent permanent = permanentTrigger.getPermanent();
             @SuppressWarnings("unchecked")
             final MagicTrigger<T> trigger = (MagicTrigger<T>)permanentTrigger.getTrigger();
@@ -25,6 +25,8 @@ public class MagicGameLog {
     }
 
     public static void initialize() {
+        // a resident runner starts a new log for each duel
+        close();
         try {
             writer = new PrintWriter(gameLog, UTF_8.name());
             final StringBuilder sb = new StringBuilder();
@@ -46,6 +48,7 @@ public class MagicGameLog {
     public static void close() {
         if (writer != null) {
             writer.close();
+            writer = null;
         }
     }
 }
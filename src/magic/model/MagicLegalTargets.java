@@ -0,0 +1,101 @@
+package magic.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import magic.model.choice.MagicTargetChoice;
+import magic.model.target.MagicTarget;
+import magic.model.target.MagicTargetFilter;
+import magic.model.target.MagicTargetHint;
+
+/**
+ * Legal targets of target choices, kept until the game changes.
+ * <p>
+ * The same target choice is examined many times between two actions, for
+ * instance when checking whether each activation can be played and again
+ * when the AI enumerates the options of the chosen one. Results are keyed
+ * by the filter, player, source and hint and are dropped as soon as the
+ * change counter of the game moves, which every action and undo does. While
+ * an action is being done the game does not use the cache, as the action may
+ * change the game before the counter moves.
+ */
+final class MagicLegalTargets {
+
+    private final Map<Key, List<MagicTarget>> targets = new HashMap<>();
+    private long changes = -1;
+
+    /** Returns the legal targets of targetChoice without the hint fallback of MagicGame.getLegalTargets. */
+    List<MagicTarget> get(final long aChanges, final MagicPlayer player, final MagicSource source, final MagicTargetChoice targetChoice, final MagicTargetHint targetHint) {
+        if (changes != aChanges) {
+            targets.clear();
+            changes = aChanges;
+        }
+        final Key key = new Key(targetChoice.getTargetFilter(), targetChoice.isTargeted(), player, source, targetHint);
+        List<MagicTarget> options = targets.get(key);
+        if (options == null) {
+            options = Collections.unmodifiableList(getTargets(player, source, targetChoice, targetHint));
+            targets.put(key, options);
+        }
+        return options;
+    }
+
+    static List<MagicTarget> getTargets(final MagicPlayer player, final MagicSource source, final MagicTargetChoice targetChoice, final MagicTargetHint targetHint) {
+        final List<? extends MagicTarget> targets = targetChoice.getTargetFilter().filter(
+            source,
+            player,
+            targetHint
+        );
+        if (!targetChoice.isTargeted()) {
+            return new ArrayList<>(targets);
+        }
+        final List<MagicTarget> options = new ArrayList<>();
+        for (final MagicTarget target : targets) {
+            if (target.isValidTarget(source)) {
+                options.add(target);
+            }
+        }
+        return options;
+    }
+
+    // filter, player and source are compared by identity as they belong to the same game
+    private static final class Key {
+        private final MagicTargetFilter<? extends MagicTarget> filter;
+        private final boolean targeted;
+        private final MagicPlayer player;
+        private final MagicSource source;
+        private final MagicTargetHint hint;
+
+        Key(final MagicTargetFilter<? extends MagicTarget> aFilter, final boolean aTargeted, final MagicPlayer aPlayer, final MagicSource aSource, final MagicTargetHint aHint) {
+            filter = aFilter;
+            targeted = aTargeted;
+            player = aPlayer;
+            source = aSource;
+            hint = aHint;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = System.identityHashCode(filter);
+            hash = hash * 31 + System.identityHashCode(player);
+            hash = hash * 31 + System.identityHashCode(source);
+            hash = hash * 31 + hint.ordinal();
+            return targeted ? hash : ~hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key)obj;
+            return filter == other.filter &&
+                targeted == other.targeted &&
+                player == other.player &&
+                source == other.source &&
+                hint == other.hint;
+        }
+    }
+}
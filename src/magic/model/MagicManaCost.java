@@ -2,9 +2,9 @@ package magic.model;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -16,8 +16,9 @@ import magic.model.condition.MagicManaCostCondition;
 
 public class MagicManaCost implements MagicCopyable {
 
-    private static final Map<String,MagicManaCost> COSTS_MAP=new HashMap<>();
-    private static final Map<String,MagicCondition> CONDS_MAP=new HashMap<>();
+    // filled while card scripts are parsed in parallel
+    private static final Map<String,MagicManaCost> COSTS_MAP=new ConcurrentHashMap<>();
+    private static final Map<String,MagicCondition> CONDS_MAP=new ConcurrentHashMap<>();
 
     private static final Pattern PATTERN=Pattern.compile("\\{[A-Z\\d/]+\\}");
 
@@ -372,21 +373,11 @@ public class MagicManaCost implements MagicCopyable {
     }
 
     public MagicCondition getCondition() {
-        MagicCondition cond = CONDS_MAP.get(costText);
-        if (cond == null) {
-            cond = new MagicManaCostCondition(this);
-            CONDS_MAP.put(costText, cond);
-        }
-        return cond;
+        return CONDS_MAP.computeIfAbsent(costText, text -> new MagicManaCostCondition(this));
     }
 
     public static MagicManaCost create(final String costText) {
-        MagicManaCost cost = COSTS_MAP.get(costText);
-        if (cost == null) {
-            cost = new MagicManaCost(costText);
-            COSTS_MAP.put(costText,cost);
-        }
-        return cost;
+        return COSTS_MAP.computeIfAbsent(costText, MagicManaCost::new);
     }
 
     public static MagicManaCost create(final int amount) {
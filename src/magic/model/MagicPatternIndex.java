@@ -0,0 +1,249 @@
+package magic.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the first of an ordered list of patterns that matches a whole text,
+ * without trying every pattern.
+ * <p>
+ * Patterns are prefiltered by the literal text outside of groups in their
+ * regex, which every match must contain. Where that text has a complete word
+ * the pattern is keyed by it and only tried for texts containing the word,
+ * otherwise the regex is only run if the text contains the longest literal.
+ * Candidates are tried in their original order, so the result is the same
+ * as trying all of the patterns.
+ */
+public class MagicPatternIndex<T> {
+
+    private final T[] items;
+    private final Pattern[] patterns;
+    private final String[] literals;
+    private final Map<String, BitSet> keyed = new HashMap<>();
+    private final BitSet unkeyed = new BitSet();
+
+    public MagicPatternIndex(final T[] items, final Function<T, Pattern> getPattern) {
+        this.items = items;
+        patterns = new Pattern[items.length];
+        literals = new String[items.length];
+
+        final List<List<String>> words = new ArrayList<>(items.length);
+        final Map<String, Integer> frequency = new HashMap<>();
+        for (int i = 0; i < items.length; i++) {
+            patterns[i] = getPattern.apply(items[i]);
+            final List<String> runs = getLiterals(patterns[i].pattern());
+            words.add(getWords(runs));
+            for (final String word : words.get(i)) {
+                frequency.merge(word, 1, Integer::sum);
+            }
+            for (final String run : runs) {
+                final String text = run.trim();
+                if (text.length() > 1 && (literals[i] == null || text.length() > literals[i].length())) {
+                    literals[i] = text;
+                }
+            }
+        }
+
+        // key each pattern by its least common word to keep the candidate sets small
+        for (int i = 0; i < items.length; i++) {
+            String key = null;
+            for (final String word : words.get(i)) {
+                if (key == null || frequency.get(word) < frequency.get(key)) {
+                    key = word;
+                }
+            }
+            if (key != null) {
+                keyed.computeIfAbsent(key, k -> new BitSet()).set(i);
+            } else {
+                unkeyed.set(i);
+            }
+        }
+    }
+
+    /** An item whose pattern matched a text, with the matcher that matched it. */
+    public static final class Match<T> {
+        public final T item;
+        public final Matcher matcher;
+
+        private Match(final T aItem, final Matcher aMatcher) {
+            item = aItem;
+            matcher = aMatcher;
+        }
+    }
+
+    /** Returns the first item whose pattern matches all of text, or null if there is none. */
+    public T find(final String text) {
+        final Match<T> match = match(text);
+        return match != null ? match.item : null;
+    }
+
+    /**
+     * Returns the first item whose pattern matches all of text together with
+     * its matcher, or null if there is none.
+     */
+    public Match<T> match(final String text) {
+        final BitSet candidates = (BitSet)unkeyed.clone();
+        final String lower = text.toLowerCase(Locale.ENGLISH);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            if (i < lower.length() && isWordChar(lower.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                final BitSet set = keyed.get(lower.substring(start, i));
+                if (set != null) {
+                    candidates.or(set);
+                }
+                start = -1;
+            }
+        }
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (literals[i] == null || lower.contains(literals[i])) {
+                final Matcher matcher = patterns[i].matcher(text);
+                if (matcher.matches()) {
+                    return new Match<>(items[i], matcher);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isWordChar(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+    }
+
+    private static boolean isMetaChar(final char c) {
+        return "\\^$.|?*+()[]{}".indexOf(c) >= 0;
+    }
+
+    /**
+     * Returns the words of literals that every text matching the regex contains
+     * as whole words, that is the words with a non-word character or the start
+     * or end of the regex, but not a \0 delimiter, on both sides.
+     */
+    private static List<String> getWords(final List<String> literals) {
+        final List<String> words = new ArrayList<>();
+        for (final String literal : literals) {
+            int start = -1;
+            for (int i = 0; i <= literal.length(); i++) {
+                if (i < literal.length() && isWordChar(literal.charAt(i))) {
+                    if (start < 0) {
+                        start = i;
+                    }
+                } else {
+                    if (start >= 0 &&
+                        (start == 0 || literal.charAt(start - 1) != '\u0000') &&
+                        (i == literal.length() || literal.charAt(i) != '\u0000')) {
+                        words.add(literal.substring(start, i));
+                    }
+                    start = -1;
+                }
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Returns the lower case literal text outside of groups in regex, which
+     * every matching text contains. Literals are delimited by \0 where they
+     * do not begin or end the regex. A regex with a top level alternation
+     * has no literals.
+     */
+    static List<String> getLiterals(final String regex) {
+        final List<String> literals = new ArrayList<>();
+        final StringBuilder literal = new StringBuilder();
+        int depth = 0;
+        int i = 0;
+        while (i < regex.length()) {
+            final char c = regex.charAt(i);
+            if (!isMetaChar(c) && c >= ' ' && c < 127) {
+                final char next = i + 1 < regex.length() ? regex.charAt(i + 1) : 0;
+                if (next == '?' || next == '*' || next == '{') {
+                    // optional character ends the literal
+                    addLiteral(literal, literals, depth);
+                } else {
+                    if (literal.length() == 0 && i > 0) {
+                        literal.append('\u0000');
+                    }
+                    literal.append(Character.toLowerCase(c));
+                }
+                i++;
+                continue;
+            }
+            addLiteral(literal, literals, depth);
+            if (c == '\\') {
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == 'Q') {
+                    return new ArrayList<>();
+                }
+                i += 2;
+                // skip the rest of escapes like \p{Alpha}, \x41 or \k<name>
+                while (i < regex.length() && (Character.isLetterOrDigit(regex.charAt(i)) || "{}<>".indexOf(regex.charAt(i)) >= 0)) {
+                    i++;
+                }
+            } else if (c == '[') {
+                i = skipClass(regex, i);
+            } else if (c == '{') {
+                final int end = regex.indexOf('}', i);
+                i = end < 0 ? regex.length() : end + 1;
+            } else {
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                } else if (c == '|' && depth == 0) {
+                    return new ArrayList<>();
+                }
+                i++;
+            }
+        }
+        if (literal.length() > 0 && depth == 0) {
+            literals.add(literal.toString());
+        }
+        return literals;
+    }
+
+    private static void addLiteral(final StringBuilder literal, final List<String> literals, final int depth) {
+        if (literal.length() > 0 && depth == 0) {
+            literals.add(literal.append('\u0000').toString());
+        }
+        literal.setLength(0);
+    }
+
+    // returns the index after the character class starting at start
+    private static int skipClass(final String regex, final int start) {
+        int nesting = 0;
+        int i = start;
+        while (i < regex.length()) {
+            final char c = regex.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '[') {
+                nesting++;
+                // a ] right after the opening bracket is a literal
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == '^') {
+                    i++;
+                }
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == ']') {
+                    i++;
+                }
+            } else if (c == ']') {
+                nesting--;
+                if (nesting == 0) {
+                    return i + 1;
+                }
+            }
+            i++;
+        }
+        return i;
+    }
+}
@@ -1,6 +1,7 @@
 package magic.model;
 
 import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
@@ -55,6 +56,7 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
     private MagicPermanent pairedCreature = MagicPermanent.NONE;
     private final MagicCardList exiledCards;
     private MagicPlayer chosenPlayer = MagicPlayer.NONE;
+    // never changed in place, so copies of the game can share it
     private Map<MagicCounterType, Integer> counters;
     private int stateFlags =
         MagicPermanentState.Summoned.getMask() |
@@ -73,10 +75,12 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
     private int cachedColorFlags;
     private Set<MagicAbility> cachedAbilityFlags;
     private MagicPowerToughness cachedPowerToughness;
-    private List<MagicActivation<MagicPermanent>> cachedActivations;
-    private List<MagicManaActivation> cachedManaActivations;
-    private List<MagicTrigger<?>> cachedTriggers;
-    private List<EntersBattlefieldTrigger> etbTriggers;
+    private Collection<MagicActivation<MagicPermanent>> cachedActivations;
+    private Collection<MagicManaActivation> cachedManaActivations;
+    private Collection<MagicTrigger<?>> cachedTriggers;
+    private Collection<EntersBattlefieldTrigger> etbTriggers;
+    // the four collections above are not owned by this permanent, copy before changing them
+    private boolean abilitiesShared;
     private Set<Map.Entry<MagicPermanent, MagicStatic>> appliedStatics;
 
     // remember order among blockers (blockedName + id + block order)
@@ -120,7 +124,7 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
         card = copyMap.copy(sourcePermanent.card);
         firstController = copyMap.copy(sourcePermanent.firstController);
         stateFlags = sourcePermanent.stateFlags;
-        counters = new EnumMap<>(sourcePermanent.counters);
+        counters = sourcePermanent.counters;
         abilityPlayedThisTurn = sourcePermanent.abilityPlayedThisTurn;
         equippedCreature = copyMap.copy(sourcePermanent.equippedCreature);
         equipmentPermanents = new MagicPermanentSet(copyMap, sourcePermanent.equipmentPermanents);
@@ -143,10 +147,13 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
         cachedColorFlags = sourcePermanent.cachedColorFlags;
         cachedAbilityFlags = sourcePermanent.cachedAbilityFlags;
         cachedPowerToughness = sourcePermanent.cachedPowerToughness;
-        cachedActivations = new LinkedList<>(sourcePermanent.cachedActivations);
-        cachedManaActivations = new LinkedList<>(sourcePermanent.cachedManaActivations);
-        cachedTriggers = new LinkedList<>(sourcePermanent.cachedTriggers);
-        etbTriggers = new LinkedList<>(sourcePermanent.etbTriggers);
+        // like the flags above, these are replaced in the Card layer before statics
+        // change them, so they can be shared with the source
+        cachedActivations = sourcePermanent.cachedActivations;
+        cachedManaActivations = sourcePermanent.cachedManaActivations;
+        cachedTriggers = sourcePermanent.cachedTriggers;
+        etbTriggers = sourcePermanent.etbTriggers;
+        abilitiesShared = true;
     }
 
     @Override
@@ -302,7 +309,18 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
         return sourceActs;
     }
 
+    private void ownAbilities() {
+        if (abilitiesShared) {
+            cachedActivations = new ArrayList<>(cachedActivations);
+            cachedManaActivations = new ArrayList<>(cachedManaActivations);
+            cachedTriggers = new ArrayList<>(cachedTriggers);
+            etbTriggers = new ArrayList<>(etbTriggers);
+            abilitiesShared = false;
+        }
+    }
+
     public void loseAllAbilities() {
+        ownAbilities();
         cachedActivations.clear();
         cachedManaActivations.clear();
         cachedTriggers.clear();
@@ -327,10 +345,12 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
     }
 
     public void addAbility(final MagicActivation<MagicPermanent> act) {
+        ownAbilities();
         cachedActivations.add(act);
     }
 
     public void addAbility(final MagicTrigger<?> trig) {
+        ownAbilities();
         if (trig instanceof EntersBattlefieldTrigger) {
             etbTriggers.add((EntersBattlefieldTrigger) trig);
         } else {
@@ -339,6 +359,7 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
     }
 
     public void addAbility(final MagicManaActivation act) {
+        ownAbilities();
         cachedManaActivations.add(act);
     }
 
@@ -411,6 +432,15 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
         return card.getOwner();
     }
 
+    private void stateChanged() {
+        stateId = 0;
+        getOwner().stateChanged();
+        // hashed with the permanents of its controller
+        if (cachedController != getOwner()) {
+            cachedController.stateChanged();
+        }
+    }
+
     public MagicPlayer getFirstController() {
         return firstController;
     }
@@ -475,25 +505,44 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
 
     private void apply(final MagicLayer layer) {
         switch (layer) {
-            case Card:
+            case Card: {
+                final int typeFlags = getCardDefinition().getTypeFlags();
+                final Set<MagicSubType> subTypeFlags = getCardDefinition().genSubTypes();
+                final int colorFlags = getCardDefinition().getColorFlags();
+                if (typeFlags != cachedTypeFlags || colorFlags != cachedColorFlags || !subTypeFlags.equals(cachedSubTypeFlags)) {
+                    getGame().invalidatePermanentIndex();
+                }
                 cachedController = firstController;
-                cachedTypeFlags = getCardDefinition().getTypeFlags();
-                cachedSubTypeFlags = getCardDefinition().genSubTypes();
-                cachedColorFlags = getCardDefinition().getColorFlags();
+                cachedTypeFlags = typeFlags;
+                cachedSubTypeFlags = subTypeFlags;
+                cachedColorFlags = colorFlags;
                 cachedAbilityFlags = getCardDefinition().genAbilityFlags();
                 cachedPowerToughness = getCardDefinition().genPowerToughness();
-                cachedActivations = new LinkedList<>(getCardDefinition().getActivations());
-                cachedActivations.addAll(cardDefinition.getMorphActivations());
-                cachedManaActivations = new LinkedList<>(getCardDefinition().getManaActivations());
-                cachedTriggers = new LinkedList<>(getCardDefinition().getTriggers());
-                etbTriggers = new LinkedList<>(getCardDefinition().getETBTriggers());
+                // use the abilities of the card definition until a static changes them
+                if (cardDefinition.getMorphActivations().isEmpty()) {
+                    cachedActivations = getCardDefinition().getActivations();
+                } else {
+                    cachedActivations = new ArrayList<>(getCardDefinition().getActivations());
+                    cachedActivations.addAll(cardDefinition.getMorphActivations());
+                }
+                cachedManaActivations = getCardDefinition().getManaActivations();
+                cachedTriggers = getCardDefinition().getTriggers();
+                etbTriggers = getCardDefinition().getETBTriggers();
+                abilitiesShared = true;
                 appliedStatics = new HashSet<>();
                 break;
+            }
             case CDASubtype:
-                getCardDefinition().applyCDASubType(getGame(), getController(), cachedSubTypeFlags);
+                if (getCardDefinition().hasCDA()) {
+                    final Set<MagicSubType> subTypeFlags = EnumSet.copyOf(cachedSubTypeFlags);
+                    getCardDefinition().applyCDASubType(getGame(), getController(), cachedSubTypeFlags);
+                    if (!subTypeFlags.equals(cachedSubTypeFlags)) {
+                        getGame().invalidatePermanentIndex();
+                    }
+                }
                 break;
             case CDAColor:
-                cachedColorFlags = getCardDefinition().applyCDAColor(getGame(), getController(), cachedColorFlags);
+                setColorFlags(getCardDefinition().applyCDAColor(getGame(), getController(), cachedColorFlags));
                 break;
             case CDAPT:
                 getCardDefinition().applyCDAPowerToughness(getGame(), getController(), this, cachedPowerToughness);
@@ -509,12 +558,18 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
             case Control:
                 cachedController = mstatic.getController(source, this, cachedController);
                 break;
-            case Type:
+            case Type: {
+                final int typeFlags = cachedTypeFlags;
+                final Set<MagicSubType> subTypeFlags = EnumSet.copyOf(cachedSubTypeFlags);
                 cachedTypeFlags = mstatic.getTypeFlags(this, cachedTypeFlags);
                 mstatic.modSubTypeFlags(this, cachedSubTypeFlags);
+                if (typeFlags != cachedTypeFlags || !subTypeFlags.equals(cachedSubTypeFlags)) {
+                    getGame().invalidatePermanentIndex();
+                }
                 break;
+            }
             case Color:
-                cachedColorFlags = mstatic.getColorFlags(this, cachedColorFlags);
+                setColorFlags(mstatic.getColorFlags(this, cachedColorFlags));
                 break;
             case Ability:
             case AbilityCond:
@@ -531,12 +586,19 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
         }
     }
 
+    private void setColorFlags(final int flags) {
+        if (flags != cachedColorFlags) {
+            cachedColorFlags = flags;
+            getGame().invalidatePermanentIndex();
+        }
+    }
+
     public void setState(final MagicPermanentState state) {
-        stateFlags |= state.getMask();
+        setStateFlags(stateFlags | state.getMask());
     }
 
     public void clearState(final MagicPermanentState state) {
-        stateFlags &= Integer.MAX_VALUE - state.getMask();
+        setStateFlags(stateFlags & (Integer.MAX_VALUE - state.getMask()));
     }
 
     public boolean hasState(final MagicPermanentState state) {
@@ -548,7 +610,11 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
     }
 
     public void setStateFlags(final int flags) {
-        stateFlags = flags;
+        stateChanged();
+        if (flags != stateFlags) {
+            stateFlags = flags;
+            getGame().invalidatePermanentStates();
+        }
     }
 
     public boolean isTapped() {
@@ -577,13 +643,17 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
 
     @Override
     public void changeCounters(final MagicCounterType counterType, final int amount) {
+        stateChanged();
         final int oldAmt = getCounters(counterType);
         final int newAmt = oldAmt + amount;
+        final Map<MagicCounterType, Integer> newCounters = new EnumMap<>(MagicCounterType.class);
+        newCounters.putAll(counters);
         if (newAmt == 0) {
-            counters.remove(counterType);
+            newCounters.remove(counterType);
         } else {
-            counters.put(counterType, newAmt);
+            newCounters.put(counterType, newAmt);
         }
+        counters = newCounters;
     }
 
     public Collection<MagicCounterType> getCounterTypes() {
@@ -663,6 +733,7 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
     }
 
     public void setDamage(final int aDamage) {
+        stateChanged();
         damage = aDamage;
     }
 
@@ -673,6 +744,7 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
 
     @Override
     public void setPreventDamage(final int amount) {
+        stateChanged();
         preventDamage = amount;
     }
 
@@ -723,6 +795,7 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
     }
 
     public void setBlockedCreature(final MagicPermanent creature) {
+        stateChanged();
         if (creature.isValid()) {
             blockedName = creature.getName() + creature.getId() + (100 + creature.numBlockingCreatures());
         }
@@ -742,19 +815,23 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
     }
 
     public void setBlockingCreatures(final MagicPermanentList creatures) {
+        stateChanged();
         blockingCreatures.clear();
         blockingCreatures.addAll(creatures);
     }
 
     public void addBlockingCreature(final MagicPermanent creature) {
+        stateChanged();
         blockingCreatures.add(creature);
     }
 
     public void removeBlockingCreature(final MagicPermanent creature) {
+        stateChanged();
         blockingCreatures.remove(creature);
     }
 
     public void removeBlockingCreatures() {
+        stateChanged();
         blockingCreatures.clear();
     }
 
@@ -763,6 +840,7 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
     }
 
     public void setPairedCreature(final MagicPermanent creature) {
+        stateChanged();
         pairedCreature = creature;
     }
 
@@ -779,6 +857,7 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
     }
 
     public void addExiledCard(final MagicCard card) {
+        stateChanged();
         // only non tokens can be added
         if (!card.isToken()) {
             exiledCards.add(card);
@@ -786,6 +865,7 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
     }
 
     public void removeExiledCard(final MagicCard card) {
+        stateChanged();
         exiledCards.remove(card);
     }
 
@@ -794,6 +874,7 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
     }
 
     public void setChosenPlayer(final MagicPlayer player) {
+        stateChanged();
         chosenPlayer = player;
     }
 
@@ -1092,6 +1173,7 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
     }
 
     public void setEquippedCreature(final MagicPermanent creature) {
+        stateChanged();
         equippedCreature = creature;
     }
 
@@ -1100,10 +1182,12 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
     }
 
     public void addEquipment(final MagicPermanent equipment) {
+        stateChanged();
         equipmentPermanents.add(equipment);
     }
 
     public void removeEquipment(final MagicPermanent equipment) {
+        stateChanged();
         equipmentPermanents.remove(equipment);
     }
 
@@ -1116,6 +1200,7 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
     }
 
     public void setEnchantedPermanent(final MagicPermanent perm) {
+        stateChanged();
         enchantedPermanent = perm;
     }
 
@@ -1124,10 +1209,12 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
     }
 
     public void addAura(final MagicPermanent aura) {
+        stateChanged();
         auraPermanents.add(aura);
     }
 
     public void removeAura(final MagicPermanent aura) {
+        stateChanged();
         auraPermanents.remove(aura);
     }
 
@@ -1140,18 +1227,21 @@ public class MagicPermanent extends MagicObjectImpl implements MagicSource, Magi
     }
 
     public void setAbilityPlayedThisTurn(final int amount) {
+        stateChanged();
         abilityPlayedThisTurn = amount;
     }
 
     public void incrementAbilityPlayedThisTurn() {
+        stateChanged();
         abilityPlayedThisTurn++;
     }
 
     public void decrementAbilityPlayedThisTurn() {
+        stateChanged();
         abilityPlayedThisTurn--;
     }
 
-    private int getTypeFlags() {
+    int getTypeFlags() {
         return cachedTypeFlags;
     }
 
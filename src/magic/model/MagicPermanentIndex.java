@@ -0,0 +1,139 @@
+package magic.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Index of the permanents of a player by type, color, subtype and state.
+ * <p>
+ * The index is built from the cached flags of the permanents and stays valid
+ * until the game reports a change to them, see MagicGame.invalidatePermanentIndex.
+ * Counts by subtype and state are computed when first asked for. The state
+ * counts are reset on their own, as permanents are tapped and untapped far
+ * more often than they change types.
+ */
+final class MagicPermanentIndex {
+
+    private static final int NR_TYPES = MagicType.values().length;
+    private static final int NR_COLORS = MagicColor.values().length;
+    private static final int NR_SUBTYPES = MagicSubType.values().length;
+    private static final int NR_STATES = MagicPermanentState.values().length;
+
+    static final MagicPermanentIndex EMPTY = new MagicPermanentIndex(new MagicPermanentSet(), -1);
+
+    private final long changes;
+    private final MagicPermanent[] permanents;
+    private final int[] typeFlags;
+    private final int[] typeCounts = new int[NR_TYPES];
+    private final int[] colorCounts = new int[NR_COLORS];
+    private final List<List<MagicPermanent>> byType = new ArrayList<>(Collections.nCopies(NR_TYPES, null));
+    private int[] subTypeCounts;
+    private int[] stateCounts;
+    private long stateChanges;
+
+    MagicPermanentIndex(final MagicPermanentSet set, final long aChanges) {
+        changes = aChanges;
+        permanents = set.toArray(new MagicPermanent[set.size()]);
+        typeFlags = new int[permanents.length];
+        for (int i = 0; i < permanents.length; i++) {
+            typeFlags[i] = permanents[i].getTypeFlags();
+            countBits(typeFlags[i], typeCounts);
+            countBits(permanents[i].getColorFlags(), colorCounts);
+        }
+    }
+
+    private static void countBits(final int flags, final int[] counts) {
+        for (int bits = flags; bits != 0; bits &= bits - 1) {
+            counts[Integer.numberOfTrailingZeros(bits)]++;
+        }
+    }
+
+    long getChanges() {
+        return changes;
+    }
+
+    /** Returns the permanents with any of the types in typeMask, in the order of the set. */
+    List<MagicPermanent> getPermanents(final int typeMask) {
+        if (permanents.length == 0) {
+            return Collections.emptyList();
+        }
+        if (Integer.bitCount(typeMask) == 1) {
+            final int type = Integer.numberOfTrailingZeros(typeMask);
+            List<MagicPermanent> list = byType.get(type);
+            if (list == null) {
+                list = Collections.unmodifiableList(filter(typeMask));
+                byType.set(type, list);
+            }
+            return list;
+        }
+        return filter(typeMask);
+    }
+
+    private List<MagicPermanent> filter(final int typeMask) {
+        final List<MagicPermanent> list = new ArrayList<>();
+        for (int i = 0; i < permanents.length; i++) {
+            if ((typeFlags[i] & typeMask) != 0) {
+                list.add(permanents[i]);
+            }
+        }
+        return list;
+    }
+
+    int getNrOfPermanents(final MagicType type) {
+        return typeCounts[type.ordinal()];
+    }
+
+    int getNrOfPermanents(final MagicColor color) {
+        return colorCounts[color.ordinal()];
+    }
+
+    int getNrOfPermanents(final MagicType type, final MagicColor color) {
+        if (typeCounts[type.ordinal()] == 0 || colorCounts[color.ordinal()] == 0) {
+            return 0;
+        }
+        int count = 0;
+        for (final MagicPermanent permanent : getPermanents(type.getMask())) {
+            if (permanent.hasColor(color)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    int getNrOfPermanents(final MagicSubType subType) {
+        if (permanents.length == 0) {
+            return 0;
+        }
+        if (subTypeCounts == null) {
+            subTypeCounts = new int[NR_SUBTYPES];
+            Arrays.fill(subTypeCounts, -1);
+        }
+        final int idx = subType.ordinal();
+        if (subTypeCounts[idx] < 0) {
+            int count = 0;
+            for (final MagicPermanent permanent : permanents) {
+                if (permanent.hasSubType(subType)) {
+                    count++;
+                }
+            }
+            subTypeCounts[idx] = count;
+        }
+        return subTypeCounts[idx];
+    }
+
+    int getNrOfPermanents(final MagicPermanentState state, final long aStateChanges) {
+        if (permanents.length == 0) {
+            return 0;
+        }
+        if (stateCounts == null || stateChanges != aStateChanges) {
+            stateCounts = new int[NR_STATES];
+            for (final MagicPermanent permanent : permanents) {
+                countBits(permanent.getStateFlags(), stateCounts);
+            }
+            stateChanges = aStateChanges;
+        }
+        return stateCounts[state.ordinal()];
+    }
+}
@@ -1,6 +1,7 @@
 package magic.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -15,6 +16,7 @@ import magic.model.mstatic.MagicLayer;
 import magic.model.mstatic.MagicPermanentStatic;
 import magic.model.mstatic.MagicStatic;
 import magic.model.player.AiProfile;
+import magic.model.target.MagicPermanentFilterImpl;
 import magic.model.target.MagicTarget;
 import magic.model.target.MagicTargetFilter;
 import magic.model.target.MagicTargetType;
@@ -76,12 +78,19 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
     private final MagicCardList graveyard;
     private final MagicCardList exile;
     private final MagicPermanentSet permanents;
+    private MagicPermanentIndex permanentIndex;
+    private int[] manaTypeMasks;
+    private long manaTypeMasksChanges = -1;
     private MagicGame currGame;
     private MagicBuilderManaCost builderCost;
     private MagicActivationPriority activationPriority;
     private Set<MagicAbility> cachedAbilityFlags;
 
     private long[] keys;
+    // state ids of the zones, kept until a zone, one of its cards or one of
+    // the permanents changes, or the layers are applied again
+    private final long[] zoneIds = new long[5];
+    private boolean zoneIdsValid;
 
     MagicPlayer(final int aLife,final DuelPlayerConfig aPlayerConfig,final int aIndex) {
         playerConfig = aPlayerConfig;
@@ -89,10 +98,10 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
         startingLife = aLife;
         life = startingLife;
 
-        hand=new MagicCardList();
-        library=new MagicCardList();
-        graveyard=new MagicCardList();
-        exile=new MagicCardList();
+        hand=new MagicZoneList(this);
+        library=new MagicZoneList(this);
+        graveyard=new MagicZoneList(this);
+        exile=new MagicZoneList(this);
         permanents=new MagicPermanentSet();
         builderCost=new MagicBuilderManaCost();
         activationPriority=new MagicActivationPriority();
@@ -119,10 +128,10 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
         nonCreatureSpellsCast=sourcePlayer.nonCreatureSpellsCast;
         spellsCastLastTurn=sourcePlayer.spellsCastLastTurn;
         creaturesAttackedThisTurn=sourcePlayer.creaturesAttackedThisTurn;
-        hand=new MagicCardList(copyMap, sourcePlayer.hand);
-        library=new MagicCardList(copyMap, sourcePlayer.library);
-        graveyard=new MagicCardList(copyMap, sourcePlayer.graveyard);
-        exile=new MagicCardList(copyMap, sourcePlayer.exile);
+        hand=new MagicZoneList(copyMap, this, sourcePlayer.hand);
+        library=new MagicZoneList(copyMap, this, sourcePlayer.library);
+        graveyard=new MagicZoneList(copyMap, this, sourcePlayer.graveyard);
+        exile=new MagicZoneList(copyMap, this, sourcePlayer.exile);
         permanents=new MagicPermanentSet(copyMap,sourcePlayer.permanents);
         builderCost=new MagicBuilderManaCost(sourcePlayer.builderCost);
         activationPriority=new MagicActivationPriority(sourcePlayer.activationPriority);
@@ -148,8 +157,24 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
         return currGame;
     }
 
+    /**
+     * Counts a change of this player or one of its objects made without an
+     * action, such as by a test or a saved game, so the game is updated again.
+     */
+    void stateChanged() {
+        zoneIdsValid = false;
+        if (currGame != null) {
+            currGame.invalidateStateId();
+        }
+    }
+
     @Override
     public long getStateId() {
+        if (!zoneIdsValid) {
+            computeZoneIds(zoneIds);
+            zoneIdsValid = true;
+        }
+        assert Arrays.equals(zoneIds, computeZoneIds(new long[zoneIds.length])) : "zone ids of " + this + " changed without stateChanged";
         keys = new long[] {
             life,
             lifeLossThisTurn,
@@ -166,11 +191,11 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
             nonCreatureSpellsCast,
             spellsCastLastTurn,
             creaturesAttackedThisTurn,
-            hand.getStateId(),
-            library.getStateId(),
-            graveyard.getStateId(),
-            exile.getStateId(),
-            permanents.getStateId(),
+            zoneIds[0],
+            zoneIds[1],
+            zoneIds[2],
+            zoneIds[3],
+            zoneIds[4],
             builderCost.getMinimumAmount(),
             activationPriority.getPriority(),
             activationPriority.getActivationId(),
@@ -179,6 +204,15 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
         return MurmurHash3.hash(keys);
     }
 
+    private long[] computeZoneIds(final long[] ids) {
+        ids[0] = hand.getStateId();
+        ids[1] = library.getStateId();
+        ids[2] = graveyard.getStateId();
+        ids[3] = exile.getStateId();
+        ids[4] = permanents.getStateId();
+        return ids;
+    }
+
     String getIdString() {
         final StringBuilder sb = new StringBuilder();
         sb.append(keys[0]);
@@ -237,10 +271,12 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
     }
 
     public void setState(final MagicPlayerState state) {
+        stateChanged();
         stateFlags|=state.getMask();
     }
 
     public void clearState(final MagicPlayerState state) {
+        stateChanged();
         stateFlags&=Integer.MAX_VALUE-state.getMask();
     }
 
@@ -257,10 +293,12 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
     }
 
     public void setStateFlags(final int flags) {
+        stateChanged();
         stateFlags=flags;
     }
 
     public void setLife(final int life) {
+        stateChanged();
         this.life=life;
     }
 
@@ -285,10 +323,12 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
     }
 
     public void setLifeGainThisTurn(final int lifeGainThisTurn) {
+        stateChanged();
         this.lifeGainThisTurn=lifeGainThisTurn;
     }
 
     public void changeLifeGainThisTurn(final int lifeGainThisTurn) {
+        stateChanged();
         this.lifeGainThisTurn+=lifeGainThisTurn;
     }
 
@@ -297,14 +337,17 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
     }
 
     public void setLifeLossThisTurn(final int life) {
+        stateChanged();
         lifeLossThisTurn = life;
     }
 
     public void changeLifeLossThisTurn(final int life) {
+        stateChanged();
         lifeLossThisTurn += life;
     }
 
     public void setPoison(final int p) {
+        stateChanged();
         poison = p;
     }
 
@@ -313,6 +356,7 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
     }
 
     public void setExperience(final int e) {
+        stateChanged();
         experience = e;
     }
 
@@ -321,6 +365,7 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
     }
 
     public void setEnergy(final int e) {
+        stateChanged();
         energy = e;
     }
 
@@ -329,6 +374,7 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
     }
 
     public void changeExtraTurns(final int amount) {
+        stateChanged();
         extraTurns+=amount;
     }
 
@@ -353,18 +399,22 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
     }
 
     public void noMaxHandSize() {
+        stateChanged();
         maxHandSize = Integer.MAX_VALUE;
     }
 
     public void setMaxHandSize(final int amount) {
+        stateChanged();
         maxHandSize = amount;
     }
 
     public void reduceMaxHandSize(final int amount) {
+        stateChanged();
         maxHandSize -= amount;
     }
 
     public void increaseMaxHandSize(final int amount) {
+        stateChanged();
         maxHandSize += amount;
     }
 
@@ -373,14 +423,17 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
     }
 
     public void setCreaturesAttackedThisTurn(final int count) {
+        stateChanged();
         creaturesAttackedThisTurn=count;
     }
 
     public void incCreaturesAttacked() {
+        stateChanged();
         creaturesAttackedThisTurn++;
     }
 
     public void decCreaturesAttacked() {
+        stateChanged();
         creaturesAttackedThisTurn--;
     }
 
@@ -389,6 +442,7 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
     }
 
     public void setSpellsCastLastTurn(final int count) {
+        stateChanged();
         spellsCastLastTurn=count;
     }
 
@@ -397,6 +451,7 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
     }
 
     public void incSpellsCast() {
+        stateChanged();
         spellsCast++;
     }
 
@@ -405,14 +460,17 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
     }
 
     public void setNonCreatureSpellsCast(final int count) {
+        stateChanged();
         nonCreatureSpellsCast=count;
     }
 
     public void incNonCreatureSpellsCast() {
+        stateChanged();
         nonCreatureSpellsCast++;
     }
 
     public void setSpellsCast(final int count) {
+        stateChanged();
         spellsCast=count;
     }
 
@@ -425,10 +483,12 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
     }
 
     public void addCardToHand(final MagicCard card) {
+        stateChanged();
         hand.addToTop(card);
     }
 
     public void addCardToHand(final MagicCard card,final int aIndex) {
+        stateChanged();
         hand.add(aIndex,card);
     }
 
@@ -454,7 +514,7 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
             }
         }
 
-        unknownCards.shuffle(MagicRandom.nextRNGInt());
+        unknownCards.shuffle(currGame.nextRNGInt());
         unknownCards.setAIKnown(true);
 
         // fill in unknown cards
@@ -547,13 +607,41 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
     }
 
     public void addPermanent(final MagicPermanent permanent) {
+        stateChanged();
         final boolean added = permanents.add(permanent);
         assert added : permanent + " cannot be added to " + this;
+        currGame.invalidatePermanentIndex();
     }
 
     public void removePermanent(final MagicPermanent permanent) {
+        stateChanged();
         final boolean removed = permanents.remove(permanent);
         assert removed : permanent + " cannot be removed from " + this;
+        currGame.invalidatePermanentIndex();
+    }
+
+    private MagicPermanentIndex getPermanentIndex() {
+        if (permanents.isEmpty()) {
+            return MagicPermanentIndex.EMPTY;
+        }
+        if (permanentIndex == null || permanentIndex.getChanges() != currGame.getPermanentChanges()) {
+            permanentIndex = new MagicPermanentIndex(permanents, currGame.getPermanentChanges());
+        }
+        return permanentIndex;
+    }
+
+    /**
+     * Returns the permanents with any of the types in typeMask, in the order
+     * of getPermanents. The list must not be modified.
+     */
+    public List<MagicPermanent> getPermanents(final int typeMask) {
+        return getPermanentIndex().getPermanents(typeMask);
+    }
+
+    // permanents that may be accepted by filter
+    private Iterable<MagicPermanent> getPermanents(final MagicTargetFilter<MagicPermanent> filter) {
+        final int typeMask = MagicPermanentFilterImpl.getTypeMask(filter);
+        return typeMask == 0 ? permanents : getPermanents(typeMask);
     }
 
     public List<MagicSourceManaActivation> getManaActivations(final MagicGame game) {
@@ -575,6 +663,22 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
         return activations;
     }
 
+    /**
+     * Returns MagicSourceManaActivation.getManaTypeMask of each of the mana
+     * activations, which is kept until the game changes.
+     */
+    public int[] getManaTypeMasks(final MagicGame game) {
+        if (manaTypeMasks == null || manaTypeMasksChanges != game.getChanges()) {
+            final List<MagicSourceManaActivation> activations = getManaActivations(game);
+            manaTypeMasks = new int[activations.size()];
+            for (int i = 0; i < manaTypeMasks.length; i++) {
+                manaTypeMasks[i] = activations.get(i).getManaTypeMask();
+            }
+            manaTypeMasksChanges = game.getChanges();
+        }
+        return manaTypeMasks;
+    }
+
     private int getManaActivationsCount(final MagicGame game) {
         int count=0;
         for (final MagicPermanent permanent : permanents) {
@@ -625,53 +729,23 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
     }
 
     public int getNrOfPermanents(final MagicPermanentState state) {
-        int count=0;
-        for (final MagicPermanent permanent : permanents) {
-            if (permanent.hasState(state)) {
-                count++;
-            }
-        }
-        return count;
+        return getPermanentIndex().getNrOfPermanents(state, currGame.getPermanentStateChanges());
     }
 
     public int getNrOfPermanents(final MagicType type) {
-        int count=0;
-        for (final MagicPermanent permanent : permanents) {
-            if (permanent.hasType(type)) {
-                count++;
-            }
-        }
-        return count;
+        return getPermanentIndex().getNrOfPermanents(type);
     }
 
     public int getNrOfPermanents(final MagicSubType subType) {
-        int count=0;
-        for (final MagicPermanent permanent : permanents) {
-            if (permanent.hasSubType(subType)) {
-                count++;
-            }
-        }
-        return count;
+        return getPermanentIndex().getNrOfPermanents(subType);
     }
 
     public int getNrOfPermanents(final MagicColor color) {
-        int count=0;
-        for (final MagicPermanent permanent : permanents) {
-            if (permanent.hasColor(color)) {
-                count++;
-            }
-        }
-        return count;
+        return getPermanentIndex().getNrOfPermanents(color);
     }
 
     public int getNrOfPermanents(final MagicType type, final MagicColor color) {
-        int count = 0;
-        for (final MagicPermanent permanent : permanents) {
-            if (permanent.hasColor(color) && permanent.hasType(type)){
-                count++;
-            }
-        }
-        return count;
+        return getPermanentIndex().getNrOfPermanents(type, color);
     }
 
     public int getNrOfPermanents(final MagicTargetFilter<MagicPermanent> filter) {
@@ -680,7 +754,7 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
 
     public int getNrOfPermanents(final MagicSource source, final MagicTargetFilter<MagicPermanent> filter) {
         int count = 0;
-        for (final MagicPermanent permanent : permanents) {
+        for (final MagicPermanent permanent : getPermanents(filter)) {
             if (filter.accept(source, this, permanent)) {
                 count++;
             }
@@ -693,7 +767,7 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
     }
 
     public boolean controlsPermanent(final MagicSource source, final MagicTargetFilter<MagicPermanent> filter) {
-        for (final MagicPermanent permanent : permanents) {
+        for (final MagicPermanent permanent : getPermanents(filter)) {
             if (filter.accept(source, this, permanent)) {
                 return true;
             }
@@ -706,30 +780,15 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
     }
 
     public boolean controlsPermanent(final MagicColor color) {
-        for (final MagicPermanent permanent : permanents) {
-            if (permanent.hasColor(color)) {
-                return true;
-            }
-        }
-        return false;
+        return getNrOfPermanents(color) > 0;
     }
 
     public boolean controlsPermanent(final MagicType type) {
-        for (final MagicPermanent permanent : permanents) {
-            if (permanent.hasType(type)) {
-                return true;
-            }
-        }
-        return false;
+        return getNrOfPermanents(type) > 0;
     }
 
     public boolean controlsPermanent(final MagicSubType subType) {
-        for (final MagicPermanent permanent : permanents) {
-            if (permanent.hasSubType(subType)) {
-                return true;
-            }
-        }
-        return false;
+        return getNrOfPermanents(subType) > 0;
     }
 
     public boolean controlsPermanent(final MagicAbility ability) {
@@ -791,6 +850,7 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
 
     @Override
     public void setPreventDamage(final int amount) {
+        stateChanged();
         preventDamage=amount;
     }
 
@@ -858,14 +918,17 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
     }
 
     public void incDrawnCards() {
+        stateChanged();
         drawnCards++;
     }
 
     public void decDrawnCards() {
+        stateChanged();
         drawnCards--;
     }
 
     public void setDrawnCards(final int drawnCards) {
+        stateChanged();
         this.drawnCards = drawnCards;
     }
 
@@ -907,6 +970,8 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
 
     public static void update(final MagicGame game) {
         for (final MagicPlayer player : game.getPlayers()) {
+            // the layers of the permanents may have changed them
+            player.zoneIdsValid = false;
             player.apply(MagicLayer.Player);
         }
         for (final MagicPermanentStatic mpstatic : game.getStatics(MagicLayer.Player)) {
@@ -936,6 +1001,7 @@ public class MagicPlayer extends MagicObjectImpl implements MagicSource, MagicTa
 
     @Override
     public void changeCounters(final MagicCounterType counterType,final int amount) {
+        stateChanged();
         switch (counterType) {
             case Poison:
                 poison += amount;
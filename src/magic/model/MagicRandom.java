@@ -6,20 +6,18 @@ import java.util.Random;
 public class MagicRandom extends Random {
 
     private long state;
-    private static MagicRandom RNG = new MagicRandom();
 
-    static {
-        final String seedStr = System.getProperty("rndSeed");
-        if (seedStr != null) {
-            RNG.setState(Long.parseLong(seedStr));
-        } else {
-            RNG.setState(System.nanoTime());
-        }
-        System.err.println("Using random seed " + RNG.getState());
-    }
+    private static final long SEED = System.getProperty("rndSeed") != null ?
+        Long.parseLong(System.getProperty("rndSeed")) :
+        System.nanoTime();
+
+    // each thread has its own generator, which starts from the seed whatever
+    // the order in which threads first use it. Threads that play games at the
+    // same time are given a stream of their own for each duel, see setRNGStream.
+    private static final ThreadLocal<MagicRandom> RNG = ThreadLocal.withInitial(() -> new MagicRandom(SEED));
 
-    private MagicRandom() {
-        this(System.nanoTime());
+    static {
+        System.err.println("Using random seed " + RNG.get().getState());
     }
 
     public MagicRandom(final long aState) {
@@ -47,15 +45,36 @@ public class MagicRandom extends Random {
         return state;
     }
 
+    /** Sets the state of the generator of the current thread. */
     public static void setRNGState(final long state) {
-        RNG.setState(state);
+        RNG.get().setState(state);
+    }
+
+    /**
+     * Sets the generator of the current thread to the given stream of seed, such
+     * as the stream of a duel numbered by the order in which duels are started.
+     */
+    public static void setRNGStream(final long seed, final long stream) {
+        RNG.get().setState(split(seed, stream));
     }
 
     public static int nextRNGInt(final int n) {
-        return RNG.nextInt(n);
+        return RNG.get().nextInt(n);
     }
 
     public static int nextRNGInt() {
-        return RNG.nextInt(Integer.MAX_VALUE);
+        return RNG.get().nextInt(Integer.MAX_VALUE);
+    }
+
+    public static long nextRNGLong() {
+        return RNG.get().nextLong();
+    }
+
+    /**
+     * Derives the seed of an independent stream from seed, distinct streams of the
+     * same seed give unrelated sequences (as in SplitMix).
+     */
+    public static long split(final long seed, final long stream) {
+        return MurmurHash3.fmix(seed + (stream + 1) * 0x9E3779B97F4A7C15L);
     }
 }
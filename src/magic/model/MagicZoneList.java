@@ -0,0 +1,118 @@
+package magic.model;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * The cards of a zone of a player, such as the hand or the library. Every
+ * change is counted by the game, also when the list is changed directly
+ * rather than by an action, so that MagicGame.update is not skipped.
+ */
+@SuppressWarnings("serial")
+final class MagicZoneList extends MagicCardList {
+
+    private final MagicPlayer player;
+
+    MagicZoneList(final MagicPlayer aPlayer) {
+        player = aPlayer;
+    }
+
+    MagicZoneList(final MagicCopyMap copyMap, final MagicPlayer aPlayer, final List<MagicCard> cardList) {
+        super(copyMap, cardList);
+        player = aPlayer;
+    }
+
+    private void changed() {
+        // null while the super constructor copies the cards
+        if (player != null) {
+            player.stateChanged();
+        }
+    }
+
+    @Override
+    public boolean add(final MagicCard card) {
+        changed();
+        return super.add(card);
+    }
+
+    @Override
+    public void add(final int index, final MagicCard card) {
+        changed();
+        super.add(index, card);
+    }
+
+    @Override
+    public boolean addAll(final Collection<? extends MagicCard> cards) {
+        changed();
+        return super.addAll(cards);
+    }
+
+    @Override
+    public boolean addAll(final int index, final Collection<? extends MagicCard> cards) {
+        changed();
+        return super.addAll(index, cards);
+    }
+
+    @Override
+    public MagicCard set(final int index, final MagicCard card) {
+        changed();
+        return super.set(index, card);
+    }
+
+    @Override
+    public MagicCard remove(final int index) {
+        changed();
+        return super.remove(index);
+    }
+
+    @Override
+    public boolean remove(final Object card) {
+        changed();
+        return super.remove(card);
+    }
+
+    @Override
+    public boolean removeAll(final Collection<?> cards) {
+        changed();
+        return super.removeAll(cards);
+    }
+
+    @Override
+    public boolean retainAll(final Collection<?> cards) {
+        changed();
+        return super.retainAll(cards);
+    }
+
+    @Override
+    public boolean removeIf(final Predicate<? super MagicCard> filter) {
+        changed();
+        return super.removeIf(filter);
+    }
+
+    @Override
+    public void replaceAll(final UnaryOperator<MagicCard> operator) {
+        changed();
+        super.replaceAll(operator);
+    }
+
+    @Override
+    public void sort(final Comparator<? super MagicCard> comparator) {
+        changed();
+        super.sort(comparator);
+    }
+
+    @Override
+    protected void removeRange(final int fromIndex, final int toIndex) {
+        changed();
+        super.removeRange(fromIndex, toIndex);
+    }
+
+    @Override
+    public void clear() {
+        changed();
+        super.clear();
+    }
+}
@@ -61,7 +61,13 @@ public class MurmurHash3 {
       state.c2 = state.c2 * 5 + 0x6bce6396;
    }
 
-   static long fmix(long k) {
+   /**
+    * Mixes the bits of a value, the finalization step of MurmurHash3
+    *
+    * @param k value to mix
+    * @return mixed value
+    */
+   public static long fmix(long k) {
       k ^= k >>> 33;
       k *= 0xff51afd7ed558ccdL;
       k ^= k >>> 33;
@@ -1,7 +1,7 @@
 package magic.model.action;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
 
 @SuppressWarnings("serial")
-public class MagicActionList extends LinkedList<MagicAction> {
+public class MagicActionList extends ArrayDeque<MagicAction> {
 }
@@ -7,7 +7,14 @@ import magic.model.event.MagicActivationPriority;
 import magic.model.phase.MagicPhase;
 import magic.model.phase.MagicStep;
 
-public class MarkerAction extends MagicAction {
+/**
+ * Game state saved by MagicGame.snapshot that is not restored by undoing actions,
+ * together with the number of actions done before the snapshot. Frames are reused
+ * by the game for later snapshots.
+ */
+public class MarkerFrame {
+
+    private int mark;
 
     private MagicPlayer oldTurnPlayer;
     private MagicPhase oldPhase;
@@ -20,6 +27,7 @@ public class MarkerAction extends MagicAction {
     private boolean oldPriorityPassed;
     private int oldPriorityPassedCount;
     private boolean oldStateCheckRequired;
+    private long oldRNGState;
 
     private MagicPayedCost oldPayedCost;
 
@@ -29,11 +37,15 @@ public class MarkerAction extends MagicAction {
     private int oldNonCreatureSpellsCast2;
     private int oldSpellsCastLastTurn1;
     private int oldSpellsCastLastTurn2;
-    private MagicActivationPriority oldActivationPriority1;
-    private MagicActivationPriority oldActivationPriority2;
+    private final MagicActivationPriority oldActivationPriority1 = new MagicActivationPriority();
+    private final MagicActivationPriority oldActivationPriority2 = new MagicActivationPriority();
+
+    public int getMark() {
+        return mark;
+    }
 
-    @Override
-    public void doAction(final MagicGame game) {
+    public void save(final MagicGame game, final int aMark) {
+        mark=aMark;
         oldTurnPlayer=game.getTurnPlayer();
         oldPhase=game.getPhase();
         oldStep=game.getStep();
@@ -45,23 +57,21 @@ public class MarkerAction extends MagicAction {
         oldPriorityPassed=game.getPriorityPassed();
         oldPriorityPassedCount=game.getPriorityPassedCount();
         oldStateCheckRequired=game.getStateCheckRequired();
+        oldRNGState=game.getRNGState();
         oldPayedCost=game.getPayedCost();
         final MagicPlayer player1=game.getPlayer(0);
-        oldActivationPriority1=player1.getActivationPriority();
-        player1.setActivationPriority(new MagicActivationPriority(oldActivationPriority1));
+        oldActivationPriority1.set(player1.getActivationPriority());
         oldSpellsCast1=player1.getSpellsCast();
         oldNonCreatureSpellsCast1=player1.getNonCreatureSpellsCast();
         oldSpellsCastLastTurn1=player1.getSpellsCastLastTurn();
         final MagicPlayer player2=game.getPlayer(1);
-        oldActivationPriority2=player2.getActivationPriority();
-        player2.setActivationPriority(new MagicActivationPriority(oldActivationPriority2));
+        oldActivationPriority2.set(player2.getActivationPriority());
         oldSpellsCast2=player2.getSpellsCast();
         oldNonCreatureSpellsCast2=player2.getNonCreatureSpellsCast();
         oldSpellsCastLastTurn2=player2.getSpellsCastLastTurn();
     }
 
-    @Override
-    public void undoAction(final MagicGame game) {
+    public void restore(final MagicGame game) {
         game.setTurnPlayer(oldTurnPlayer);
         game.setPhase(oldPhase);
         game.setStep(oldStep);
@@ -73,18 +83,23 @@ public class MarkerAction extends MagicAction {
         game.setPriorityPassed(oldPriorityPassed);
         game.setPriorityPassedCount(oldPriorityPassedCount);
         game.setStateCheckRequired(oldStateCheckRequired);
+        game.setRNGState(oldRNGState);
         game.setPayedCost(oldPayedCost);
         final MagicPlayer player1=game.getPlayer(0);
-        player1.setActivationPriority(oldActivationPriority1);
+        player1.getActivationPriority().set(oldActivationPriority1);
         player1.setSpellsCast(oldSpellsCast1);
         player1.setNonCreatureSpellsCast(oldNonCreatureSpellsCast1);
         player1.setSpellsCastLastTurn(oldSpellsCastLastTurn1);
         final MagicPlayer player2=game.getPlayer(1);
-        player2.setActivationPriority(oldActivationPriority2);
+        player2.getActivationPriority().set(oldActivationPriority2);
         player2.setSpellsCast(oldSpellsCast2);
         player2.setNonCreatureSpellsCast(oldNonCreatureSpellsCast2);
         player2.setSpellsCastLastTurn(oldSpellsCastLastTurn2);
 
+        // drop references into the abandoned line of play
+        oldTurnPlayer=null;
+        oldPayedCost=null;
+
         game.update();
     }
 }
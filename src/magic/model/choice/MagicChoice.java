@@ -11,7 +11,6 @@ import magic.exception.UndoClickedException;
 import magic.model.IUIGameController;
 import magic.model.MagicGame;
 import magic.model.MagicPlayer;
-import magic.model.MagicRandom;
 import magic.model.MagicSource;
 import magic.model.event.MagicEvent;
 import magic.model.target.MagicTargetNone;
@@ -118,7 +117,7 @@ public abstract class MagicChoice {
         if (size == 0) {
             throw new GameException("no simulation choice result", game);
         }
-        return choices.get(MagicRandom.nextRNGInt(choices.size()));
+        return choices.get(game.nextRNGInt(choices.size()));
     }
 
     /** Gets the choice results of the player. */
@@ -11,7 +11,6 @@ import magic.model.MagicGame;
 import magic.model.MagicPermanent;
 import magic.model.MagicPermanentState;
 import magic.model.MagicPlayer;
-import magic.model.MagicRandom;
 import magic.model.MagicSource;
 import magic.model.event.MagicEvent;
 import magic.translate.StringContext;
@@ -45,7 +44,7 @@ public class MagicDeclareAttackersChoice extends MagicChoice {
         if (builder.buildAttackers()) {
             for (final MagicCombatCreature attacker : builder.getAttackers()) {
                 if (attacker.hasAbility(MagicAbility.AttacksEachTurnIfAble) ||
-                    MagicRandom.nextRNGInt(2) == 1) {
+                    game.nextRNGInt(2) == 1) {
                     //creatures must attack OR
                     //creature has 50% chance of attacking
                     result.add(attacker.permanent);
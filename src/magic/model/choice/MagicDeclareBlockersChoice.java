@@ -13,7 +13,6 @@ import magic.model.MagicPermanent;
 import magic.model.MagicPermanentList;
 import magic.model.MagicPermanentState;
 import magic.model.MagicPlayer;
-import magic.model.MagicRandom;
 import magic.model.MagicSource;
 import magic.model.event.MagicEvent;
 
@@ -126,6 +125,15 @@ public class MagicDeclareBlockersChoice extends MagicChoice {
         return new Object[]{result};
     }
 
+    private static boolean containsCreature(final MagicCombatCreature[] creatures, final MagicCombatCreature creature) {
+        for (final MagicCombatCreature other : creatures) {
+            if (other == creature) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public Object[] getSimulationChoiceResult(final MagicGame game, final MagicEvent event) {
         final MagicPlayer player = event.getPlayer();
@@ -143,20 +151,54 @@ public class MagicDeclareBlockersChoice extends MagicChoice {
             return new Object[]{result};
         }
 
-        final Set<MagicPermanent> blockers = builder.getCandidateBlockers();
-        for (final MagicPermanent blocker : blockers) {
-            final MagicPermanent[] attackers = builder.getBlockableAttackers(blocker).toArray(new MagicPermanent[0]);
-            //choose one of the attackers or don't block
-            final int idx = MagicRandom.nextRNGInt(attackers.length + 1);
-            if (idx < attackers.length) {
-                final MagicPermanent attacker = attackers[idx];
-                attacker.addBlockingCreature(blocker);
-                blocker.setState(MagicPermanentState.Blocking);
-                blocker.setBlockedCreature(attacker);
+        // each candidate blocker blocks one of the attackers it can block or none,
+        // drawn without changing the permanents
+        final MagicCombatCreature[] attackers = builder.getAttackers().toArray(new MagicCombatCreature[0]);
+        final List<MagicCombatCreature> blockers = new ArrayList<>();
+        for (final MagicCombatCreature attacker : attackers) {
+            for (final MagicCombatCreature blocker : attacker.candidateBlockers) {
+                if (!blockers.contains(blocker)) {
+                    blockers.add(blocker);
+                }
+            }
+        }
+        final int[] blocked = new int[blockers.size()];
+        final int[] blockerCount = new int[attackers.length];
+        for (int i = 0; i < blocked.length; i++) {
+            final MagicCombatCreature blocker = blockers.get(i);
+            int count = 0;
+            for (final MagicCombatCreature attacker : attackers) {
+                if (containsCreature(attacker.candidateBlockers, blocker)) {
+                    count++;
+                }
+            }
+            int idx = game.nextRNGInt(count + 1);
+            blocked[i] = -1;
+            for (int j = 0; j < attackers.length && idx < count; j++) {
+                if (containsCreature(attackers[j].candidateBlockers, blocker)) {
+                    if (idx == 0) {
+                        blocked[i] = j;
+                        blockerCount[j]++;
+                        break;
+                    }
+                    idx--;
+                }
+            }
+        }
+        for (int j = 0; j < attackers.length; j++) {
+            if (blockerCount[j] > 0) {
+                final MagicCombatCreature[] creatures = new MagicCombatCreature[blockerCount[j] + 1];
+                creatures[0] = attackers[j];
+                int size = 1;
+                for (int i = 0; i < blocked.length; i++) {
+                    if (blocked[i] == j) {
+                        creatures[size++] = blockers.get(i);
+                    }
+                }
+                result.add(creatures);
             }
         }
 
-        buildResult(builder,result);
         return new Object[]{result};
     }
 
@@ -1,12 +1,8 @@
 package magic.model.choice;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import magic.model.MagicGame;
@@ -25,10 +21,15 @@ public class MagicDeclareBlockersResultBuilder {
     private static final Collection<Object> EMPTY_RESULT =
         Collections.<Object>singletonList(new MagicDeclareBlockersResult(0,0));
     private static final int MAX_RESULTS=12;
-    private static final int MAX_ATTACKERS=3;
+    // blocks are scored by simulating combat on a copy of the game up to this
+    // many attackers, enumerating them no longer allocates a result per block
+    private static final int MAX_ATTACKERS=4;
     private static final int MAX_TURN=1;
-    private static final double MIN_WARN    = 1e5;
+    private static final double MIN_WARN    = 1e6;
+    // simulating combat dominates the cost of a block, so the game combat score
+    // keeps the old threshold, the fast combat score enumerates ten times more
     private static final double MIN_SWITCH  = 1e5;
+    private static final double MIN_SWITCH_FAST = 1e6;
     private static final double NUM_SAMPLES = 1e4;
 
     private final MagicGame game;
@@ -42,6 +43,12 @@ public class MagicDeclareBlockersResultBuilder {
     private Set<MagicCombatCreature> blockers;
     private int position;
 
+    // per attacker arrays reused by buildBlockersForAttacker, results copy what they keep
+    private MagicCombatCreature[][] unblocked;
+    private MagicCombatCreature[][] candidateBlockers;
+    private MagicCombatCreature[][] creatures;
+    private int[][] blockerSteps;
+
     MagicDeclareBlockersResultBuilder(final MagicGame game,final MagicPlayer defendingPlayer,final boolean fast) {
         this.game=game;
         this.defendingPlayer=defendingPlayer;
@@ -58,44 +65,72 @@ public class MagicDeclareBlockersResultBuilder {
     private void buildBlockersFast() {
         System.err.println("Running randomized blocking algorithm");
 
+        // for each blocker the indices of the attackers it can block
+        final MagicCombatCreature[] blockerArray = blockers.toArray(new MagicCombatCreature[0]);
+        final int[][] blockable = new int[blockerArray.length][];
+        for (int i = 0; i < blockerArray.length; i++) {
+            final int[] choices = new int[attackers.length];
+            int size = 0;
+            for (int j = 0; j < attackers.length; j++) {
+                if (Arrays.asList(attackers[j].candidateBlockers).contains(blockerArray[i])) {
+                    choices[size++] = j;
+                }
+            }
+            blockable[i] = Arrays.copyOf(choices, size);
+        }
+
+        final MagicFastCombatScore fastScore = combatScore instanceof MagicFastCombatScore ?
+            (MagicFastCombatScore)combatScore : null;
+
         //sample NUM_SAMPLES random blocks
         final MagicRandom rng = new MagicRandom(attackers.length + blockers.size());
+        final int[] blocked = new int[blockerArray.length];
         for (int i = 0; i < NUM_SAMPLES; i++) {
-            final Map<Integer, List<MagicCombatCreature>> block =
-                    new HashMap<>();
-            for (int j = 0; j < attackers.length; j++) {
-                block.put(j, new ArrayList<>(5));
-                block.get(j).add(attackers[j]);
-            }
-            for (final MagicCombatCreature blocker : blockers) {
-                //determine attackers it can block
-                final List<Integer> choices = new ArrayList<>();
-                for (int j = 0; j < attackers.length; j++) {
-                    if (Arrays.asList(attackers[j].candidateBlockers).contains(blocker)) {
-                        choices.add(j);
-                    }
-                }
+            for (int j = 0; j < blockerArray.length; j++) {
                 //choose one of the attackers or don't block
-                final int idx = rng.nextInt(choices.size() + 1);
-                if (idx < choices.size()) {
-                    block.get(choices.get(idx)).add(blocker);
-                }
+                final int idx = rng.nextInt(blockable[j].length + 1);
+                blocked[j] = idx < blockable[j].length ? blockable[j][idx] : -1;
             }
 
-            //convert block to a MagicDeclareBlockersResult object
-            result.clear();
-            for (int j = 0; j < attackers.length; j++) {
-                result.add(block.get(j).toArray(new MagicCombatCreature[0]));
+            //score result, only building it for a game score or when it is kept
+            final int score;
+            if (fastScore != null) {
+                score = fastScore.getScore(attackers, blockerArray, blocked);
+            } else {
+                setResult(blockerArray, blocked);
+                score = combatScore.getScore(result);
             }
-
-            //score result
-            final int score=combatScore.getScore(result);
             if (results.addScore(score)) {
+                if (fastScore != null) {
+                    setResult(blockerArray, blocked);
+                }
                 results.addScoreResult(new MagicDeclareBlockersResult(result,position++,score));
             }
         }
     }
 
+    //convert a block to the MagicDeclareBlockersResult in result
+    private void setResult(final MagicCombatCreature[] blockerArray, final int[] blocked) {
+        result.clear();
+        for (int j = 0; j < attackers.length; j++) {
+            int size = 1;
+            for (final int attacker : blocked) {
+                if (attacker == j) {
+                    size++;
+                }
+            }
+            final MagicCombatCreature[] creatures = new MagicCombatCreature[size];
+            creatures[0] = attackers[j];
+            size = 1;
+            for (int k = 0; k < blockerArray.length; k++) {
+                if (blocked[k] == j) {
+                    creatures[size++] = blockerArray[k];
+                }
+            }
+            result.add(creatures);
+        }
+    }
+
     private void buildBlockersForAttacker(final int index) {
 
         // A new result is found.
@@ -109,7 +144,7 @@ public class MagicDeclareBlockersResultBuilder {
 
         // Get the remaining candidate blockers.
         final MagicCombatCreature attacker=attackers[index];
-        final MagicCombatCreature[] candidateBlockers=new MagicCombatCreature[attacker.candidateBlockers.length];
+        final MagicCombatCreature[] candidateBlockers=this.candidateBlockers[index];
         int blockersSize=0;
         for (final MagicCombatCreature blocker : attacker.candidateBlockers) {
             if (blockers.contains(blocker)) {
@@ -118,7 +153,7 @@ public class MagicDeclareBlockersResultBuilder {
         }
 
         // No blockers.
-        result.addLast(new MagicCombatCreature[]{attacker});
+        result.addLast(unblocked[index]);
         buildBlockersForAttacker(index+1);
         result.removeLast();
         if (blockersSize == 0) {
@@ -153,10 +188,10 @@ public class MagicDeclareBlockersResultBuilder {
         }
 
         // All combinations of blockers that deal lethal damage to the attacker.
-        final MagicCombatCreature[] creatures = new MagicCombatCreature[blockersSize+1];
+        final MagicCombatCreature[] creatures = this.creatures[index];
         creatures[0] = attacker;
         int size = 1;
-        final int[] blockerSteps = new int[blockersSize];
+        final int[] blockerSteps = this.blockerSteps[index];
         final int lastBlockerIndex = blockersSize-1;
         int blockerIndex = 0;
         MagicCombatCreature blocker;
@@ -237,9 +272,22 @@ public class MagicDeclareBlockersResultBuilder {
             System.err.println("WARNING. Number of blocking options is " + max_blocks);
         }
 
-        if (max_blocks > MIN_SWITCH) {
+        final double minSwitch = combatScore instanceof MagicFastCombatScore ? MIN_SWITCH_FAST : MIN_SWITCH;
+        if (max_blocks > minSwitch) {
             buildBlockersFast();
         } else {
+            final int size = attackers.length;
+            unblocked = new MagicCombatCreature[size][];
+            candidateBlockers = new MagicCombatCreature[size][];
+            creatures = new MagicCombatCreature[size][];
+            blockerSteps = new int[size][];
+            for (int index = 0; index < size; index++) {
+                final int length = attackers[index].candidateBlockers.length;
+                unblocked[index] = new MagicCombatCreature[]{attackers[index]};
+                candidateBlockers[index] = new MagicCombatCreature[length];
+                creatures[index] = new MagicCombatCreature[length + 1];
+                blockerSteps[index] = new int[length];
+            }
             buildBlockersForAttacker(0);
         }
     }
@@ -14,7 +14,6 @@ import magic.model.MagicGame;
 import magic.model.MagicManaCost;
 import magic.model.MagicPermanent;
 import magic.model.MagicPlayer;
-import magic.model.MagicRandom;
 import magic.model.MagicSource;
 import magic.model.event.MagicEvent;
 import magic.translate.MText;
@@ -54,12 +53,18 @@ public class MagicPayManaCostChoice extends MagicChoice {
             new MagicPayManaCostResultBuilder(game,player,cost.getBuilderCost()).getResults();
     }
 
+    private int getMaximumX(final MagicGame game,final MagicPlayer player) {
+        final int maxX=player.getMaximumX(game,cost);
+        if (maxX <= 0) {
+            throw new GameException("Unable to pay for {X} in " + cost + " as maxX = " + maxX, game);
+        }
+        return maxX;
+    }
+
     private Collection<Object> buildDelayedPayManaCostResults(final MagicGame game,final MagicPlayer player) {
         if (cost.hasX()) {
-            final int maxX=player.getMaximumX(game,cost);
-            if (maxX <= 0) {
-                throw new GameException("Unable to pay for {X} in " + cost + " as maxX = " + maxX, game);
-            } else if (maxX == 1) {
+            final int maxX=getMaximumX(game,player);
+            if (maxX == 1) {
                 return Collections.<Object>singletonList(new MagicDelayedPayManaCostResult(cost,1));
             } else {
                 final List<Object> choices= new ArrayList<>();
@@ -94,9 +99,13 @@ public class MagicPayManaCostChoice extends MagicChoice {
     @Override
     public Object[] getSimulationChoiceResult(final MagicGame game, final MagicEvent event) {
         final MagicPlayer player = event.getPlayer();
-        //in simulation use delayed pay mana cost
-        final List<Object> choices = (List<Object>)buildDelayedPayManaCostResults(game,player);
-        return new Object[]{choices.get(MagicRandom.nextRNGInt(choices.size()))};
+        //in simulation use delayed pay mana cost, with X drawn from 1 to maxX
+        if (cost.hasX()) {
+            final int maxX=getMaximumX(game,player);
+            return new Object[]{new MagicDelayedPayManaCostResult(cost,1+game.nextRNGInt(maxX))};
+        } else {
+            return new Object[]{new MagicDelayedPayManaCostResult(cost,0)};
+        }
     }
 
     @Override
@@ -19,23 +19,99 @@ import magic.model.event.MagicSourceManaActivation;
 public class MagicPayManaCostResultBuilder {
 
     private final MagicGame game;
+    private final MagicPlayer player;
     private final MagicBuilderManaCost cost;
-    private final List<MagicSourceManaActivation> activations;
+    private List<MagicSourceManaActivation> activations;
     private MagicCostManaType[] types;
     private int[] amounts;
     private int activationsSize;
     private Map<MagicBuilderPayManaCostResult,MagicBuilderPayManaCostResult> results;
+    private MagicSourceManaActivation[][] typeActivations;
+    private MagicManaType[][] producedTypes;
+    private int[] masks;
 
     public MagicPayManaCostResultBuilder(final MagicGame aGame,final MagicPlayer aPlayer,final MagicBuilderManaCost aCost) {
         game = aGame;
+        player = aPlayer;
         cost = aCost;
-        activations = aPlayer.getManaActivations(game);
-        activationsSize = activations.size();
         types = cost.getTypes();
         amounts = cost.getAmounts();
     }
 
+    // the activations are only created when the cost cannot be checked from the mana type masks of the player
+    private List<MagicSourceManaActivation> getActivations() {
+        if (activations == null) {
+            activations = player.getManaActivations(game);
+            activationsSize = activations.size();
+        }
+        return activations;
+    }
+
+    /**
+     * Checks whether sources with the given mana type masks can pay for the
+     * cost types from index on, each source paying for one mana. By Hall's
+     * theorem this is the case when no set of cost types needs more mana than
+     * the number of sources that can pay for at least one of them. Negative
+     * amounts count as zero, so the check is only exact without them.
+     */
+    private boolean isPayable(final int[] sourceMasks, final int index) {
+        final int size = types.length - index;
+        if (size > 16) {
+            return true;
+        }
+        for (int subset = 1; subset < (1 << size); subset++) {
+            int needed = 0;
+            int typesMask = 0;
+            for (int i = 0; i < size; i++) {
+                if ((subset & (1 << i)) != 0) {
+                    needed += Math.max(amounts[index + i], 0);
+                    typesMask |= types[index + i].getManaTypeMask();
+                }
+            }
+            int sources = 0;
+            for (int i = 0; i < sourceMasks.length && sources < needed; i++) {
+                if ((sourceMasks[i] & typesMask) != 0) {
+                    sources++;
+                }
+            }
+            if (sources < needed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int[] getAvailableMasks() {
+        if (masks == null || masks.length != activationsSize) {
+            masks = new int[activationsSize];
+        }
+        for (int i = 0; i < activationsSize; i++) {
+            masks[i] = activations.get(i).getManaTypeMask();
+        }
+        return masks;
+    }
+
+    private void initBuild() {
+        getActivations();
+        typeActivations = new MagicSourceManaActivation[types.length][activationsSize];
+        producedTypes = new MagicManaType[types.length][activationsSize];
+    }
+
+    private boolean hasNegativeAmount() {
+        for (final int amount : amounts) {
+            if (amount < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private boolean build(final int index,final boolean single) {
+        // prune branches where the remaining cost cannot be paid
+        if (!single && index < types.length && !isPayable(getAvailableMasks(), index)) {
+            return false;
+        }
+
         // base case: valid result is reached.
         if (index == types.length) {
             if (single) {
@@ -55,8 +131,8 @@ public class MagicPayManaCostResultBuilder {
 
         // Generate all available activations for mana cost type.
         final MagicCostManaType costManaType = types[index];
-        final MagicSourceManaActivation[] typeActivations = new MagicSourceManaActivation[activationsSize];
-        final MagicManaType[] producedTypes = new MagicManaType[activationsSize];
+        final MagicSourceManaActivation[] typeActivations = this.typeActivations[index];
+        final MagicManaType[] producedTypes = this.producedTypes[index];
         int typeActivationSize = 0;
         for (final MagicSourceManaActivation activation : activations) {
             final MagicManaType manaType = activation.canProduce(costManaType);
@@ -150,6 +226,19 @@ public class MagicPayManaCostResultBuilder {
     }
 
     public boolean hasResults() {
+        if (!hasNegativeAmount()) {
+            if (activations == null) {
+                // the player's mana type masks are kept until the game changes
+                return isPayable(player.getManaTypeMasks(game), 0);
+            }
+            return isPayable(getAvailableMasks(), 0);
+        }
+        return searchResults();
+    }
+
+    /** Same as hasResults, by searching the assignments of the sources to the cost. */
+    boolean searchResults() {
+        initBuild();
         // Check if there are enough mana sources.
         if (cost.getMinimumAmount() > activationsSize) {
             return false;
@@ -159,6 +248,7 @@ public class MagicPayManaCostResultBuilder {
 
     /** Finds all possible options to pay the cost for AI. */
     Collection<Object> getResults() {
+        initBuild();
         for (final MagicSourceManaActivation activation : activations) {
             activation.available = true;
         }
@@ -176,7 +266,7 @@ public class MagicPayManaCostResultBuilder {
 
         final Set<MagicPermanent> manaSources = new HashSet<>();
         final Set<Integer> manaIds = new HashSet<>();
-        for (final MagicSourceManaActivation currentActivation : activations) {
+        for (final MagicSourceManaActivation currentActivation : getActivations()) {
             currentActivation.available = true;
             if (currentActivation.canProduce(type).isValid()) {
                 for (final MagicSourceManaActivation activation : activations) {
@@ -205,7 +295,7 @@ public class MagicPayManaCostResultBuilder {
         sourceActivation.produce(game,type);
 
         // Remove permanent for available sources.
-        for (final Iterator<MagicSourceManaActivation> iterator = activations.iterator(); iterator.hasNext();) {
+        for (final Iterator<MagicSourceManaActivation> iterator = getActivations().iterator(); iterator.hasNext();) {
             final MagicSourceManaActivation activation = iterator.next();
             if (activation.permanent == permanent) {
                 iterator.remove();
@@ -217,7 +307,7 @@ public class MagicPayManaCostResultBuilder {
 
     /** Works only for all the remaining generic mana. */
     boolean useAllManaSources(final MagicCostManaType type) {
-        if (activationsSize > cost.getMinimumAmount() || type != MagicCostManaType.Generic) {
+        if (getActivations().size() > cost.getMinimumAmount() || type != MagicCostManaType.Generic) {
             return false;
         }
         for (final MagicSourceManaActivation activation : activations) {
@@ -230,6 +320,6 @@ public class MagicPayManaCostResultBuilder {
     }
 
     public int getActivationsSize() {
-        return activationsSize;
+        return getActivations().size();
     }
 }
@@ -2,6 +2,8 @@ package magic.model.choice;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import magic.data.GeneralConfig;
@@ -439,11 +441,31 @@ public class MagicTargetChoice extends MagicChoice {
     final Collection<?> getArtificialOptions(final MagicGame game, final MagicEvent event) {
         final MagicPlayer player = event.getPlayer();
         final MagicSource source = event.getSource();
-        Collection<MagicTarget> targets = game.getLegalTargets(player,source,this,targetHint);
+        return pickTargets(game, event, game.getLegalTargets(player,source,this,targetHint));
+    }
+
+    /** Draws one of the targets that getArtificialOptions returns, without copying the legal targets. */
+    @Override
+    public Object[] getSimulationChoiceResult(final MagicGame game, final MagicEvent event) {
+        final MagicPlayer player = event.getPlayer();
+        final MagicSource source = event.getSource();
+        final Collection<MagicTarget> targets = pickTargets(game, event, game.getSharedLegalTargets(player,source,this,targetHint));
+        final int idx = game.nextRNGInt(targets.size());
+        if (targets instanceof List) {
+            return new Object[]{((List<MagicTarget>)targets).get(idx)};
+        }
+        final Iterator<MagicTarget> iterator = targets.iterator();
+        for (int i = 0; i < idx; i++) {
+            iterator.next();
+        }
+        return new Object[]{iterator.next()};
+    }
+
+    private static Collection<MagicTarget> pickTargets(final MagicGame game, final MagicEvent event, final Collection<MagicTarget> targets) {
         if (game.getFastTarget()) {
             @SuppressWarnings("unchecked")
             final MagicTargetPicker<MagicTarget> targetPicker = (MagicTargetPicker<MagicTarget>)event.getTargetPicker();
-            targets = targetPicker.pickTargets(game,event,targets);
+            return targetPicker.pickTargets(game,event,targets);
         }
         return targets;
     }
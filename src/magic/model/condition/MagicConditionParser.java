@@ -10,6 +10,7 @@ import magic.model.MagicAbility;
 import magic.model.MagicCard;
 import magic.model.MagicColor;
 import magic.model.MagicCounterType;
+import magic.model.MagicPatternIndex;
 import magic.model.MagicPermanent;
 import magic.model.MagicSubType;
 import magic.model.event.MagicMatchedCostEvent;
@@ -819,6 +820,9 @@ public enum MagicConditionParser {
 
     public abstract MagicCondition toCondition(final Matcher arg);
 
+    private static final MagicPatternIndex<MagicConditionParser> INDEX =
+        new MagicPatternIndex<>(values(), rule -> rule.pattern);
+
     public static final MagicCondition build(final String cost) {
         final boolean aiOnly = cost.startsWith("with AI ");
         final String processed = cost
@@ -826,12 +830,10 @@ public enum MagicConditionParser {
             .replaceFirst("^only ", "")
             .replaceFirst("^if ", "")
             .replaceFirst("\\.$", "");
-        for (final MagicConditionParser rule : values()) {
-            final Matcher matcher = rule.matcher(processed);
-            if (matcher.matches()) {
-                final MagicCondition cond = rule.toCondition(matcher);
-                return aiOnly ? new MagicArtificialCondition(cond) : cond;
-            }
+        final MagicPatternIndex.Match<MagicConditionParser> match = INDEX.match(processed);
+        if (match != null) {
+            final MagicCondition cond = match.item.toCondition(match.matcher);
+            return aiOnly ? new MagicArtificialCondition(cond) : cond;
         }
         throw new RuntimeException("unknown condition \"" + cost + "\"");
     }
@@ -14,6 +14,11 @@ public class MagicActivationPriority {
         activationId = abilityPriority.activationId;
     }
 
+    public void set(final MagicActivationPriority abilityPriority) {
+        priority = abilityPriority.priority;
+        activationId = abilityPriority.activationId;
+    }
+
     public void clear() {
         priority = -1;
         activationId = -1;
@@ -21,6 +21,7 @@ import magic.model.MagicGame;
 import magic.model.MagicLocationType;
 import magic.model.MagicManaCost;
 import magic.model.MagicMessage;
+import magic.model.MagicPatternIndex;
 import magic.model.MagicPermanent;
 import magic.model.MagicPermanentList;
 import magic.model.MagicPermanentState;
@@ -3559,11 +3560,13 @@ public enum MagicRuleEventAction {
         return capitalize(playerRule);
     }
 
+    private static final MagicPatternIndex<MagicRuleEventAction> INDEX =
+        new MagicPatternIndex<>(values(), ruleAction -> ruleAction.pattern);
+
     public static MagicRuleEventAction match(final String rule) {
-        for (final MagicRuleEventAction ruleAction : MagicRuleEventAction.values()) {
-            if (ruleAction.matches(rule)) {
-                return ruleAction;
-            }
+        final MagicRuleEventAction ruleAction = INDEX.find(rule);
+        if (ruleAction != null) {
+            return ruleAction;
         }
         throw new RuntimeException("unknown effect \"" + rule + "\"");
     }
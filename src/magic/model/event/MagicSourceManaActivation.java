@@ -57,6 +57,19 @@ public class MagicSourceManaActivation {
         return MagicManaType.NONE;
     }
 
+    /** Returns the mana types this source can produce as a mask of their ordinals, 0 if it is not available. */
+    public int getManaTypeMask() {
+        int mask = 0;
+        if (available) {
+            for (int i = 0; i < activations.length; i++) {
+                if (activations[i] != null) {
+                    mask |= 1 << i;
+                }
+            }
+        }
+        return mask;
+    }
+
     public void produce(final MagicGame game,final MagicCostManaType costManaType) {
         MagicManaActivation bestManaActivation=null;
         for (final MagicManaType tManaType : costManaType.getTypes()) {
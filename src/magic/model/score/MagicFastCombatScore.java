@@ -21,42 +21,76 @@ public class MagicFastCombatScore implements MagicCombatScore {
     @Override
     public int getScore(final MagicDeclareBlockersResult result) {
 
-        final int startLife=defendingPlayer.getLife();
-        int score=-ArtificialScoringSystem.getLifeScore(startLife);
-        int life=startLife;
+        final int[] life={defendingPlayer.getLife()};
+        int score=-ArtificialScoringSystem.getLifeScore(life[0]);
         for (final MagicCombatCreature[] creatures : result) {
+            score+=getScore(creatures,creatures.length,life);
+        }
+        return getScore(score,life[0]);
+    }
 
-            final MagicCombatCreature attacker=creatures[0];
-            if (creatures.length==1) {
-                life-=attacker.power;
-            } else {
-                int remaining=attacker.power;
-                int lethalDamage=attacker.lethalDamage;
-                final boolean deathtouch=attacker.hasAbility(MagicAbility.Deathtouch);
-                for (int index=1;index<creatures.length;index++) {
-
-                    final MagicCombatCreature blocker=creatures[index];
-                    lethalDamage=blocker.hasAbility(MagicAbility.Deathtouch)?0:lethalDamage-blocker.power;
-                    if (blocker.hasAbility(MagicAbility.Lifelink)) {
-                        life+=blocker.power;
-                    }
-                    if (remaining>0) {
-                        final int damage=Math.min(deathtouch?1:remaining,blocker.lethalDamage);
-                        if ((deathtouch||damage>=blocker.lethalDamage)&&!blocker.hasAbility(MagicAbility.Indestructible)) {
-                            score-=blocker.score;
-                        }
-                        remaining-=damage;
-                    }
+    /**
+     * Same as getScore for the result where each of the blockers blocks the
+     * attacker at index blocked[i], or nothing when it is -1. The blockers
+     * of an attacker are ordered by their index. No result is built, so
+     * that many random blocks can be scored cheaply.
+     */
+    public int getScore(final MagicCombatCreature[] attackers,final MagicCombatCreature[] blockers,final int[] blocked) {
+
+        final int[] life={defendingPlayer.getLife()};
+        int score=-ArtificialScoringSystem.getLifeScore(life[0]);
+        final MagicCombatCreature[] block=new MagicCombatCreature[blockers.length+1];
+        for (int attacker=0;attacker<attackers.length;attacker++) {
+            int size=0;
+            block[size++]=attackers[attacker];
+            for (int blocker=0;blocker<blockers.length;blocker++) {
+                if (blocked[blocker]==attacker) {
+                    block[size++]=blockers[blocker];
                 }
-                if (remaining>0&&attacker.hasAbility(MagicAbility.Trample)) {
-                    life-=remaining;
+            }
+            score+=getScore(block,size,life);
+        }
+        return getScore(score,life[0]);
+    }
+
+    // score of the first size creatures, an attacker and its blockers, changes life[0]
+    private static int getScore(final MagicCombatCreature[] creatures,final int size,final int[] life) {
+
+        int score=0;
+        final MagicCombatCreature attacker=creatures[0];
+        if (size==1) {
+            life[0]-=attacker.power;
+        } else {
+            int remaining=attacker.power;
+            int lethalDamage=attacker.lethalDamage;
+            final boolean deathtouch=attacker.hasAbility(MagicAbility.Deathtouch);
+            for (int index=1;index<size;index++) {
+
+                final MagicCombatCreature blocker=creatures[index];
+                lethalDamage=blocker.hasAbility(MagicAbility.Deathtouch)?0:lethalDamage-blocker.power;
+                if (blocker.hasAbility(MagicAbility.Lifelink)) {
+                    life[0]+=blocker.power;
                 }
-                if (lethalDamage<=0&&!attacker.hasAbility(MagicAbility.Indestructible)) {
-                    score+=attacker.score;
+                if (remaining>0) {
+                    final int damage=Math.min(deathtouch?1:remaining,blocker.lethalDamage);
+                    if ((deathtouch||damage>=blocker.lethalDamage)&&!blocker.hasAbility(MagicAbility.Indestructible)) {
+                        score-=blocker.score;
+                    }
+                    remaining-=damage;
                 }
             }
+            if (remaining>0&&attacker.hasAbility(MagicAbility.Trample)) {
+                life[0]-=remaining;
+            }
+            if (lethalDamage<=0&&!attacker.hasAbility(MagicAbility.Indestructible)) {
+                score+=attacker.score;
+            }
         }
-        score+=(life<=0)?ArtificialScoringSystem.LOSE_GAME_SCORE:ArtificialScoringSystem.getLifeScore(life);
+        return score;
+    }
+
+    private int getScore(final int blockScore,final int life) {
+        final int score=blockScore+((life<=0)?ArtificialScoringSystem.LOSE_GAME_SCORE:ArtificialScoringSystem.getLifeScore(life));
         return (defendingPlayer==scorePlayer)?score:-score;
     }
 }
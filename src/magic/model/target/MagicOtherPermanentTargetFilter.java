@@ -11,11 +11,13 @@ public class MagicOtherPermanentTargetFilter extends MagicPermanentFilterImpl {
     private final long id;
 
     public MagicOtherPermanentTargetFilter(final MagicTargetFilter<MagicPermanent> aTargetFilter) {
+        super(getTypeMask(aTargetFilter));
         targetFilter = aTargetFilter;
         id = 0;
     }
 
     public MagicOtherPermanentTargetFilter(final MagicTargetFilter<MagicPermanent> aTargetFilter,final MagicPermanent invalidPermanent) {
+        super(getTypeMask(aTargetFilter));
         targetFilter = aTargetFilter;
         id = invalidPermanent.getId();
     }
@@ -11,6 +11,36 @@ import magic.model.MagicType;
 import magic.model.event.MagicEvent;
 
 public abstract class MagicPermanentFilterImpl implements MagicTargetFilter<MagicPermanent> {
+
+    private final int typeMask;
+
+    public MagicPermanentFilterImpl() {
+        this(0);
+    }
+
+    /**
+     * @param typeMask  mask of types of which every accepted permanent has at
+     *                  least one, or 0 if permanents of any type may be accepted
+     */
+    protected MagicPermanentFilterImpl(final int typeMask) {
+        this.typeMask = typeMask;
+    }
+
+    /**
+     * @return mask of types of which every accepted permanent has at least one, or 0
+     */
+    public int getTypeMask() {
+        return typeMask;
+    }
+
+    /**
+     * @return mask of types of which every permanent accepted by filter has at least one, or 0
+     */
+    public static int getTypeMask(final MagicTargetFilter<MagicPermanent> filter) {
+        return filter instanceof MagicPermanentFilterImpl ?
+            ((MagicPermanentFilterImpl)filter).getTypeMask() : 0;
+    }
+
     @Override
     public List<MagicPermanent> filter(final MagicSource source) {
         return filter(source, source.getController(), MagicTargetHint.None);
@@ -32,7 +62,10 @@ public abstract class MagicPermanentFilterImpl implements MagicTargetFilter<Magi
         final List<MagicPermanent> targets= new ArrayList<>();
         if (acceptType(MagicTargetType.Permanent)) {
             for (final MagicPlayer controller : game.getPlayers()) {
-                for (final MagicPermanent targetPermanent : controller.getPermanents()) {
+                final Iterable<MagicPermanent> permanents = typeMask == 0 ?
+                    controller.getPermanents() :
+                    controller.getPermanents(typeMask);
+                for (final MagicPermanent targetPermanent : permanents) {
                     if (accept(source,player,targetPermanent) &&
                         targetHint.accept(player,targetPermanent)) {
                         targets.add(targetPermanent);
@@ -57,7 +90,7 @@ public abstract class MagicPermanentFilterImpl implements MagicTargetFilter<Magi
      */
     public MagicPermanentFilterImpl andAttacking() {
         final MagicPermanentFilterImpl curr = this;
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(typeMask) {
             @Override
             public boolean accept(MagicSource source, MagicPlayer player, MagicPermanent target) {
                 return curr.accept(source, player, target) && target.isAttacking();
@@ -70,7 +103,7 @@ public abstract class MagicPermanentFilterImpl implements MagicTargetFilter<Magi
      */
     public MagicPermanentFilterImpl andType(final MagicType type) {
         final MagicPermanentFilterImpl curr = this;
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(typeMask != 0 ? typeMask : type.getMask()) {
             @Override
             public boolean accept(MagicSource source, MagicPlayer player, MagicPermanent target) {
                 return curr.accept(source, player, target) && target.hasType(type);
@@ -83,7 +116,7 @@ public abstract class MagicPermanentFilterImpl implements MagicTargetFilter<Magi
      */
     public MagicPermanentFilterImpl andNotArtifact() {
         final MagicPermanentFilterImpl curr = this;
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(typeMask) {
             @Override
             public boolean accept(MagicSource source, MagicPlayer player, MagicPermanent target) {
                 return curr.accept(source, player, target) && !target.isArtifact();
@@ -97,7 +130,7 @@ public abstract class MagicPermanentFilterImpl implements MagicTargetFilter<Magi
      */
     public MagicPermanentFilterImpl cmcEQ(int cmc) {
         final MagicPermanentFilterImpl curr = this;
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(typeMask) {
             @Override
             public boolean accept(MagicSource source, MagicPlayer player, MagicPermanent target) {
                 return curr.accept(source, player, target) && target.getConvertedCost() == cmc;
@@ -110,7 +143,7 @@ public abstract class MagicPermanentFilterImpl implements MagicTargetFilter<Magi
      */
     public MagicPermanentFilterImpl cmcGEQ(int cmc) {
         final MagicPermanentFilterImpl curr = this;
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(typeMask) {
             @Override
             public boolean accept(MagicSource source, MagicPlayer player, MagicPermanent target) {
                 return curr.accept(source, player, target) && target.getConvertedCost() >= cmc;
@@ -123,7 +156,7 @@ public abstract class MagicPermanentFilterImpl implements MagicTargetFilter<Magi
      */
     public MagicPermanentFilterImpl cmcLEQ(int cmc) {
         final MagicPermanentFilterImpl curr = this;
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(typeMask) {
             @Override
             public boolean accept(MagicSource source, MagicPlayer player, MagicPermanent target) {
                 return curr.accept(source, player, target) && target.getConvertedCost() <= cmc;
@@ -136,7 +169,7 @@ public abstract class MagicPermanentFilterImpl implements MagicTargetFilter<Magi
      */
     public MagicPermanentFilterImpl nonToken() {
         final MagicPermanentFilterImpl curr = this;
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(typeMask) {
             @Override
             public boolean accept(MagicSource source, MagicPlayer player, MagicPermanent target) {
                 return curr.accept(source, player, target) && !target.isToken();
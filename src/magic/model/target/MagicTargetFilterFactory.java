@@ -3089,7 +3089,7 @@ public class MagicTargetFilterFactory {
     }
 
     public static final MagicPermanentFilterImpl permanent(final MagicPermanentState state, final MagicType type, final Control control) {
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(type.getMask()) {
             @Override
             public boolean accept(final MagicSource source, final MagicPlayer player, final MagicPermanent target) {
                 return target.hasType(type) &&
@@ -3100,7 +3100,7 @@ public class MagicTargetFilterFactory {
     }
 
     private static MagicPermanentFilterImpl permanentOr(final MagicType type1, final MagicType type2, final Own own) {
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(type1.getMask()) {
             @Override
             public boolean accept(final MagicSource source, final MagicPlayer player, final MagicPermanent target) {
                 return target.hasType(type1) && target.hasType(type2) &&
@@ -3122,7 +3122,7 @@ public class MagicTargetFilterFactory {
     }
 
     public static final MagicPermanentFilterImpl permanentAnd(final MagicType type1, final MagicType type2, final Control control) {
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(type1.getMask()) {
             @Override
             public boolean accept(final MagicSource source, final MagicPlayer player, final MagicPermanent target) {
                 return target.hasType(type1) && target.hasType(type2) &&
@@ -3132,7 +3132,7 @@ public class MagicTargetFilterFactory {
     }
 
     public static final MagicPermanentFilterImpl permanentAnd(final MagicType type, final MagicSubType subType, final Control control) {
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(type.getMask()) {
             @Override
             public boolean accept(final MagicSource source, final MagicPlayer player, final MagicPermanent target) {
                 return target.hasType(type) && target.hasSubType(subType) &&
@@ -3142,7 +3142,7 @@ public class MagicTargetFilterFactory {
     }
 
     public static final MagicPermanentFilterImpl permanentOr(final MagicType type1, final MagicType type2, final Control control) {
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(type1.getMask() | type2.getMask()) {
             @Override
             public boolean accept(final MagicSource source, final MagicPlayer player, final MagicPermanent target) {
                 return (target.hasType(type1) || target.hasType(type2)) &&
@@ -3212,7 +3212,7 @@ public class MagicTargetFilterFactory {
     }
 
     public static final MagicPermanentFilterImpl creature(final MagicCounterType counter, final Control control) {
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(MagicType.Creature.getMask()) {
             @Override
             public boolean accept(final MagicSource source, final MagicPlayer player, final MagicPermanent target) {
                 return target.isCreature() &&
@@ -3227,7 +3227,7 @@ public class MagicTargetFilterFactory {
     }
 
     public static final MagicPermanentFilterImpl creature(final MagicType type, final Control control) {
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(MagicType.Creature.getMask()) {
             @Override
             public boolean accept(final MagicSource source, final MagicPlayer player, final MagicPermanent target) {
                 return target.isCreature() &&
@@ -3238,7 +3238,7 @@ public class MagicTargetFilterFactory {
     }
 
     public static final MagicPermanentFilterImpl creature(final MagicSubType subtype, final Control control) {
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(MagicType.Creature.getMask()) {
             @Override
             public boolean accept(final MagicSource source, final MagicPlayer player, final MagicPermanent target) {
                 return target.isCreature() &&
@@ -3254,7 +3254,7 @@ public class MagicTargetFilterFactory {
      * @return filter matching creature permanent that is not of specified subtype
      */
     public static final MagicPermanentFilterImpl creatureNon(final MagicSubType subtype, final Control control) {
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(MagicType.Creature.getMask()) {
             @Override
             public boolean accept(final MagicSource source, final MagicPlayer player, final MagicPermanent target) {
                 return target.isCreature() &&
@@ -3271,7 +3271,7 @@ public class MagicTargetFilterFactory {
      * @return filter matching creature permanent that is not of specified type
      */
     public static final MagicPermanentFilterImpl creatureNon(final MagicType type, final Control control) {
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(MagicType.Creature.getMask()) {
             @Override
             public boolean accept(final MagicSource source, final MagicPlayer player, final MagicPermanent target) {
                 return target.isCreature() &&
@@ -3287,7 +3287,7 @@ public class MagicTargetFilterFactory {
      * @return filter matching creature permanent that is not of specified color
      */
     public static final MagicPermanentFilterImpl creatureNon(final MagicColor color, final Control control) {
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(MagicType.Creature.getMask()) {
             @Override
             public boolean accept(final MagicSource source, final MagicPlayer player, final MagicPermanent target) {
                 return target.isCreature() &&
@@ -3304,7 +3304,7 @@ public class MagicTargetFilterFactory {
      * @return filter matching creature permanent that is not of either of two specified colors
      */
     public static final MagicPermanentFilterImpl creatureNeither(final MagicColor color1, final MagicColor color2, final Control control) {
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(MagicType.Creature.getMask()) {
             @Override
             public boolean accept(final MagicSource source, final MagicPlayer player, final MagicPermanent target) {
                 return target.isCreature() &&
@@ -3322,7 +3322,7 @@ public class MagicTargetFilterFactory {
      * @return filter matching creature permanent that has at least one of two specified colors
      */
     public static final MagicPermanentFilterImpl creatureOr(final MagicColor color1, final MagicColor color2, final Control control) {
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(MagicType.Creature.getMask()) {
             @Override
             public boolean accept(final MagicSource source, final MagicPlayer player, final MagicPermanent target) {
                 return target.isCreature() &&
@@ -3333,7 +3333,7 @@ public class MagicTargetFilterFactory {
     }
 
     public static final MagicPermanentFilterImpl creatureOr(final MagicSubType subType1, final MagicSubType subType2, final Control control) {
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(MagicType.Creature.getMask()) {
             @Override
             public boolean accept(final MagicSource source, final MagicPlayer player, final MagicPermanent target) {
                 return target.isCreature() &&
@@ -3344,7 +3344,7 @@ public class MagicTargetFilterFactory {
     }
 
     public static final MagicPermanentFilterImpl creatureOr(final MagicPermanentState state1, final MagicPermanentState state2, final Control control) {
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(MagicType.Creature.getMask()) {
             @Override
             public boolean accept(final MagicSource source, final MagicPlayer player, final MagicPermanent target) {
                 return target.isCreature() &&
@@ -3355,7 +3355,7 @@ public class MagicTargetFilterFactory {
     }
 
     public static final MagicPermanentFilterImpl creatureAnd(final MagicPermanentState state, final MagicSubType subType, final Control control) {
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(MagicType.Creature.getMask()) {
             @Override
             public boolean accept(final MagicSource source, final MagicPlayer player, final MagicPermanent target) {
                 return target.isCreature() &&
@@ -3366,7 +3366,7 @@ public class MagicTargetFilterFactory {
     }
 
     public static final MagicPermanentFilterImpl creatureAnd(final MagicType type, final MagicSubType subType, final Control control) {
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(MagicType.Creature.getMask()) {
             @Override
             public boolean accept(final MagicSource source, final MagicPlayer player, final MagicPermanent target) {
                 return target.isCreature() &&
@@ -3377,7 +3377,7 @@ public class MagicTargetFilterFactory {
     }
 
     public static final MagicPermanentFilterImpl creature(final MagicAbility ability, final Control control) {
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(MagicType.Creature.getMask()) {
             @Override
             public boolean accept(final MagicSource source, final MagicPlayer player, final MagicPermanent target) {
                 return target.isCreature() &&
@@ -3388,7 +3388,7 @@ public class MagicTargetFilterFactory {
     }
 
     public static final MagicPermanentFilterImpl creatureWithout(final MagicAbility ability, final Control control) {
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(MagicType.Creature.getMask()) {
             @Override
             public boolean accept(final MagicSource source, final MagicPlayer player, final MagicPermanent target) {
                 return target.isCreature() &&
@@ -3412,7 +3412,7 @@ public class MagicTargetFilterFactory {
     }
 
     public static final MagicPermanentFilterImpl planeswalker(final MagicSubType subtype, final Control control) {
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(MagicType.Planeswalker.getMask()) {
             @Override
             public boolean accept(final MagicSource source, final MagicPlayer player, final MagicPermanent target) {
                 return target.isPlaneswalker() &&
@@ -3423,7 +3423,7 @@ public class MagicTargetFilterFactory {
     }
 
     public static final MagicPermanentFilterImpl planeswalker(final MagicColor color, final Control control) {
-        return new MagicPermanentFilterImpl() {
+        return new MagicPermanentFilterImpl(MagicType.Planeswalker.getMask()) {
             @Override
             public boolean accept(final MagicSource source, final MagicPlayer player, final MagicPermanent target) {
                 return target.isPlaneswalker() &&
@@ -19,6 +19,7 @@ import java.util.regex.Pattern;
 
 import magic.exception.ScriptParseException;
 import magic.model.ARG;
+import magic.model.MagicPatternIndex;
 import magic.model.MagicPermanentState;
 import magic.model.MagicSubType;
 import magic.model.MagicType;
@@ -472,12 +473,13 @@ public enum MagicTargetFilterParser {
 
     public abstract MagicTargetFilter<?> toTargetFilter(final Matcher arg);
 
+    private static final MagicPatternIndex<MagicTargetFilterParser> INDEX =
+        new MagicPatternIndex<>(values(), rule -> rule.pattern);
+
     public static final MagicTargetFilter<?> build(final String text) {
-        for (final MagicTargetFilterParser rule : values()) {
-            final Matcher matcher = rule.matcher(text);
-            if (matcher.matches()) {
-                return rule.toTargetFilter(matcher);
-            }
+        final MagicPatternIndex.Match<MagicTargetFilterParser> match = INDEX.match(text);
+        if (match != null) {
+            return match.item.toTargetFilter(match.matcher);
         }
         throw new ScriptParseException("unknown target filter \"" + text + "\"");
     }
@@ -25,6 +25,11 @@ public class MagicPermanentTrigger implements Comparable<MagicPermanentTrigger>
         this(source.id, copyMap.copy(source.permanent), source.trigger, source.isUntilEOT);
     }
 
+    /** Returns a copy for the copied game, immutable triggers without a permanent are shared. */
+    public MagicPermanentTrigger copy(final MagicCopyMap copyMap) {
+        return permanent == MagicPermanent.NONE ? this : new MagicPermanentTrigger(copyMap, this);
+    }
+
     public long getId() {
         return id;
     }
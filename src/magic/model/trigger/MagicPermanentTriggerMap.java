@@ -2,6 +2,7 @@ package magic.model.trigger;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.Iterator;
 import java.util.List;
@@ -15,40 +16,43 @@ import magic.model.MurmurHash3;
 
 public class MagicPermanentTriggerMap {
 
+    // queues are created when the first trigger of their type is added,
+    // most of the trigger types are not in use in a game
     private final Map<MagicTriggerType,PriorityQueue<MagicPermanentTrigger>> effects =
             new EnumMap<>(MagicTriggerType.class);
 
-    // initializer block
-    {
-        for (final MagicTriggerType type : MagicTriggerType.values()) {
-            effects.put(type, new PriorityQueue<>());
-        }
-    }
-
     public MagicPermanentTriggerMap() {}
 
     public MagicPermanentTriggerMap(final MagicPermanentTriggerMap other) {
         for (final Map.Entry<MagicTriggerType, PriorityQueue<MagicPermanentTrigger>> type : other.effects.entrySet()) {
-            for (final MagicPermanentTrigger mptrigger : type.getValue()) {
-                add(mptrigger);
+            if (!type.getValue().isEmpty()) {
+                effects.put(type.getKey(), new PriorityQueue<>(type.getValue()));
             }
         }
     }
 
     public MagicPermanentTriggerMap(final MagicCopyMap copyMap, final MagicPermanentTriggerMap other) {
         for (final Map.Entry<MagicTriggerType, PriorityQueue<MagicPermanentTrigger>> type : other.effects.entrySet()) {
-            for (final MagicPermanentTrigger mptrigger : type.getValue()) {
-                add(new MagicPermanentTrigger(copyMap, mptrigger));
+            final PriorityQueue<MagicPermanentTrigger> source = type.getValue();
+            if (source.isEmpty()) {
+                continue;
+            }
+            // copies compare the same as their source, so the queue is heapified in linear time
+            final List<MagicPermanentTrigger> copies = new ArrayList<>(source.size());
+            for (final MagicPermanentTrigger mptrigger : source) {
+                copies.add(mptrigger.copy(copyMap));
             }
+            effects.put(type.getKey(), new PriorityQueue<>(copies));
         }
     }
 
     public Collection<MagicPermanentTrigger> get(final MagicTriggerType type) {
-        return effects.get(type);
+        final Collection<MagicPermanentTrigger> triggers = effects.get(type);
+        return triggers != null ? triggers : Collections.emptyList();
     }
 
     public void add(final MagicPermanentTrigger mptrigger) {
-        effects.get(mptrigger.getTrigger().getType()).add(mptrigger);
+        effects.computeIfAbsent(mptrigger.getTrigger().getType(), type -> new PriorityQueue<>()).add(mptrigger);
     }
 
     public List<MagicPermanentTrigger> removeTurn() {
@@ -97,13 +101,16 @@ public class MagicPermanentTriggerMap {
     }
 
     public void remove(final MagicPermanentTrigger mptrigger) {
-        effects.get(mptrigger.getTrigger().getType()).remove(mptrigger);
+        final PriorityQueue<MagicPermanentTrigger> triggers = effects.get(mptrigger.getTrigger().getType());
+        if (triggers != null) {
+            triggers.remove(mptrigger);
+        }
     }
 
     public long getStateId() {
         int size = 0;
-        for (final MagicTriggerType type : MagicTriggerType.values()) {
-            size += 2 * effects.get(type).size();
+        for (final PriorityQueue<MagicPermanentTrigger> triggers : effects.values()) {
+            size += 2 * triggers.size();
         }
         final long[] keys = new long[size];
         int idx = 0;
@@ -0,0 +1,200 @@
+package magic.model.trigger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import magic.model.MagicCopyMap;
+import magic.model.MagicGame;
+import magic.model.MagicPermanent;
+import magic.model.MagicPlayer;
+import magic.model.MurmurHash3;
+
+/**
+ * The triggers of the game, of the permanents on the battlefield and the
+ * additional triggers, by type.
+ * <p>
+ * The triggers of a permanent are registered when it is first seen by update
+ * and stay registered until it leaves the battlefield or its triggers change,
+ * as found by comparing them to the registered ones on each update.
+ * Their ids are made of the id of the permanent and the index of the trigger,
+ * so their order only depends on the game state. The triggers of each type are kept in an array sorted
+ * by priority and id, which is replaced rather than changed when the triggers
+ * of its type change, so it can be iterated while triggers are added and removed.
+ */
+public class MagicPermanentTriggerRegistry {
+
+    private static final MagicTriggerType[] TYPES = MagicTriggerType.values();
+    private static final MagicPermanentTrigger[] NO_TRIGGERS = new MagicPermanentTrigger[0];
+    private static final int TRIGGER_INDEX_BITS = 16;
+
+    // sorted triggers of the game and the permanents, without the additional triggers
+    private final List<List<MagicPermanentTrigger>> registeredTriggers = new ArrayList<>(TYPES.length);
+    private final Map<MagicPermanent, Registration> registrations = new IdentityHashMap<>();
+    private final MagicPermanentTrigger[][] triggers = new MagicPermanentTrigger[TYPES.length][];
+    private final boolean[] changed = new boolean[TYPES.length];
+    private long generation;
+
+    public MagicPermanentTriggerRegistry() {
+        for (int i = 0; i < TYPES.length; i++) {
+            registeredTriggers.add(new ArrayList<>());
+            triggers[i] = NO_TRIGGERS;
+        }
+    }
+
+    public MagicPermanentTriggerRegistry(final MagicCopyMap copyMap, final MagicPermanentTriggerRegistry other) {
+        for (int i = 0; i < TYPES.length; i++) {
+            final List<MagicPermanentTrigger> source = other.registeredTriggers.get(i);
+            final List<MagicPermanentTrigger> copies = new ArrayList<>(source.size());
+            for (final MagicPermanentTrigger mptrigger : source) {
+                copies.add(mptrigger.copy(copyMap));
+            }
+            registeredTriggers.add(copies);
+            triggers[i] = copy(copyMap, other.triggers[i]);
+            changed[i] = other.changed[i];
+        }
+        for (final Map.Entry<MagicPermanent, Registration> entry : other.registrations.entrySet()) {
+            registrations.put(copyMap.copy(entry.getKey()), new Registration(entry.getValue()));
+        }
+        generation = other.generation;
+    }
+
+    private static MagicPermanentTrigger[] copy(final MagicCopyMap copyMap, final MagicPermanentTrigger[] source) {
+        if (source.length == 0) {
+            return NO_TRIGGERS;
+        }
+        final MagicPermanentTrigger[] copies = new MagicPermanentTrigger[source.length];
+        for (int i = 0; i < source.length; i++) {
+            copies[i] = source[i].copy(copyMap);
+        }
+        return copies;
+    }
+
+    /** Returns the triggers of type in order of priority and id, as of the last update. */
+    public MagicPermanentTrigger[] get(final MagicTriggerType type) {
+        return triggers[type.ordinal()];
+    }
+
+    /** Adds a trigger of the game, which stays until the end of the game. */
+    public void add(final MagicPermanentTrigger mptrigger) {
+        insert(mptrigger);
+    }
+
+    /** Marks the additional triggers of type as changed, they are included in the next update. */
+    public void invalidate(final MagicTriggerType type) {
+        changed[type.ordinal()] = true;
+    }
+
+    /**
+     * Registers the triggers of the permanents that entered the battlefield or
+     * whose triggers changed, unregisters those of the permanents that left,
+     * and rebuilds the arrays of the types that changed.
+     */
+    public void update(final MagicGame game, final MagicPermanentTriggerMap additionalTriggers) {
+        generation++;
+        int seen = 0;
+        for (final MagicPlayer player : game.getPlayers()) {
+            for (final MagicPermanent perm : player.getPermanents()) {
+                final Collection<MagicTrigger<?>> current = perm.getTriggers();
+                Registration registration = registrations.get(perm);
+                if (registration == null) {
+                    registration = new Registration();
+                    registrations.put(perm, registration);
+                    register(perm, current, registration);
+                } else if (!registration.matches(current)) {
+                    unregister(perm, registration);
+                    register(perm, current, registration);
+                }
+                registration.generation = generation;
+                seen++;
+            }
+        }
+        if (seen < registrations.size()) {
+            for (final Iterator<Map.Entry<MagicPermanent, Registration>> iterator = registrations.entrySet().iterator(); iterator.hasNext();) {
+                final Map.Entry<MagicPermanent, Registration> entry = iterator.next();
+                if (entry.getValue().generation != generation) {
+                    unregister(entry.getKey(), entry.getValue());
+                    iterator.remove();
+                }
+            }
+        }
+        for (int i = 0; i < TYPES.length; i++) {
+            if (changed[i]) {
+                final List<MagicPermanentTrigger> list = new ArrayList<>(registeredTriggers.get(i));
+                list.addAll(additionalTriggers.get(TYPES[i]));
+                Collections.sort(list);
+                triggers[i] = list.isEmpty() ? NO_TRIGGERS : list.toArray(NO_TRIGGERS);
+                changed[i] = false;
+            }
+        }
+    }
+
+    private void register(final MagicPermanent perm, final Collection<MagicTrigger<?>> current, final Registration registration) {
+        registration.triggers = current.toArray(new MagicTrigger<?>[0]);
+        assert registration.triggers.length < 1 << TRIGGER_INDEX_BITS : "too many triggers on " + perm;
+        for (int i = 0; i < registration.triggers.length; i++) {
+            insert(new MagicPermanentTrigger((perm.getId() << TRIGGER_INDEX_BITS) + i, perm, registration.triggers[i]));
+        }
+    }
+
+    private void unregister(final MagicPermanent perm, final Registration registration) {
+        for (final MagicTrigger<?> trigger : registration.triggers) {
+            final int type = trigger.getType().ordinal();
+            if (registeredTriggers.get(type).removeIf(mptrigger -> mptrigger.getPermanent() == perm)) {
+                changed[type] = true;
+            }
+        }
+    }
+
+    private void insert(final MagicPermanentTrigger mptrigger) {
+        final int type = mptrigger.getTrigger().getType().ordinal();
+        final List<MagicPermanentTrigger> list = registeredTriggers.get(type);
+        final int idx = Collections.binarySearch(list, mptrigger);
+        list.add(idx < 0 ? -idx - 1 : idx, mptrigger);
+        changed[type] = true;
+    }
+
+    /** Returns the sum of the hashes of the triggers, which does not depend on their order. */
+    public long getStateId() {
+        long id = 0;
+        for (final MagicPermanentTrigger[] typeTriggers : triggers) {
+            for (final MagicPermanentTrigger mptrigger : typeTriggers) {
+                id += MurmurHash3.fmix(MurmurHash3.fmix(mptrigger.getPermanent().getStateId()) ^ mptrigger.getTrigger().hashCode());
+            }
+        }
+        return id;
+    }
+
+    // triggers of a permanent when they were registered
+    private static final class Registration {
+        private MagicTrigger<?>[] triggers;
+        private long generation;
+
+        Registration() {}
+
+        Registration(final Registration other) {
+            triggers = other.triggers;
+            generation = other.generation;
+        }
+
+        // compares the triggers one by one, the collection of the permanent may be
+        // replaced by an equal one, or changed in place, by the layers
+        boolean matches(final Collection<MagicTrigger<?>> current) {
+            if (current.size() != triggers.length) {
+                return false;
+            }
+            int idx = 0;
+            for (final MagicTrigger<?> trigger : current) {
+                if (trigger != triggers[idx]) {
+                    return false;
+                }
+                idx++;
+            }
+            return true;
+        }
+    }
+}
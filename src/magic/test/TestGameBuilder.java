@@ -10,10 +10,12 @@ import magic.model.MagicCardDefinition;
 import magic.model.MagicDeckProfile;
 import magic.model.MagicDuel;
 import magic.model.MagicGame;
+import magic.model.MagicManaCost;
 import magic.model.MagicPayedCost;
 import magic.model.MagicPermanent;
 import magic.model.MagicPermanentState;
 import magic.model.MagicPlayer;
+import magic.model.MagicType;
 import magic.model.action.PlayCardFromStackAction;
 import magic.model.player.AiProfile;
 import magic.model.player.HumanProfile;
@@ -63,6 +65,18 @@ public abstract class TestGameBuilder {
         addToHand(player, name, 1);
     }
 
+    /** Returns a vanilla creature, for games built without the card scripts. */
+    public static MagicCardDefinition createCreature(final String name, final int power, final int toughness) {
+        final MagicCardDefinition cardDefinition = new MagicCardDefinition();
+        cardDefinition.setName(name);
+        cardDefinition.setDistinctName(name);
+        cardDefinition.addType(MagicType.Creature);
+        cardDefinition.setPowerToughness(power, toughness);
+        cardDefinition.setCost(MagicManaCost.create("{1}{G}"));
+        cardDefinition.loadAbilities();
+        return cardDefinition;
+    }
+
     public static MagicPermanent createPermanent(final MagicPlayer player, final String name, final boolean tapped, final int count) {
         final MagicCardDefinition cardDefinition = CardDefinitions.getCard(name);
         return createPermanent(player, cardDefinition, tapped, count);
@@ -82,6 +82,8 @@ public class PreferencesDialog
     private static final String _S80 = "There is a problem reading the translation file.";
     private static final String _S81 = "Please ensure the file is encoded as 'UTF-8 without BOM'.";
     private static final String _S82 = "Animations";
+    private static final String _S83 = "[Experimental] AI thinks while you decide";
+    private static final String _S84 = "If enabled, the AI uses idle processor time during your decisions to prepare its next move. Only the Monte Carlo tree search AI makes use of this.";
 
     private final static GeneralConfig config = GeneralConfig.getInstance();
 
@@ -94,6 +96,7 @@ public class PreferencesDialog
     private MCheckBox touchscreenCheckBox;
     private MCheckBox skipSingleCheckBox;
     private MCheckBox alwaysPassCheckBox;
+    private MCheckBox aiPonderCheckBox;
     private MCheckBox smartTargetCheckBox;
     private SliderPanel messageDelaySlider;
     private JButton saveButton;
@@ -261,6 +264,10 @@ public class PreferencesDialog
         alwaysPassCheckBox = new MCheckBox(getAsHtml(MText.get(_S23)), GeneralConfig.get(BooleanSetting.ALWAYS_PASS));
         setButtonPropertyDefaults(alwaysPassCheckBox);
 
+        aiPonderCheckBox = new MCheckBox(getAsHtml(MText.get(_S83)), GeneralConfig.get(BooleanSetting.AI_PONDER));
+        aiPonderCheckBox.setToolTipText(MText.get(_S84));
+        setButtonPropertyDefaults(aiPonderCheckBox);
+
         smartTargetCheckBox = new MCheckBox(getAsHtml(MText.get(_S24)), config.getSmartTarget());
         smartTargetCheckBox.setToolTipText(MText.get(_S25));
         setButtonPropertyDefaults(smartTargetCheckBox);
@@ -278,6 +285,7 @@ public class PreferencesDialog
         panel.add(skipSingleCheckBox.component());
         panel.add(alwaysPassCheckBox.component());
         panel.add(smartTargetCheckBox.component());
+        panel.add(aiPonderCheckBox.component());
         panel.add(messageDelaySlider, "w 100%");
 
         final JScrollPane scroller = new JScrollPane(panel);
@@ -297,6 +305,7 @@ public class PreferencesDialog
         config.setTouchscreen(touchscreenCheckBox.isSelected());
         config.setSkipSingle(skipSingleCheckBox.isSelected());
         GeneralConfig.set(BooleanSetting.ALWAYS_PASS, alwaysPassCheckBox.isSelected());
+        GeneralConfig.set(BooleanSetting.AI_PONDER, aiPonderCheckBox.isSelected());
         config.setSmartTarget(smartTargetCheckBox.isSelected());
         config.setMessageDelay(messageDelaySlider.getValue());
         config.setShowMulliganScreen(mulliganScreenCheckbox.isSelected());
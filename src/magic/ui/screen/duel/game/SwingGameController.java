@@ -26,6 +26,7 @@ import java.util.logging.Logger;
 import javax.swing.JComponent;
 import javax.swing.SwingUtilities;
 
+import magic.ai.ArtificialWorkerPool;
 import magic.ai.MagicAI;
 import magic.data.DuelConfig;
 import magic.data.GeneralConfig;
@@ -634,6 +635,16 @@ public class SwingGameController implements IUIGameController {
         return choiceResults;
     }
 
+    /** Lets the AI opponent think in the background while the human player decides. */
+    private ArtificialWorkerPool.Search startPondering(final MagicEvent event) {
+        final MagicPlayer opponent = event.getPlayer().getOpponent();
+        if (!GeneralConfig.get(BooleanSetting.AI_PONDER) || !opponent.isArtificial()) {
+            return null;
+        }
+        final MagicAI ai = opponent.getAiProfile().getAiType().getAI();
+        return ai.ponder(game, opponent);
+    }
+
     private void executeNextEventWithChoices(final MagicEvent event) {
         final Object[] choiceResults;
         if (event.getPlayer().isArtificial()) {
@@ -643,6 +654,7 @@ public class SwingGameController implements IUIGameController {
                 game.clearSkipTurnTill();
             }
         } else {
+            final ArtificialWorkerPool.Search ponder = startPondering(event);
             try {
                 choiceResults = getPlayerNextEventChoiceResults(event);
             } catch (UndoClickedException undo) {
@@ -652,6 +664,10 @@ public class SwingGameController implements IUIGameController {
                     performUndo();
                     return;
                 }
+            } finally {
+                if (ponder != null) {
+                    ponder.stop();
+                }
             }
         }
         game.executeNextEvent(choiceResults);
@@ -88,7 +88,8 @@ public final class MagicFileSystem {
         IMAGES("images"),
         REPORTS("reports"),
         THEMES("themes"),
-        STATS("stats")
+        STATS("stats"),
+        CACHE("cache")
         ;
 
         private final Path directoryPath;
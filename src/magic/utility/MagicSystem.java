@@ -14,6 +14,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import magic.data.CardDefinitions;
 import magic.data.DeckGenerators;
@@ -54,6 +55,8 @@ final public class MagicSystem {
         }
     };
 
+    private static final AtomicBoolean loadStarted = new AtomicBoolean();
+
     public static final FutureTask<Void> loadMissing = new FutureTask<Void>(
             () -> CardDefinitions.loadMissingCards(), null
     ) {
@@ -104,6 +107,17 @@ final public class MagicSystem {
         return Boolean.getBoolean("parseMissing");
     }
 
+    /**
+     * add "-DlazyCards=true" VM argument for loading card scripts on first use.
+     */
+    public static boolean isLazyCards() {
+        return Boolean.getBoolean("lazyCards");
+    }
+
+    public static void setIsLazyCards(boolean b) {
+        System.setProperty("lazyCards", String.valueOf(b));
+    }
+
     /**
      * add "-DselfMode=true" VM argument for AI vs AI mode.
      */
@@ -151,6 +165,7 @@ final public class MagicSystem {
         if (loadMissing.isDone()) {
             return;
         }
+        startLoading();
         try {
             loadMissing.get();
         } catch (final InterruptedException|ExecutionException ex) {
@@ -162,6 +177,7 @@ final public class MagicSystem {
         if (loadPlayable.isDone()) {
             return;
         }
+        startLoading();
         try {
             loadPlayable.get();
         } catch (final InterruptedException|ExecutionException ex) {
@@ -169,6 +185,21 @@ final public class MagicSystem {
         }
     }
 
+    /**
+     * Queues up the loading of all cards to run synchronously on a single
+     * background thread, unless it has already been queued. The post-load
+     * step of the playable cards runs before the missing cards are loaded.
+     */
+    private static void startLoading() {
+        if (loadStarted.compareAndSet(false, true)) {
+            final ExecutorService background = Executors.newSingleThreadExecutor();
+            background.execute(loadPlayable);
+            background.execute(() -> CardDefinitions.postCardDefinitions());
+            background.execute(loadMissing);
+            background.shutdown();
+        }
+    }
+
     private static void initializeEngine(final ProgressReporter reporter) {
         if (isParseMissing()) {
             UnimplementedParser.parseScriptsMissing(reporter);
@@ -202,12 +233,10 @@ final public class MagicSystem {
         reporter.setMessage("Initializing log...");
         MagicGameLog.initialize();
 
-        // Queue up tasks to run synchronously on a single background thread.
-        final ExecutorService background = Executors.newSingleThreadExecutor();
-        background.execute(loadPlayable);
-        background.execute(() -> CardDefinitions.postCardDefinitions());
-        background.execute(loadMissing);
-        background.shutdown();
+        // With lazy cards the cards are only loaded when all of them are needed.
+        if (!isLazyCards()) {
+            startLoading();
+        }
 
         // if parse scripts missing or pre-load abilities then load cards synchronously
         if (isParseMissing() || isDebugMode()) {
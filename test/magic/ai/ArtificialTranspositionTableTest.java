@@ -0,0 +1,70 @@
+package magic.ai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ArtificialTranspositionTableTest {
+
+    private final ArtificialTranspositionTable.Entry entry = new ArtificialTranspositionTable.Entry();
+
+    @Test
+    public void testPutGet() {
+        final ArtificialTranspositionTable table = new ArtificialTranspositionTable(8);
+        assertFalse(table.get(42L, entry));
+
+        table.put(42L, 3, -7L, 11L);
+        assertTrue(table.get(42L, entry));
+        assertEquals(-7L, entry.a);
+        assertEquals(11L, entry.b);
+        assertEquals(3, entry.depth);
+        assertFalse(table.get(43L, entry));
+
+        // an entry is only replaced by one at least as deep
+        table.put(42L, 2, 1L, 1L);
+        assertTrue(table.get(42L, entry));
+        assertEquals(-7L, entry.a);
+        table.put(42L, 3, 5L, 6L);
+        assertTrue(table.get(42L, entry));
+        assertEquals(5L, entry.a);
+        assertEquals(6L, entry.b);
+    }
+
+    @Test
+    public void testReplaceShallowest() {
+        // four slots, so every key shares the same bucket
+        final ArtificialTranspositionTable table = new ArtificialTranspositionTable(2);
+        for (int i = 1; i <= 4; i++) {
+            table.put(i, i, i, 0L);
+        }
+        for (int i = 1; i <= 4; i++) {
+            assertTrue(table.get(i, entry));
+        }
+
+        table.put(5L, 2, 5L, 0L);
+        assertFalse(table.get(1L, entry));
+        assertTrue(table.get(5L, entry));
+
+        // shallower than every entry in the full bucket, not stored
+        table.put(6L, 1, 6L, 0L);
+        assertFalse(table.get(6L, entry));
+        for (int i = 2; i <= 5; i++) {
+            assertTrue(table.get(i, entry));
+        }
+    }
+
+    @Test
+    public void testClear() {
+        final ArtificialTranspositionTable table = new ArtificialTranspositionTable(4);
+        table.put(7L, 9, 1L, 2L);
+        table.clear();
+        assertFalse(table.get(7L, entry));
+
+        // slots of earlier generations are reused regardless of depth
+        table.put(7L, 0, 3L, 4L);
+        assertTrue(table.get(7L, entry));
+        assertEquals(3L, entry.a);
+    }
+}
@@ -0,0 +1,70 @@
+package magic.ai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import magic.model.MagicCardDefinition;
+import magic.model.MagicGame;
+import magic.model.MagicPlayer;
+import magic.test.TestGameBuilder;
+import org.junit.Test;
+
+public class MCTSAITest {
+
+    // advances to the declare attackers of the first player, who has several choices
+    private static MagicGame createGame() {
+        final MagicGame game = TestGameBuilder.createDuel().nextGame();
+        game.setArtificial(true);
+        final MagicCardDefinition creature = TestGameBuilder.createCreature("Bear", 2, 2);
+        TestGameBuilder.createPermanent(game.getPlayer(0), creature, false, 3);
+        TestGameBuilder.createPermanent(game.getPlayer(1), creature, false, 3);
+        game.update();
+        List<Object[]> choices = game.advanceToNextEventWithChoices();
+        while (game.getNextEvent().getPlayer() != game.getPlayer(0)) {
+            game.executeNextEvent(choices.get(0));
+            choices = game.advanceToNextEventWithChoices();
+        }
+        return game;
+    }
+
+    @Test
+    public void testPonderWithWorkers() {
+        final MagicGame game = createGame();
+        final MagicPlayer player = game.getPlayer(1);
+        final MCTSAI ai = new MCTSAI(true);
+
+        final int minSim = MCTSAI.MIN_SIM;
+        final int games = MagicAI.getConcurrentGames();
+        final MCTSGameTree root;
+        try {
+            // robust max on every update, and enough pool threads for the workers
+            MCTSAI.MIN_SIM = 1;
+            MagicAI.setConcurrentGames(4);
+
+            // cache the root ponder starts from, so that its statistics can be checked
+            final MagicGame aiGame = new MagicGame(game, player);
+            final List<Object[]> choices = aiGame.getNextEvent().getArtificialChoiceResults(aiGame);
+            assertTrue(choices.size() > 1);
+            root = MCTSGameTree.getNode(ai.CACHE, aiGame, choices);
+            MCTSGameTree.addNode(ai.CACHE, aiGame, root);
+
+            ai.ponder(game, player, 4, 1000).await();
+        } finally {
+            MCTSAI.MIN_SIM = minSim;
+            MagicAI.setConcurrentGames(games);
+        }
+
+        // each simulation passes through the root and one of its children,
+        // no update is lost or overwritten by a concurrent worker
+        assertTrue(root.getNumSim() > 0);
+        int sum = 0;
+        for (final MCTSGameTree child : root) {
+            assertTrue(child.getNumSim() > 0);
+            assertTrue(Double.isFinite(child.getV()));
+            sum += child.getNumSim();
+        }
+        assertEquals(root.getNumSim(), sum);
+    }
+}
@@ -0,0 +1,78 @@
+package magic.ai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import magic.model.MagicCard;
+import magic.model.MagicCardDefinition;
+import magic.model.MagicGame;
+import magic.model.MagicPlayer;
+import magic.test.TestGameBuilder;
+import org.junit.Test;
+
+public class MMABTest {
+
+    private static final long DEADLINE_NANO = 60000000000L;
+
+    // advances to the declare attackers of the first player, who has several choices
+    private static MagicGame createGame() {
+        final MagicGame game = TestGameBuilder.createDuel().nextGame();
+        game.setArtificial(true);
+        final MagicCardDefinition bear = TestGameBuilder.createCreature("Bear", 2, 2);
+        for (final MagicPlayer player : game.getPlayers()) {
+            // no player loses by drawing from an empty library within the search
+            for (int i = 0; i < 10; i++) {
+                player.getLibrary().addToTop(new MagicCard(bear, player, game.getUniqueId()));
+            }
+        }
+        game.getPlayer(1).setLife(5);
+        TestGameBuilder.createPermanent(game.getPlayer(0), bear, false, 2);
+        TestGameBuilder.createPermanent(game.getPlayer(0), TestGameBuilder.createCreature("Giant", 3, 3), false, 1);
+        TestGameBuilder.createPermanent(game.getPlayer(1), TestGameBuilder.createCreature("Wall", 0, 4), false, 1);
+        TestGameBuilder.createPermanent(game.getPlayer(1), bear, false, 1);
+        game.update();
+        List<Object[]> choices = game.advanceToNextEventWithChoices();
+        while (game.getNextEvent().getPlayer() != game.getPlayer(0)) {
+            game.executeNextEvent(choices.get(0));
+            choices = game.advanceToNextEventWithChoices();
+        }
+        return game;
+    }
+
+    private static ArtificialScore search(final MagicGame game, final int minDepth, final int maxDepth) {
+        final MagicPlayer player = game.getPlayer(0);
+        final MagicGame choiceGame = new MagicGame(game, player);
+        final List<Object[]> choices = choiceGame.getNextEvent().getArtificialChoiceResults(choiceGame);
+        assertTrue(choices.size() > 1);
+        final MMAB ai = new MMAB(true);
+        final MMAB.Deepening deepening = ai.search(
+            game,
+            player,
+            choices,
+            new Integer[choices.size()],
+            minDepth,
+            maxDepth,
+            System.nanoTime() + DEADLINE_NANO
+        );
+        assertTrue(deepening.depth <= maxDepth);
+        ArtificialScore best = ArtificialScore.INVALID_SCORE;
+        for (final ArtificialChoiceResults achoice : deepening.results) {
+            if (best.isBetter(achoice.aiScore, true)) {
+                best = achoice.aiScore;
+            }
+        }
+        return best;
+    }
+
+    @Test
+    public void testDeepeningEqualsFixedDepth() {
+        final MagicGame game = createGame();
+        for (int depth = 0; depth <= 3; depth++) {
+            final ArtificialScore fixed = search(game, depth, depth);
+            final ArtificialScore deepened = search(game, 0, depth);
+            assertEquals("depth " + depth, fixed.getScore(), deepened.getScore());
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package magic.data;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import magic.model.MagicCardDefinition;
+import magic.utility.MagicFileSystem;
+import magic.utility.MagicFileSystem.DataPath;
+import magic.utility.MagicSystem;
+import org.junit.Test;
+
+public class CardDefinitionsTest {
+
+    // writes the script of a vanilla creature, returns its file
+    private static File createScript(final String name, final int power, final int toughness) throws IOException {
+        final Path scripts = MagicFileSystem.getDataPath(DataPath.SCRIPTS);
+        final Path file = scripts.resolve(CardDefinitions.getCanonicalName(name) + ".txt");
+        Files.write(file, String.join("\n",
+            "name=" + name,
+            "value=2.500",
+            "rarity=C",
+            "type=Creature",
+            "cost={1}{G}",
+            "pt=" + power + "/" + toughness,
+            "timing=main",
+            "oracle=NONE"
+        ).getBytes(UTF_8));
+        return file.toFile();
+    }
+
+    @Test
+    public void testLazyLoading() throws Exception {
+        final String name = "Lazy Test Bear";
+        final File script = createScript(name, 2, 2);
+        try {
+            final MagicCardDefinition card = CardDefinitions.getCard(name);
+            assertEquals(name, card.getName());
+            assertEquals(2, card.getCardPower());
+            assertSame(card, CardDefinitions.getCard(name));
+
+            // an edited script is loaded again once the card is dropped
+            createScript(name, 3, 3);
+            CardDefinitions.unloadCardDefinition(name);
+            final MagicCardDefinition reloaded = CardDefinitions.getCard(name);
+            assertNotSame(card, reloaded);
+            assertEquals(3, reloaded.getCardPower());
+        } finally {
+            CardDefinitions.unloadCardDefinition(name);
+            script.delete();
+        }
+    }
+
+    @Test
+    public void testConcurrentLoading() throws Exception {
+        final int cards = 8;
+        final int threads = 4;
+        final String[] names = new String[cards];
+        final File[] scripts = new File[cards];
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int i = 0; i < cards; i++) {
+                names[i] = "Concurrent Test Bear " + (char)('A' + i);
+                scripts[i] = createScript(names[i], 1 + i, 1 + i);
+            }
+
+            // every thread asks for every card at once, starting at a different card
+            final CountDownLatch start = new CountDownLatch(1);
+            @SuppressWarnings("unchecked")
+            final Future<MagicCardDefinition[]>[] results = new Future[threads];
+            for (int t = 0; t < threads; t++) {
+                final int first = t;
+                results[t] = executor.submit(() -> {
+                    start.await();
+                    final MagicCardDefinition[] loaded = new MagicCardDefinition[cards];
+                    for (int i = 0; i < cards; i++) {
+                        final int card = (first + i) % cards;
+                        loaded[card] = CardDefinitions.getCard(names[card]);
+                    }
+                    return loaded;
+                });
+            }
+            start.countDown();
+
+            // each card is added once, all threads get the same definition
+            final MagicCardDefinition[] expected = results[0].get();
+            final Set<Integer> indexes = new HashSet<>();
+            for (int i = 0; i < cards; i++) {
+                assertEquals(names[i], expected[i].getName());
+                assertEquals(1 + i, expected[i].getCardPower());
+                assertTrue(indexes.add(expected[i].getIndex()));
+                assertSame(expected[i], CardDefinitions.getCard(names[i]));
+            }
+            for (int t = 1; t < threads; t++) {
+                final MagicCardDefinition[] loaded = results[t].get();
+                for (int i = 0; i < cards; i++) {
+                    assertSame(expected[i], loaded[i]);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            for (int i = 0; i < cards; i++) {
+                if (scripts[i] != null) {
+                    CardDefinitions.unloadCardDefinition(names[i]);
+                    scripts[i].delete();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLazyPostLoad() {
+        // the post-load step saves a snapshot of the card names when there is none
+        final File snapshot = MagicFileSystem.getDataPath().resolve("snapshot.dat").toFile();
+        snapshot.delete();
+        final boolean lazy = MagicSystem.isLazyCards();
+        try {
+            MagicSystem.setIsLazyCards(true);
+            MagicSystem.waitForPlayableCards();
+            MagicSystem.waitForMissingCards();
+            assertTrue(snapshot.isFile());
+        } finally {
+            MagicSystem.setIsLazyCards(lazy);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package magic.headless;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class EloRatingsTest {
+
+    // adds the games of wins in rounds, so that the ratings are updated as in a league
+    private static EloRatings play(final int[][] wins) {
+        final EloRatings ratings = new EloRatings(wins.length);
+        final int[][] left = new int[wins.length][];
+        for (int i = 0; i < wins.length; i++) {
+            left[i] = wins[i].clone();
+        }
+        boolean added = true;
+        while (added) {
+            added = false;
+            for (int i = 0; i < wins.length; i++) {
+                for (int j = 0; j < wins.length; j++) {
+                    if (left[i][j] > 0) {
+                        left[i][j]--;
+                        ratings.addGame(i, j);
+                        added = true;
+                    }
+                }
+            }
+        }
+        return ratings;
+    }
+
+    @Test
+    public void testTwoPlayers() {
+        final EloRatings ratings = play(new int[][]{
+            {0, 30},
+            {10, 0}
+        });
+        // maximum likelihood estimate with one virtual draw per player
+        assertEquals(93.90, ratings.getElo(0), 0.5);
+        assertEquals(-93.90, ratings.getElo(1), 0.5);
+        assertEquals(40, ratings.getGames(0));
+        assertEquals(30, ratings.getWins(0));
+        assertEquals(10, ratings.getWins(1));
+    }
+
+    @Test
+    public void testThreePlayers() {
+        final EloRatings ratings = play(new int[][]{
+            {0, 20, 30},
+            {10, 0, 20},
+            {5, 10, 0}
+        });
+        assertEquals(138.87, ratings.getElo(0), 0.5);
+        assertEquals(0.0, ratings.getElo(1), 0.5);
+        assertEquals(-138.87, ratings.getElo(2), 0.5);
+        assertEquals(65, ratings.getGames(0));
+        assertEquals(50, ratings.getWins(0));
+    }
+
+    @Test
+    public void testUnbeaten() {
+        // the virtual draws keep the rating of a player that won every game finite
+        final EloRatings ratings = play(new int[][]{
+            {0, 10},
+            {0, 0}
+        });
+        assertEquals(true, Double.isFinite(ratings.getElo(0)));
+        assertEquals(-ratings.getElo(0), ratings.getElo(1), 1e-9);
+        assertEquals(true, ratings.getElo(0) > 0);
+    }
+}
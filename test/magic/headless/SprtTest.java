@@ -0,0 +1,67 @@
+package magic.headless;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class SprtTest {
+
+    // log(p1/p0) for expected scores p0 at -50 Elo and p1 at +50 Elo
+    private static final double WIN_LLR = 0.287823;
+
+    // log((1 - beta)/alpha) for alpha = beta = 0.05
+    private static final double BOUND = 2.944439;
+
+    private static Sprt createSprt() {
+        return new Sprt(-50, 50, 0.05, 0.05);
+    }
+
+    @Test
+    public void testLLR() {
+        final Sprt sprt = createSprt();
+        assertEquals(0.0, sprt.getLLR(), 1e-9);
+        sprt.addGame(true);
+        assertEquals(WIN_LLR, sprt.getLLR(), 1e-6);
+        sprt.addGame(false);
+        assertEquals(0.0, sprt.getLLR(), 1e-9);
+        sprt.addGame(false);
+        assertEquals(-WIN_LLR, sprt.getLLR(), 1e-6);
+    }
+
+    @Test
+    public void testAcceptH1() {
+        final Sprt sprt = createSprt();
+        // 10 wins stay below the upper bound, 11 wins pass it
+        for (int i = 0; i < 10; i++) {
+            sprt.addGame(true);
+            assertEquals(Sprt.Result.NONE, sprt.getResult());
+        }
+        assertEquals(true, sprt.getLLR() < BOUND);
+        sprt.addGame(true);
+        assertEquals(true, sprt.getLLR() >= BOUND);
+        assertEquals(Sprt.Result.H1, sprt.getResult());
+    }
+
+    @Test
+    public void testAcceptH0() {
+        final Sprt sprt = createSprt();
+        for (int i = 0; i < 10; i++) {
+            sprt.addGame(false);
+            assertEquals(Sprt.Result.NONE, sprt.getResult());
+        }
+        assertEquals(true, sprt.getLLR() > -BOUND);
+        sprt.addGame(false);
+        assertEquals(true, sprt.getLLR() <= -BOUND);
+        assertEquals(Sprt.Result.H0, sprt.getResult());
+    }
+
+    @Test
+    public void testUndecided() {
+        final Sprt sprt = createSprt();
+        // evenly matched players never leave the bounds
+        for (int i = 0; i < 1000; i++) {
+            sprt.addGame(i % 2 == 0);
+            assertEquals(Sprt.Result.NONE, sprt.getResult());
+        }
+    }
+}
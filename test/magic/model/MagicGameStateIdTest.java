@@ -0,0 +1,125 @@
+package magic.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import magic.model.action.BecomeMonarchAction;
+import magic.model.action.ChangeCountersAction;
+import magic.model.action.ChangeExtraTurnsAction;
+import magic.model.action.ChangeLifeAction;
+import magic.model.action.ChangePlayerStateAction;
+import magic.model.action.DrawAction;
+import magic.model.action.TapAction;
+import magic.test.TestGameBuilder;
+import org.junit.Test;
+
+public class MagicGameStateIdTest {
+
+    private static MagicGame createGame() {
+        final MagicGame game = TestGameBuilder.createDuel().nextGame();
+        game.setArtificial(true);
+        game.update();
+        return game;
+    }
+
+    private static void assertStateId(final MagicGame game) {
+        assertEquals(game.computeStateId(), game.getStateId());
+    }
+
+    // a copy hashes its players and zones from scratch
+    private static void assertSameAsCopy(final MagicGame game) {
+        assertEquals(new MagicGame(game, game.getPlayer(0)).getStateId(), game.getStateId());
+    }
+
+    @Test
+    public void testStateIdAfterDoAndUndo() {
+        final MagicGame game = createGame();
+        final MagicPlayer player = game.getPlayer(0);
+        final MagicPlayer opponent = game.getPlayer(1);
+        final long start = game.getStateId();
+        assertStateId(game);
+
+        game.snapshot();
+        game.doAction(new ChangeLifeAction(player, -3));
+        assertStateId(game);
+        assertNotEquals(start, game.getStateId());
+
+        game.snapshot();
+        game.doAction(new ChangePlayerStateAction(opponent, MagicPlayerState.HasLostLife));
+        game.doAction(new BecomeMonarchAction(opponent));
+        game.doAction(new ChangeExtraTurnsAction(player, 1));
+        assertStateId(game);
+
+        game.restore();
+        assertStateId(game);
+
+        game.restore();
+        assertStateId(game);
+        assertEquals(start, game.getStateId());
+    }
+
+    @Test
+    public void testStateIdAfterScalarChanges() {
+        final MagicGame game = createGame();
+        final long start = game.getStateId();
+
+        game.incLandsPlayed();
+        game.incrementPriorityPassedCount();
+        assertStateId(game);
+        assertNotEquals(start, game.getStateId());
+
+        game.setLandsPlayed(0);
+        game.setPriorityPassedCount(0);
+        assertStateId(game);
+        assertEquals(start, game.getStateId());
+    }
+
+    @Test
+    public void testSameStateSameId() {
+        final MagicGame game = createGame();
+        final MagicPlayer player = game.getPlayer(0);
+
+        game.snapshot();
+        game.doAction(new ChangeLifeAction(player, -2));
+        game.doAction(new ChangeLifeAction(player, -1));
+        final long twoSteps = game.getStateId();
+        game.restore();
+
+        game.snapshot();
+        game.doAction(new ChangeLifeAction(player, -3));
+        assertEquals(twoSteps, game.getStateId());
+        game.restore();
+    }
+
+    @Test
+    public void testStateIdAfterZoneChanges() {
+        final MagicGame game = createGame();
+        final MagicPlayer player = game.getPlayer(0);
+        final MagicCardDefinition bear = TestGameBuilder.createCreature("Bear", 2, 2);
+        final MagicPermanent permanent = TestGameBuilder.createPermanent(player, bear, false, 1);
+        player.getLibrary().addToTop(new MagicCard(bear, player, game.getUniqueId()));
+        game.update();
+        final long start = game.getStateId();
+        assertSameAsCopy(game);
+
+        game.snapshot();
+        game.doAction(new TapAction(permanent));
+        assertStateId(game);
+        assertSameAsCopy(game);
+        final long tapped = game.getStateId();
+        assertNotEquals(start, tapped);
+
+        game.doAction(new ChangeCountersAction(player, permanent, MagicCounterType.PlusOne, 1));
+        assertStateId(game);
+        assertSameAsCopy(game);
+        assertNotEquals(tapped, game.getStateId());
+
+        game.doAction(new DrawAction(player));
+        assertStateId(game);
+        assertSameAsCopy(game);
+
+        game.restore();
+        assertStateId(game);
+        assertEquals(start, game.getStateId());
+    }
+}
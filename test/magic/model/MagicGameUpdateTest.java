@@ -0,0 +1,71 @@
+package magic.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import magic.test.TestGameBuilder;
+import org.junit.Test;
+
+public class MagicGameUpdateTest {
+
+    private static MagicGame createGame() {
+        final MagicGame game = TestGameBuilder.createDuel().nextGame();
+        game.setArtificial(true);
+        game.update();
+        return game;
+    }
+
+    // update counts itself as a change whenever it runs
+    private static boolean updates(final MagicGame game) {
+        final long changes = game.getChanges();
+        game.update();
+        return game.getChanges() != changes;
+    }
+
+    @Test
+    public void testSkipUnchanged() {
+        final MagicGame game = createGame();
+        assertEquals(false, updates(game));
+    }
+
+    @Test
+    public void testZoneChange() {
+        final MagicGame game = createGame();
+        final MagicPlayer player = game.getPlayer(0);
+        final MagicCard card = new MagicCard(MagicCardDefinition.UNKNOWN, player, game.getUniqueId());
+
+        player.getGraveyard().addToTop(card);
+        assertEquals(true, updates(game));
+        assertEquals(false, updates(game));
+
+        player.getGraveyard().removeCard(card);
+        assertEquals(true, updates(game));
+
+        player.getLibrary().addToBottom(card);
+        assertEquals(true, updates(game));
+        player.getLibrary().clear();
+        assertEquals(true, updates(game));
+    }
+
+    @Test
+    public void testZoneChangeInCopy() {
+        final MagicGame game = createGame();
+        final MagicGame copy = new MagicGame(game, game.getPlayer(0));
+        copy.update();
+        final long changes = game.getChanges();
+
+        final MagicPlayer player = copy.getPlayer(1);
+        player.getExile().addToTop(new MagicCard(MagicCardDefinition.UNKNOWN, player, copy.getUniqueId()));
+        assertEquals(true, updates(copy));
+        assertEquals(changes, game.getChanges());
+    }
+
+    @Test
+    public void testDirectSetter() {
+        final MagicGame game = createGame();
+        final long id = game.getStateId();
+        game.getPlayer(1).setLife(7);
+        assertEquals(true, updates(game));
+        assertNotEquals(id, game.getStateId());
+    }
+}
@@ -0,0 +1,85 @@
+package magic.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import magic.model.action.MagicAction;
+import magic.model.choice.MagicTargetChoice;
+import magic.model.stack.MagicCardOnStack;
+import magic.model.target.MagicTarget;
+import magic.model.target.MagicTargetHint;
+import magic.model.target.MagicTargetNone;
+import magic.test.TestGameBuilder;
+import org.junit.Test;
+
+public class MagicLegalTargetsTest {
+
+    private static MagicGame createGame() {
+        final MagicGame game = TestGameBuilder.createDuel().nextGame();
+        game.setArtificial(true);
+        game.update();
+        return game;
+    }
+
+    private static List<MagicTarget> getSpells(final MagicGame game, final MagicPlayer player) {
+        return game.getSharedLegalTargets(player, MagicSource.NONE, MagicTargetChoice.TARGET_SPELL, MagicTargetHint.None);
+    }
+
+    private static List<MagicTarget> getCreatures(final MagicGame game, final MagicPermanent source) {
+        return game.getSharedLegalTargets(source.getController(), source, MagicTargetChoice.TARGET_CREATURE, MagicTargetHint.None);
+    }
+
+    @Test
+    public void testChangeDuringAction() {
+        final MagicGame game = createGame();
+        final MagicPlayer player = game.getPlayer(0);
+        final MagicCard card = new MagicCard(TestGameBuilder.createCreature("Bear", 2, 2), player, game.getUniqueId());
+        final MagicCardOnStack spell = new MagicCardOnStack(card, player, MagicPayedCost.NOT_SPELL);
+        final Object[] seen = new Object[2];
+
+        // the stack is changed directly, the change counter only moves once the action is done
+        game.doAction(new MagicAction() {
+            @Override
+            public void doAction(final MagicGame aGame) {
+                seen[0] = getSpells(aGame, player);
+                aGame.getStack().addToTop(spell);
+                seen[1] = getSpells(aGame, player);
+            }
+
+            @Override
+            public void undoAction(final MagicGame aGame) {
+                aGame.getStack().remove(spell);
+            }
+        });
+
+        assertEquals(Collections.singletonList(MagicTargetNone.getInstance()), seen[0]);
+        assertEquals(Collections.singletonList(spell), seen[1]);
+        assertEquals(Collections.singletonList(spell), getSpells(game, player));
+
+        game.getStack().remove(spell);
+        game.invalidateStateId();
+        assertEquals(Collections.singletonList(MagicTargetNone.getInstance()), getSpells(game, player));
+    }
+
+    @Test
+    public void testCachedBetweenActions() {
+        final MagicGame game = createGame();
+        final MagicPlayer player = game.getPlayer(0);
+        final MagicCardDefinition creature = TestGameBuilder.createCreature("Bear", 2, 2);
+        final MagicPermanent first = TestGameBuilder.createPermanent(player, creature, false, 1);
+        game.update();
+
+        // the same list is returned until the game changes
+        final List<MagicTarget> creatures = getCreatures(game, first);
+        assertEquals(Collections.singletonList(first), creatures);
+        assertSame(creatures, getCreatures(game, first));
+
+        final MagicPermanent second = TestGameBuilder.createPermanent(player, creature, false, 1);
+        game.update();
+        assertEquals(Arrays.asList(first, second), getCreatures(game, first));
+    }
+}
@@ -0,0 +1,97 @@
+package magic.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class MagicPatternIndexTest {
+
+    private static final String[] REGEXES = {
+        "(?<choice>[^\\.]*)destroy (?<target>[^\\.]*)\\.",
+        "(?<choice>[^\\.]*)destroy (?<target>[^\\.]*)\\. (?<noregen>it|they) can't be regenerated\\.",
+        "draw a card\\.",
+        "draw (?<amount>[a-z]+) cards\\.",
+        "(?<target>[^\\.]*) gain(s)? (?<amount>[0-9]+) life\\.",
+        "you gain (?<amount>[0-9]+) life\\.",
+        "flying",
+        "flying|reach",
+        "\\Qtrample\\E",
+        "(tap|untap) target creature\\.",
+        "untap target (?<target>[^\\.]*)\\.",
+        "sacrifice? a creature",
+        "[Ee]xile target card from a graveyard\\.",
+        "return (?<target>[^\\.]*) to its owner's hand\\.",
+        "put a \\+1/\\+1 counter on (?<target>[^\\.]*)\\.",
+        "(?<target>[^\\.]*) deal(s)? (?<amount>[0-9]+) damage to any target\\.",
+        "scry (?<amount>[0-9]+)\\.",
+        "\\p{Alpha}+ \\p{Alpha}+",
+    };
+
+    private static final String[] TEXTS = {
+        "Destroy target creature.",
+        "destroy target creature.",
+        "destroy target creature. It can't be regenerated.",
+        "Destroy all creatures. They can't be regenerated.",
+        "draw a card.",
+        "draw two cards.",
+        "You gain 3 life.",
+        "you gain 3 life.",
+        "target player gains 10 life.",
+        "flying",
+        "reach",
+        "trample",
+        "tap target creature.",
+        "untap target creature.",
+        "untap target land.",
+        "sacrific a creature",
+        "sacrifice a creature",
+        "exile target card from a graveyard.",
+        "Exile target card from a graveyard.",
+        "return target creature to its owner's hand.",
+        "put a +1/+1 counter on target creature.",
+        "SN deals 2 damage to any target.",
+        "scry 2.",
+        "first strike",
+        "hexproof",
+        "",
+        "destroy",
+        "draw a card",
+    };
+
+    private static Pattern findLinear(final Pattern[] patterns, final String text) {
+        for (final Pattern pattern : patterns) {
+            if (pattern.matcher(text).matches()) {
+                return pattern;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void testFindIsFirstMatch() {
+        final Pattern[] patterns = new Pattern[REGEXES.length];
+        for (int i = 0; i < REGEXES.length; i++) {
+            patterns[i] = Pattern.compile(REGEXES[i], Pattern.CASE_INSENSITIVE);
+        }
+        final MagicPatternIndex<Pattern> index = new MagicPatternIndex<>(patterns, p -> p);
+        for (final String text : TEXTS) {
+            final Pattern expected = findLinear(patterns, text);
+            assertSame(text, expected, index.find(text));
+            final MagicPatternIndex.Match<Pattern> match = index.match(text);
+            assertSame(text, expected, match != null ? match.matcher.pattern() : null);
+        }
+    }
+
+    @Test
+    public void testGetLiterals() {
+        assertEquals(Arrays.asList("draw a card\u0000"), MagicPatternIndex.getLiterals("draw a card\\."));
+        assertEquals(Arrays.asList("\u0000destroy \u0000"), MagicPatternIndex.getLiterals("(?<choice>[^\\.]*)destroy (?<target>[^\\.]*)\\."));
+        assertEquals(Arrays.asList("sacrific\u0000", "\u0000 a creature"), MagicPatternIndex.getLiterals("sacrifice? a creature"));
+        assertEquals(Arrays.asList(), MagicPatternIndex.getLiterals("flying|reach"));
+        assertEquals(Arrays.asList(), MagicPatternIndex.getLiterals("\\Qtrample\\E"));
+    }
+}
@@ -0,0 +1,80 @@
+package magic.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import magic.model.action.AddStaticAction;
+import magic.model.action.RemoveStaticAction;
+import magic.model.mstatic.MagicLayer;
+import magic.model.mstatic.MagicStatic;
+import magic.test.TestGameBuilder;
+import org.junit.Test;
+
+public class MagicPermanentIndexTest {
+
+    private static final MagicStatic Animated = new MagicStatic(MagicLayer.Type) {
+        @Override
+        public int getTypeFlags(final MagicPermanent permanent, final int flags) {
+            return flags | MagicType.Creature.getMask();
+        }
+    };
+
+    private static final MagicStatic NotCreature = new MagicStatic(MagicLayer.Type) {
+        @Override
+        public int getTypeFlags(final MagicPermanent permanent, final int flags) {
+            return flags & ~MagicType.Creature.getMask();
+        }
+    };
+
+    private static MagicCardDefinition createLand() {
+        final MagicCardDefinition cardDefinition = new MagicCardDefinition();
+        cardDefinition.setName("Land");
+        cardDefinition.setDistinctName("Land");
+        cardDefinition.addType(MagicType.Land);
+        cardDefinition.loadAbilities();
+        return cardDefinition;
+    }
+
+    @Test
+    public void testTypeChanges() {
+        final MagicGame game = TestGameBuilder.createDuel().nextGame();
+        game.setArtificial(true);
+        final MagicPlayer player = game.getPlayer(0);
+        final MagicPermanent land = TestGameBuilder.createPermanent(player, createLand(), false, 1);
+        final MagicPermanent bear = TestGameBuilder.createPermanent(player, TestGameBuilder.createCreature("Bear", 2, 2), false, 1);
+        game.update();
+
+        final int creature = MagicType.Creature.getMask();
+        final int landOrArtifact = MagicType.Land.getMask() | MagicType.Artifact.getMask();
+        assertEquals(Collections.singletonList(bear), player.getPermanents(creature));
+        assertEquals(Collections.singletonList(land), player.getPermanents(landOrArtifact));
+        assertEquals(1, player.getNrOfPermanents(MagicType.Creature));
+
+        // an animated land is a creature after the update, in the order of the set
+        game.doAction(new AddStaticAction(land, Animated));
+        game.update();
+        assertEquals(new ArrayList<>(player.getPermanents()), player.getPermanents(creature));
+        assertEquals(2, player.getNrOfPermanents(MagicType.Creature));
+        assertEquals(Collections.singletonList(land), player.getPermanents(MagicType.Land.getMask()));
+
+        // a creature that loses its type, and an artifact type gained by a creature
+        game.doAction(new AddStaticAction(bear, NotCreature));
+        game.doAction(new AddStaticAction(bear, MagicStatic.Artifact));
+        game.update();
+        assertEquals(Collections.singletonList(land), player.getPermanents(creature));
+        assertEquals(1, player.getNrOfPermanents(MagicType.Creature));
+        assertEquals(1, player.getNrOfPermanents(MagicType.Artifact));
+        assertEquals(2, player.getPermanents(landOrArtifact).size());
+
+        // both drop out of the views they were added to when the effects end
+        game.doAction(new RemoveStaticAction(land, Animated));
+        game.doAction(new RemoveStaticAction(bear, NotCreature));
+        game.doAction(new RemoveStaticAction(bear, MagicStatic.Artifact));
+        game.update();
+        assertEquals(Collections.singletonList(bear), player.getPermanents(creature));
+        assertEquals(Collections.singletonList(land), player.getPermanents(landOrArtifact));
+        assertEquals(0, player.getNrOfPermanents(MagicType.Artifact));
+    }
+}
@@ -0,0 +1,95 @@
+package magic.model.choice;
+
+import static org.junit.Assert.assertEquals;
+
+import magic.model.MagicCardDefinition;
+import magic.model.MagicGame;
+import magic.model.MagicManaCost;
+import magic.model.MagicPlayer;
+import magic.model.MagicType;
+import magic.model.score.MagicFastCombatScore;
+import magic.test.TestGameBuilder;
+import org.junit.Test;
+
+public class MagicFastCombatScoreTest {
+
+    private static MagicCardDefinition createCreature(final String name, final int power, final int toughness, final String ability) {
+        final MagicCardDefinition cardDefinition = new MagicCardDefinition();
+        cardDefinition.setName(name);
+        cardDefinition.setDistinctName(name);
+        cardDefinition.addType(MagicType.Creature);
+        cardDefinition.setPowerToughness(power, toughness);
+        cardDefinition.setCost(MagicManaCost.create("{1}{G}"));
+        if (ability != null) {
+            cardDefinition.setAbilityProperty(ability);
+        }
+        cardDefinition.loadAbilities();
+        return cardDefinition;
+    }
+
+    private static MagicCombatCreature createCombatCreature(final MagicPlayer player, final MagicCardDefinition cardDefinition) {
+        return new MagicCombatCreature(TestGameBuilder.createPermanent(player, cardDefinition, false, 1));
+    }
+
+    // every block, each blocker blocking one of the attackers or nothing
+    private static void assertSameScores(final MagicFastCombatScore fastScore, final MagicCombatCreature[] attackers, final MagicCombatCreature[] blockers) {
+        final int[] blocked = new int[blockers.length];
+        int blocks = 1;
+        for (int i = 0; i < blockers.length; i++) {
+            blocks *= attackers.length + 1;
+        }
+        for (int block = 0; block < blocks; block++) {
+            int code = block;
+            for (int i = 0; i < blockers.length; i++) {
+                blocked[i] = code % (attackers.length + 1) - 1;
+                code /= attackers.length + 1;
+            }
+            final MagicDeclareBlockersResult result = new MagicDeclareBlockersResult(0, 0);
+            for (int j = 0; j < attackers.length; j++) {
+                int size = 1;
+                for (int i = 0; i < blockers.length; i++) {
+                    if (blocked[i] == j) {
+                        size++;
+                    }
+                }
+                final MagicCombatCreature[] creatures = new MagicCombatCreature[size];
+                creatures[0] = attackers[j];
+                size = 1;
+                for (int i = 0; i < blockers.length; i++) {
+                    if (blocked[i] == j) {
+                        creatures[size++] = blockers[i];
+                    }
+                }
+                result.addLast(creatures);
+            }
+            assertEquals(fastScore.getScore(result), fastScore.getScore(attackers, blockers, blocked));
+        }
+    }
+
+    @Test
+    public void testScoreOfBlockedArray() {
+        final MagicGame game = TestGameBuilder.createDuel().nextGame();
+        game.setArtificial(true);
+        final MagicPlayer attacking = game.getPlayer(0);
+        final MagicPlayer defending = game.getPlayer(1);
+        final MagicCombatCreature[] attackers = {
+            createCombatCreature(attacking, createCreature("Trampler", 3, 3, "trample")),
+            createCombatCreature(attacking, createCreature("Assassin", 2, 2, "deathtouch")),
+            createCombatCreature(attacking, createCreature("Raider", 4, 1, null)),
+        };
+        final MagicCombatCreature[] blockers = {
+            createCombatCreature(defending, createCreature("Bear", 2, 2, null)),
+            createCombatCreature(defending, createCreature("Healer", 1, 4, "lifelink")),
+            createCombatCreature(defending, createCreature("Giant", 3, 3, null)),
+            createCombatCreature(defending, createCreature("Wall", 0, 5, "indestructible")),
+        };
+        game.update();
+
+        // both signs of the score, and blocks that survive or lose the game
+        for (final int life : new int[]{20, 5}) {
+            defending.setLife(life);
+            assertSameScores(new MagicFastCombatScore(defending, defending), attackers, blockers);
+            assertSameScores(new MagicFastCombatScore(defending, attacking), attackers, blockers);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package magic.model.choice;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import magic.model.MagicCardDefinition;
+import magic.model.MagicGame;
+import magic.model.MagicManaCost;
+import magic.model.MagicManaType;
+import magic.model.MagicPlayer;
+import magic.model.MagicType;
+import magic.model.event.MagicTapManaActivation;
+import magic.test.TestGameBuilder;
+import org.junit.Test;
+
+public class MagicPayManaCostResultBuilderTest {
+
+    private static final String[] MANA = {
+        "{R}", "{G}", "{W}", "{U}", "{C}", "{R} or {G}", "{W} or {U}", "{G} or {U}", "one mana of any color",
+    };
+
+    private static final String[] COSTS = {
+        "{R}", "{R}{G}", "{2}{R}", "{3}", "{R/G}{R/G}", "{W/U}{R/G}{1}", "{R/G}{G/U}{W/U}",
+        "{2/G}", "{2/R}{W}", "{X}", "{X}{R}", "{X}{R/G}{G}", "{C}{1}", "{G}{G}{U}",
+    };
+
+    private static MagicCardDefinition createLand(final String mana) {
+        final MagicCardDefinition cardDefinition = new MagicCardDefinition();
+        cardDefinition.setName(mana);
+        cardDefinition.setDistinctName(mana);
+        cardDefinition.addType(MagicType.Land);
+        cardDefinition.addManaAct(new MagicTapManaActivation(MagicManaType.getList(mana)));
+        cardDefinition.loadAbilities();
+        return cardDefinition;
+    }
+
+    // the Hall's condition check of hasResults agrees with the search for an assignment
+    @Test
+    public void testHasResultsMatchesSearch() {
+        final MagicCardDefinition[] lands = new MagicCardDefinition[MANA.length];
+        for (int i = 0; i < lands.length; i++) {
+            lands[i] = createLand(MANA[i]);
+        }
+        final Random random = new Random(42);
+        int payable = 0;
+        int unpayable = 0;
+        for (int trial = 0; trial < 40; trial++) {
+            final MagicGame game = TestGameBuilder.createDuel().nextGame();
+            game.setArtificial(true);
+            final MagicPlayer player = game.getPlayer(0);
+            for (int count = random.nextInt(6); count > 0; count--) {
+                TestGameBuilder.createPermanent(player, lands[random.nextInt(lands.length)], false, 1);
+            }
+            game.update();
+            for (final String text : COSTS) {
+                final MagicManaCost cost = MagicManaCost.create(text);
+                final boolean expected = new MagicPayManaCostResultBuilder(game, player, cost.getBuilderCost()).searchResults();
+                final boolean actual = new MagicPayManaCostResultBuilder(game, player, cost.getBuilderCost()).hasResults();
+                assertEquals(text + " with " + player.getPermanents(), expected, actual);
+                if (expected) {
+                    payable++;
+                } else {
+                    unpayable++;
+                }
+            }
+        }
+        // both outcomes are covered
+        assertTrue(payable > 0);
+        assertTrue(unpayable > 0);
+    }
+}
@@ -0,0 +1,192 @@
+package magic.model.choice;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import magic.model.MagicCardDefinition;
+import magic.model.MagicGame;
+import magic.model.MagicManaCost;
+import magic.model.MagicManaType;
+import magic.model.MagicPermanent;
+import magic.model.MagicPermanentState;
+import magic.model.MagicPlayer;
+import magic.model.MagicType;
+import magic.model.event.MagicDeclareBlockersEvent;
+import magic.model.event.MagicEvent;
+import magic.model.event.MagicEventAction;
+import magic.model.event.MagicPayManaCostEvent;
+import magic.model.event.MagicTapManaActivation;
+import magic.model.target.MagicDestroyTargetPicker;
+import magic.test.TestGameBuilder;
+import org.junit.Test;
+
+/**
+ * The result drawn by getSimulationChoiceResult is always one of the results
+ * of getArtificialChoiceResults, for every seed of the game's random numbers.
+ */
+public class MagicSimulationChoiceTest {
+
+    private static final int SEEDS = 200;
+
+    private static MagicGame createGame() {
+        final MagicGame game = TestGameBuilder.createDuel().nextGame();
+        game.setArtificial(true);
+        return game;
+    }
+
+    private static MagicCardDefinition createForest() {
+        final MagicCardDefinition cardDefinition = new MagicCardDefinition();
+        cardDefinition.setName("Forest");
+        cardDefinition.setDistinctName("Forest");
+        cardDefinition.addType(MagicType.Land);
+        cardDefinition.addManaAct(new MagicTapManaActivation(MagicManaType.getList("{G}")));
+        cardDefinition.loadAbilities();
+        return cardDefinition;
+    }
+
+    private static void createCreatures(final MagicPlayer player, final int... powers) {
+        for (final int power : powers) {
+            TestGameBuilder.createPermanent(player, TestGameBuilder.createCreature("Creature " + power, power, power), false, 1);
+        }
+    }
+
+    @Test
+    public void testTargetChoice() {
+        final MagicGame game = createGame();
+        final MagicPlayer player = game.getPlayer(0);
+        createCreatures(player, 1, 2);
+        createCreatures(player.getOpponent(), 2, 3, 4);
+        game.update();
+        final MagicPermanent source = player.getPermanents().first();
+        final MagicEvent event = new MagicEvent(
+            source,
+            player,
+            MagicTargetChoice.TARGET_CREATURE,
+            MagicDestroyTargetPicker.Destroy,
+            MagicEventAction.NONE,
+            ""
+        );
+
+        for (final boolean fast : new boolean[]{false, true}) {
+            game.setFastTarget(fast);
+            final Set<Object> targets = new HashSet<>();
+            for (final Object[] result : event.getArtificialChoiceResults(game)) {
+                targets.add(result[0]);
+            }
+            final Set<Object> drawn = new HashSet<>();
+            for (long seed = 1; seed <= SEEDS; seed++) {
+                game.setRNGState(seed);
+                final Object target = event.getSimulationChoiceResult(game)[0];
+                assertTrue(target + " is not a target", targets.contains(target));
+                drawn.add(target);
+            }
+            // every target is drawn
+            assertEquals(targets, drawn);
+        }
+    }
+
+    @Test
+    public void testPayManaCostChoice() {
+        final MagicGame game = createGame();
+        final MagicPlayer player = game.getPlayer(0);
+        TestGameBuilder.createPermanent(player, createForest(), false, 4);
+        game.update();
+        game.setFastMana(true);
+        final MagicPermanent source = player.getPermanents().first();
+
+        for (final String cost : new String[]{"{G}", "{X}", "{X}{G}", "{X}{X}"}) {
+            final MagicEvent event = new MagicPayManaCostEvent(source, player, cost);
+            final MagicManaCost manaCost = MagicManaCost.create(cost);
+            final Set<Integer> xs = new HashSet<>();
+            for (final Object[] result : event.getArtificialChoiceResults(game)) {
+                xs.add(((MagicDelayedPayManaCostResult)result[0]).getX());
+            }
+            final Set<Integer> drawn = new HashSet<>();
+            for (long seed = 1; seed <= SEEDS; seed++) {
+                game.setRNGState(seed);
+                final int x = ((MagicDelayedPayManaCostResult)event.getSimulationChoiceResult(game)[0]).getX();
+                assertTrue(cost + " with X = " + x, xs.contains(x));
+                drawn.add(x);
+            }
+            // X is drawn from 1 to the maximum X, and is 0 without X
+            final int maximumX = manaCost.hasX() ? player.getMaximumX(game, manaCost) : 0;
+            assertEquals(cost, Math.max(maximumX, 1), drawn.size());
+            for (final int x : drawn) {
+                assertTrue(cost + " with X = " + x, maximumX == 0 ? x == 0 : x >= 1 && x <= maximumX);
+            }
+        }
+    }
+
+    // blockers of each attacker that is blocked
+    private static Map<MagicPermanent, Set<MagicPermanent>> getBlocks(final MagicDeclareBlockersResult result) {
+        final Map<MagicPermanent, Set<MagicPermanent>> blocks = new HashMap<>();
+        final Set<MagicPermanent> blockers = new HashSet<>();
+        for (final MagicCombatCreature[] creatures : result) {
+            if (creatures.length > 1) {
+                final Set<MagicPermanent> attackerBlockers = new HashSet<>();
+                for (int i = 1; i < creatures.length; i++) {
+                    assertTrue(creatures[i].permanent.canBlock(creatures[0].permanent));
+                    assertTrue(blockers.add(creatures[i].permanent));
+                    attackerBlockers.add(creatures[i].permanent);
+                }
+                assertTrue(creatures[0].permanent.isAttacking());
+                blocks.put(creatures[0].permanent, attackerBlockers);
+            }
+        }
+        return blocks;
+    }
+
+    private static MagicEvent createBlockersEvent(final MagicGame game) {
+        final MagicPlayer attacker = game.getPlayer(0);
+        for (final MagicPermanent permanent : attacker.getPermanents()) {
+            permanent.setState(MagicPermanentState.Attacking);
+        }
+        game.update();
+        return new MagicDeclareBlockersEvent(attacker.getOpponent());
+    }
+
+    @Test
+    public void testDeclareBlockersChoice() {
+        // with a single blocker every block is among the artificial results
+        final MagicGame game = createGame();
+        createCreatures(game.getPlayer(0), 1, 2, 3);
+        createCreatures(game.getPlayer(1), 2);
+        final MagicEvent event = createBlockersEvent(game);
+        final Set<Map<MagicPermanent, Set<MagicPermanent>>> blocks = new HashSet<>();
+        for (final Object[] result : event.getArtificialChoiceResults(game)) {
+            blocks.add(getBlocks((MagicDeclareBlockersResult)result[0]));
+        }
+        final Set<Map<MagicPermanent, Set<MagicPermanent>>> drawn = new HashSet<>();
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            game.setRNGState(seed);
+            final Map<MagicPermanent, Set<MagicPermanent>> block = getBlocks((MagicDeclareBlockersResult)event.getSimulationChoiceResult(game)[0]);
+            assertTrue(block.toString(), blocks.contains(block));
+            drawn.add(block);
+        }
+        assertEquals(blocks, drawn);
+    }
+
+    @Test
+    public void testDeclareBlockersChoiceLegal() {
+        // the artificial results only keep the best blocks, so larger blocks
+        // are checked to be legal, see getBlocks, and to cover multiple blocks
+        final MagicGame game = createGame();
+        createCreatures(game.getPlayer(0), 1, 2, 3);
+        createCreatures(game.getPlayer(1), 1, 2, 3);
+        final MagicEvent event = createBlockersEvent(game);
+        boolean multiple = false;
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            game.setRNGState(seed);
+            final MagicDeclareBlockersResult result = (MagicDeclareBlockersResult)event.getSimulationChoiceResult(game)[0];
+            for (final Set<MagicPermanent> blockers : getBlocks(result).values()) {
+                multiple |= blockers.size() > 1;
+            }
+        }
+        assertTrue(multiple);
+    }
+}
@@ -0,0 +1,84 @@
+package magic.model.trigger;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import magic.model.MagicCardDefinition;
+import magic.model.MagicGame;
+import magic.model.MagicPermanent;
+import magic.model.MagicPlayer;
+import magic.model.event.MagicEvent;
+import magic.test.TestGameBuilder;
+import org.junit.Test;
+
+public class MagicPermanentTriggerRegistryTest {
+
+    private static AtUpkeepTrigger createTrigger(final int priority) {
+        return new AtUpkeepTrigger(priority) {
+            @Override
+            public MagicEvent executeTrigger(final MagicGame game, final MagicPermanent permanent, final MagicPlayer upkeepPlayer) {
+                return MagicEvent.NONE;
+            }
+        };
+    }
+
+    private static List<MagicTrigger<?>> getTriggers(final MagicPermanentTriggerRegistry registry) {
+        final List<MagicTrigger<?>> triggers = new ArrayList<>();
+        for (final MagicPermanentTrigger mptrigger : registry.get(MagicTriggerType.AtUpkeep)) {
+            triggers.add(mptrigger.getTrigger());
+        }
+        return triggers;
+    }
+
+    @Test
+    public void testOrderAndLayers() {
+        final MagicGame game = TestGameBuilder.createDuel().nextGame();
+        game.setArtificial(true);
+        final MagicPlayer player = game.getPlayer(0);
+
+        final AtUpkeepTrigger late = createTrigger(50);
+        final AtUpkeepTrigger early = createTrigger(10);
+        final AtUpkeepTrigger other = createTrigger(10);
+        final MagicCardDefinition first = TestGameBuilder.createCreature("First", 1, 1);
+        first.addTrigger(late);
+        first.addTrigger(early);
+        final MagicCardDefinition second = TestGameBuilder.createCreature("Second", 1, 1);
+        second.addTrigger(other);
+        final MagicPermanent firstPermanent = TestGameBuilder.createPermanent(player, first, false, 1);
+        final MagicPermanent secondPermanent = TestGameBuilder.createPermanent(player, second, false, 1);
+        game.update();
+
+        // by priority, then by the id of the permanent and the index of the trigger
+        final MagicPermanentTriggerRegistry registry = new MagicPermanentTriggerRegistry();
+        final MagicPermanentTriggerMap additionalTriggers = new MagicPermanentTriggerMap();
+        registry.update(game, additionalTriggers);
+        assertEquals(Arrays.asList(early, other, late), getTriggers(registry));
+
+        // a trigger added by a layer, then another one to the same collection
+        final AtUpkeepTrigger gained = createTrigger(10);
+        secondPermanent.addAbility(gained);
+        registry.update(game, additionalTriggers);
+        assertEquals(Arrays.asList(early, other, gained, late), getTriggers(registry));
+        final AtUpkeepTrigger gainedAgain = createTrigger(5);
+        secondPermanent.addAbility(gainedAgain);
+        registry.update(game, additionalTriggers);
+        assertEquals(Arrays.asList(gainedAgain, early, other, gained, late), getTriggers(registry));
+
+        // losing all abilities unregisters the triggers, the card layer restores them
+        firstPermanent.loseAllAbilities();
+        registry.update(game, additionalTriggers);
+        assertEquals(Arrays.asList(gainedAgain, other, gained), getTriggers(registry));
+        game.invalidateStateId();
+        game.update();
+        registry.update(game, additionalTriggers);
+        assertEquals(Arrays.asList(early, other, late), getTriggers(registry));
+
+        // the triggers of a permanent that left are removed
+        player.removePermanent(firstPermanent);
+        registry.update(game, additionalTriggers);
+        assertEquals(Arrays.asList(other), getTriggers(registry));
+    }
+}